@@ -0,0 +1,62 @@
+package com.saurabhh.tiktokreels.jmh;
+
+import com.saurabhh.tiktokreels.service.AIService;
+import com.saurabhh.tiktokreels.service.ThumbnailEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caption and thumbnail generation without a decodable video: the caption
+ * comes from the filename through five regex passes, and the thumbnail is
+ * the rendered placeholder, scaled and JPEG-encoded at the default width.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AIServiceBenchmark {
+
+    @Param({"beach_day-2024_07_14.mp4", "VID_20240714_183205_final-edit-v2_really_final.mov"})
+    public String filename;
+
+    private ThumbnailEngine thumbnailEngine;
+    private AIService aiService;
+
+    @Setup
+    public void setUp() {
+        thumbnailEngine = new ThumbnailEngine("ffmpeg", List.of(320, 640, 1280), 1, 10_000);
+        aiService = new AIService(thumbnailEngine);
+    }
+
+    @TearDown
+    public void tearDown() {
+        thumbnailEngine.shutdown();
+    }
+
+    @Benchmark
+    public String generateDefaultCaption() {
+        // The only caller of the private generateDefaultCaption for a stored video
+        return aiService.generateCaption(null, filename);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] generatePlaceholderThumbnail() {
+        return aiService.generateThumbnail(null, filename);
+    }
+}
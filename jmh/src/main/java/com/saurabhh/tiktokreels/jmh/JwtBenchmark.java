@@ -0,0 +1,59 @@
+package com.saurabhh.tiktokreels.jmh;
+
+import com.saurabhh.tiktokreels.security.AuthenticatedUser;
+import com.saurabhh.tiktokreels.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing a token at login, and a full parse and signature check of one.
+ * getUsernameFromToken does not go through the verified-token cache, so
+ * it is the cost of a cache miss in the JWT filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKey1234567890123456789012345678901234567890123456";
+
+    private JwtTokenProvider tokenProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3_600_000, 10_000);
+        List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "alice", "hash", roles);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, roles);
+        token = tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return tokenProvider.getUsernameFromToken(token);
+    }
+}
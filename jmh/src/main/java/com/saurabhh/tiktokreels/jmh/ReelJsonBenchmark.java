@@ -0,0 +1,74 @@
+package com.saurabhh.tiktokreels.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of reel pages, configured like Spring Boot's
+ * default ObjectMapper (ISO-8601 dates). 100 is the largest page the API
+ * returns; 1000 shows how the cost grows past it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReelJsonBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<ReelDTO> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        page = new ArrayList<>(pageSize);
+        Instant now = Instant.parse("2024-07-14T18:32:05Z");
+        for (long i = 1; i <= pageSize; i++) {
+            page.add(ReelDTO.builder()
+                    .id(i)
+                    .userId(i % 50)
+                    .username("creator" + (i % 50))
+                    .title("Sunset at the beach #" + i + " #travel #summer")
+                    .description("Golden hour on the coast, filmed on a phone. #travel #beach #sunset #vlog")
+                    .videoUrl("/api/videos/" + Long.toHexString(i * 0x9E3779B97F4A7C15L) + ".mp4")
+                    .thumbnailUrl("/api/thumbnails/" + Long.toHexString(i * 0xC2B2AE3D27D4EB4FL) + ".jpg")
+                    .durationMs(15_000L + i)
+                    .likesCount((int) (i * 37 % 10_000))
+                    .viewsCount((int) (i * 7919 % 1_000_000))
+                    .isPrivate(false)
+                    .createdAt(now.minusSeconds(i * 60))
+                    .updatedAt(now.minusSeconds(i * 60))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
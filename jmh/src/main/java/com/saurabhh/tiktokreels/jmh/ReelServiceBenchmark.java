@@ -0,0 +1,95 @@
+package com.saurabhh.tiktokreels.jmh;
+
+import com.saurabhh.tiktokreels.dto.ReelPageDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import com.saurabhh.tiktokreels.service.CounterAggregator;
+import com.saurabhh.tiktokreels.service.PrefetchService;
+import com.saurabhh.tiktokreels.service.ReelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO conversion for a feed page. convertToDTO is private, so
+ * this goes through getAllReels with stub repositories that hand back the
+ * same in-memory lists on every call: what is measured is the conversion,
+ * the author lookup map and the overlay of pending counter deltas.
+ * Collaborators the feed path never calls are left null.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReelServiceBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ReelService reelService;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.parse("2024-07-14T18:32:05Z");
+        List<Reel> reels = new ArrayList<>();
+        List<User> authors = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            authors.add(User.builder().id(i).username("creator" + i).build());
+        }
+        for (long i = 1; i <= pageSize + 1; i++) {
+            reels.add(Reel.builder().id(i).userId(i % 50 + 1)
+                    .title("Sunset at the beach #" + i).description("Golden hour on the coast #travel")
+                    .videoUrl("/api/videos/" + i + ".mp4").thumbnailUrl("/api/thumbnails/" + i + ".jpg")
+                    .durationMs(15_000L).likesCount(10).viewsCount(100).watchTimeMs(0L)
+                    .createdAt(now.minusSeconds(i)).updatedAt(now.minusSeconds(i)).build());
+        }
+        ReelRepository reelRepository = stub(ReelRepository.class, "findPublicFeedFirstPage", reels);
+        UserRepository userRepository = stub(UserRepository.class, "findAllById", authors);
+
+        // A real aggregator, so the pending-delta overlay costs what it does in production; it never flushes here
+        CounterAggregator counterAggregator = new CounterAggregator(null, null, null);
+        for (long i = 1; i <= pageSize; i += 3) {
+            counterAggregator.incrementViews(i);
+        }
+        // No prefetch hints, so no file lookups or warming
+        PrefetchService prefetchService = new PrefetchService(null, 0, 0, 1, 1, 1, 1);
+        reelService = new ReelService(reelRepository, userRepository, null, null, counterAggregator,
+                null, null, null, null, null, null, null, null, null, null, prefetchService, null);
+    }
+
+    @Benchmark
+    public ReelPageDTO convertFeedPage() {
+        return reelService.getAllReels(null, pageSize, null);
+    }
+
+    /**
+     * A repository that answers one query with a fixed result, and fails on anything else
+     */
+    private static <T> T stub(Class<T> repository, String query, Object result) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository},
+                (proxy, method, args) -> {
+                    if (method.getName().equals(query)) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                }));
+    }
+}
@@ -0,0 +1,194 @@
+package com.saurabhh.tiktokreels.cache;
+
+import com.saurabhh.tiktokreels.dto.CacheStatsDTO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache bounded by entry count (LRU) and by time since write.
+ * Keys are spread over independently locked segments so hot reads on
+ * different keys do not contend on a single lock.
+ *
+ * @param <K> The key type
+ * @param <V> The value type; null values are never cached
+ */
+public class BoundedCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public BoundedCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(int maxSize, long ttlMs, LongSupplier clock) {
+        if (maxSize < 1 || ttlMs < 1) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.clock = clock;
+        int segmentCapacity = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new BoundedCache.Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * @return The cached value, or null if absent or expired
+     */
+    public V getIfPresent(K key) {
+        V value = segmentFor(key).get(key, clock.getAsLong());
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. A value
+     * loaded while the key was being invalidated is returned but not cached,
+     * so a slow load can never overwrite a newer invalidation.
+     *
+     * @param loader Loads the value; exceptions propagate and nothing is cached
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment segment = segmentFor(key);
+        V value = segment.get(key, clock.getAsLong());
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        long stamp = segment.stamp();
+        value = loader.apply(key);
+        if (value != null) {
+            segment.putIfUnchanged(key, value, stamp, clock.getAsLong());
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Segment segment = segmentFor(key);
+        segment.putIfUnchanged(key, value, segment.stamp(), clock.getAsLong());
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).invalidate(key);
+        invalidations.increment();
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        invalidations.increment();
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public CacheStatsDTO stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return CacheStatsDTO.builder()
+                .size(size())
+                .maxSize(maxSize)
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .hitRatio(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .build();
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long writtenAt;
+
+        Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<K, Entry<V>> entries;
+        // Bumped by every invalidation, so loads that raced with one are not cached
+        private long stamp;
+
+        Segment(int capacity) {
+            // Access order makes the eldest entry the least recently used one
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.writtenAt >= ttlNanos) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized long stamp() {
+            return stamp;
+        }
+
+        synchronized void putIfUnchanged(K key, V value, long expectedStamp, long now) {
+            if (stamp == expectedStamp) {
+                entries.put(key, new Entry<>(value, now));
+            }
+        }
+
+        synchronized void invalidate(K key) {
+            entries.remove(key);
+            stamp++;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            stamp++;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
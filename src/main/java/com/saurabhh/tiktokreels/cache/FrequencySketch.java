@@ -0,0 +1,82 @@
+package com.saurabhh.tiktokreels.cache;
+
+/**
+ * Approximate access counts for the admission policy of {@link OffHeapCache}:
+ * a count-min sketch of 4-bit counters, sixteen to a long. Counts saturate
+ * at 15, and all of them are halved once the sketch has seen ten times as
+ * many increments as it has words, so old popularity fades. Not thread-safe;
+ * the cache calls it under its own lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+    // Clears the top bit of every counter after a right shift by one
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries The number of distinct keys the cache is expected to hold
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(64, Math.min(expectedEntries, 1 << 26)) - 1) << 1;
+        this.table = new long[width];
+        this.tableMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            if (((table[index] >>> offset) & 0xF) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    // Each row uses a different one of the sixteen counters in a word
+    private static int offsetOf(int hash, int row) {
+        return ((hash >>> (row << 3)) & 0xF) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xED5AD4BB;
+        hash ^= hash >>> 11;
+        hash *= 0xAC4C1B51;
+        return hash ^ (hash >>> 15);
+    }
+}
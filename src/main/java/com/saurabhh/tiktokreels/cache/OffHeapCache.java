@@ -0,0 +1,212 @@
+package com.saurabhh.tiktokreels.cache;
+
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Byte buffers bounded by their total size, evicted with W-TinyLFU. New
+ * entries go into a small LRU window that is one percent of the budget.
+ * When they fall out of it they only enter the main area if they have
+ * been asked for more often than the entries they would push out, so a
+ * burst of one-off reads cannot flush out objects that are read all the
+ * time. The main area is a segmented LRU: entries hit a second time move
+ * from probation to a protected segment of 80% of the main area.
+ * Thread-safe; every operation takes one short lock.
+ *
+ * @param <K> The key type
+ */
+public class OffHeapCache<K> {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long mainMaxBytes;
+    private final long protectedMaxBytes;
+    private final FrequencySketch sketch;
+    // Access ordered, so the first entry of each is the least recently used
+    private final LinkedHashMap<K, ByteBuffer> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, ByteBuffer> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, ByteBuffer> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    /**
+     * @param maxBytes The total size of all cached buffers
+     * @param expectedEntries The number of entries the budget is expected to hold, to size the frequency sketch
+     */
+    public OffHeapCache(long maxBytes, int expectedEntries) {
+        if (maxBytes < 100 || expectedEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 100 bytes and one entry");
+        }
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = maxBytes * WINDOW_PERCENT / 100;
+        this.mainMaxBytes = maxBytes - windowMaxBytes;
+        this.protectedMaxBytes = mainMaxBytes * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Every entry passes through the window, so nothing larger can be cached
+     */
+    public long getMaxEntryBytes() {
+        return windowMaxBytes;
+    }
+
+    /**
+     * Looks up a buffer and counts the access, hit or miss
+     *
+     * @return A read-only view of the whole buffer, or null if absent
+     */
+    public synchronized ByteBuffer get(K key) {
+        sketch.increment(key);
+        ByteBuffer value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                probationBytes -= value.capacity();
+                protect(key, value);
+            }
+        }
+        if (value == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return value.asReadOnlyBuffer();
+    }
+
+    /**
+     * Adds a buffer to the window. The caller must not modify it afterwards.
+     *
+     * @return false if it is larger than {@link #getMaxEntryBytes()}, or the key is already cached
+     */
+    public synchronized boolean put(K key, ByteBuffer value) {
+        int weight = value.capacity();
+        if (weight > windowMaxBytes
+                || window.containsKey(key) || probation.containsKey(key) || protectedSegment.containsKey(key)) {
+            return false;
+        }
+        window.put(key, value);
+        windowBytes += weight;
+        while (windowBytes > windowMaxBytes) {
+            Iterator<Map.Entry<K, ByteBuffer>> eldest = window.entrySet().iterator();
+            Map.Entry<K, ByteBuffer> candidate = eldest.next();
+            eldest.remove();
+            windowBytes -= candidate.getValue().capacity();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * @return How often the key was asked for recently, as counted by {@link #get(Object)}; at most 15
+     */
+    public synchronized int frequency(K key) {
+        return sketch.frequency(key);
+    }
+
+    public synchronized long size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public synchronized MediaCacheStatsDTO stats() {
+        long requests = hits + misses;
+        return MediaCacheStatsDTO.builder()
+                .entries(window.size() + probation.size() + protectedSegment.size())
+                .bytes(windowBytes + probationBytes + protectedBytes)
+                .maxBytes(maxBytes)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .rejections(rejections)
+                .hitRatio(requests == 0 ? 0.0 : (double) hits / requests)
+                .build();
+    }
+
+    /**
+     * Moves an entry leaving the window into probation if it is used more
+     * often than everything it would push out; otherwise drops it
+     */
+    private void admit(K key, ByteBuffer value) {
+        int weight = value.capacity();
+        long excess = probationBytes + protectedBytes + weight - mainMaxBytes;
+        if (excess > 0) {
+            // Victims come from the cold end of probation first, then of the protected segment
+            int frequency = sketch.frequency(key);
+            long freed = 0;
+            int victims = 0;
+            // Iterating does not count as an access, so the segments keep their order
+            Iterator<Map.Entry<K, ByteBuffer>> cold = coldestFirst();
+            while (freed < excess && cold.hasNext()) {
+                Map.Entry<K, ByteBuffer> victim = cold.next();
+                if (sketch.frequency(victim.getKey()) >= frequency) {
+                    rejections++;
+                    return;
+                }
+                freed += victim.getValue().capacity();
+                victims++;
+            }
+            for (int i = 0; i < victims; i++) {
+                evictColdest();
+            }
+        }
+        probation.put(key, value);
+        probationBytes += weight;
+    }
+
+    private void protect(K key, ByteBuffer value) {
+        protectedSegment.put(key, value);
+        protectedBytes += value.capacity();
+        while (protectedBytes > protectedMaxBytes) {
+            // Demoted entries get another chance in probation before they are evicted
+            Iterator<Map.Entry<K, ByteBuffer>> eldest = protectedSegment.entrySet().iterator();
+            Map.Entry<K, ByteBuffer> demoted = eldest.next();
+            eldest.remove();
+            protectedBytes -= demoted.getValue().capacity();
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationBytes += demoted.getValue().capacity();
+        }
+    }
+
+    private Iterator<Map.Entry<K, ByteBuffer>> coldestFirst() {
+        Iterator<Map.Entry<K, ByteBuffer>> probationEntries = probation.entrySet().iterator();
+        Iterator<Map.Entry<K, ByteBuffer>> protectedEntries = protectedSegment.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return probationEntries.hasNext() || protectedEntries.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, ByteBuffer> next() {
+                return probationEntries.hasNext() ? probationEntries.next() : protectedEntries.next();
+            }
+        };
+    }
+
+    private void evictColdest() {
+        LinkedHashMap<K, ByteBuffer> segment = probation.isEmpty() ? protectedSegment : probation;
+        Iterator<Map.Entry<K, ByteBuffer>> eldest = segment.entrySet().iterator();
+        int weight = eldest.next().getValue().capacity();
+        eldest.remove();
+        if (segment == probation) {
+            probationBytes -= weight;
+        } else {
+            protectedBytes -= weight;
+        }
+        evictions++;
+    }
+}
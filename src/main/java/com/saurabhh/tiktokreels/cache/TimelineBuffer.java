@@ -0,0 +1,90 @@
+package com.saurabhh.tiktokreels.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The newest reels of one feed, newest first, bounded in size. It is
+ * complete if it holds every reel of the feed; once the oldest entry has
+ * been pushed out it only holds the head, and callers go elsewhere for
+ * pages past it. Safe for concurrent readers and writers.
+ */
+public class TimelineBuffer {
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(Entry.NEWEST_FIRST);
+    private volatile boolean complete;
+
+    /**
+     * @param capacity The number of entries kept
+     * @param complete Whether the feed has no reels beyond those added next
+     */
+    public TimelineBuffer(int capacity, boolean complete) {
+        this.capacity = capacity;
+        this.complete = complete;
+    }
+
+    /**
+     * @return false if the reel was already in the buffer
+     */
+    public boolean add(Long reelId, Instant createdAt) {
+        boolean added = entries.add(new Entry(reelId, createdAt));
+        while (entries.size() > capacity) {
+            entries.pollLast();
+            complete = false;
+        }
+        return added;
+    }
+
+    /**
+     * @param afterCreatedAt The creation time of the last reel on the previous page, or null for the first page
+     * @param afterReelId The id of the last reel on the previous page
+     * @param limit The number of entries to return
+     * @return Up to limit entries past the position, newest first
+     */
+    public List<Entry> page(Instant afterCreatedAt, Long afterReelId, int limit) {
+        NavigableSet<Entry> tail = afterCreatedAt == null
+                ? entries
+                : entries.tailSet(new Entry(afterReelId, afterCreatedAt), false);
+        List<Entry> page = new ArrayList<>(Math.min(limit, capacity));
+        for (Entry entry : tail) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+        public static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing(Entry::getCreatedAt).reversed()
+                .thenComparing(Entry::getReelId, Comparator.reverseOrder());
+
+        private final Long reelId;
+        private final Instant createdAt;
+
+        public Entry(Long reelId, Instant createdAt) {
+            this.reelId = reelId;
+            this.createdAt = createdAt;
+        }
+
+        public Long getReelId() {
+            return reelId;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -46,16 +46,24 @@ public class AIController {
      * Generate a thumbnail for a video using AI
      * 
      * @param videoFile The video file to generate a thumbnail for
+     * @param width Optional thumbnail width, one of the configured sizes
      * @return The generated thumbnail image
      */
     @PostMapping("/generate-thumbnail")
-    public ResponseEntity<?> generateThumbnail(@RequestParam("video") MultipartFile videoFile) {
+    public ResponseEntity<?> generateThumbnail(@RequestParam("video") MultipartFile videoFile,
+                                               @RequestParam(value = "width", required = false) Integer width) {
         if (videoFile.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "Video file is required"));
         }
+        if (width != null && !aiService.getThumbnailWidths().contains(width)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unsupported width, use one of " + aiService.getThumbnailWidths()));
+        }
         
         try {
-            byte[] thumbnailBytes = aiService.generateThumbnail(videoFile);
+            byte[] thumbnailBytes = width == null
+                    ? aiService.generateThumbnail(videoFile)
+                    : aiService.generateThumbnail(videoFile, width);
             
             if (thumbnailBytes.length == 0) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,75 @@
+package com.saurabhh.tiktokreels.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An inclusive byte range from an HTTP {@code Range} header, resolved against a known length
+ */
+class ByteRange {
+    private static final int MAX_RANGES = 16;
+
+    final long start;
+    final long end;
+
+    ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Parses a {@code Range} header value such as {@code bytes=0-99,200-,-500}
+     *
+     * @param header The header value
+     * @param length The length of the representation
+     * @return The satisfiable ranges, empty if none are satisfiable, or null if the header
+     *         is malformed or asks for too many ranges and should be ignored
+     */
+    static List<ByteRange> parse(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String rawSpec : specs) {
+            String spec = rawSpec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // Suffix range: the last N bytes
+                    long suffix = Long.parseLong(last);
+                    if (suffix > 0 && length > 0) {
+                        ranges.add(new ByteRange(Math.max(0, length - suffix), length - 1));
+                    }
+                    continue;
+                }
+                long start = Long.parseLong(first);
+                // Open-ended range: to the end, which is unsatisfiable if it starts at or past the end
+                long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return null;
+                }
+                if (start < length) {
+                    ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges.isEmpty() ? Collections.emptyList() : ranges;
+    }
+}
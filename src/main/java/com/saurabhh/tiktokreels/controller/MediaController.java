@@ -0,0 +1,268 @@
+package com.saurabhh.tiktokreels.controller;
+
+import com.saurabhh.tiktokreels.service.FileStorageService;
+import com.saurabhh.tiktokreels.service.MediaCache;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves stored videos, thumbnails and HLS renditions with support for byte
+ * ranges and conditional requests. Whole files and single ranges of at
+ * least 48 KB are handed to the container's sendfile support when it is
+ * available, so the bytes never pass through the Java heap. Smaller ranges,
+ * and all ranges on containers without sendfile (e.g. behind TLS), come from
+ * the off-heap {@link MediaCache} when they lie within the head of a hot
+ * file, and are otherwise copied with {@link FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MediaController {
+    // Tomcat's sendfile contract: set these request attributes and Tomcat writes the file after we return
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this size a plain copy is cheaper than setting up sendfile
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    private static final String HLS_PLAYLIST = "application/vnd.apple.mpegurl";
+    private static final String HLS_SEGMENT = "video/mp2t";
+    // The servlet API only writes byte arrays, so cached buffers are copied out through this
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
+    private final FileStorageService fileStorageService;
+    private final MediaCache mediaCache;
+
+    @GetMapping("/videos/{name}")
+    public void getVideo(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(name, fileStorageService.find(FileStorageService.VIDEOS, name), null, request, response);
+    }
+
+    @GetMapping("/thumbnails/{name}")
+    public void getThumbnail(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(name, fileStorageService.find(FileStorageService.THUMBNAILS, name), null, request, response);
+    }
+
+    @GetMapping("/hls/{video}/master.m3u8")
+    public void getHlsMaster(@PathVariable String video, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(video + "/master.m3u8", fileStorageService.findHls(video, "master.m3u8"), HLS_PLAYLIST,
+                request, response);
+    }
+
+    @GetMapping("/hls/{video}/{rendition}/{file}")
+    public void getHlsFile(@PathVariable String video, @PathVariable String rendition, @PathVariable String file,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String name = rendition + "/" + file;
+        serve(video + "/" + name, fileStorageService.findHls(video, name),
+                file.endsWith(".m3u8") ? HLS_PLAYLIST : HLS_SEGMENT, request, response);
+    }
+
+    /**
+     * @param contentType The content type, or null to derive it from the name
+     */
+    private void serve(String name, Optional<Path> file, String contentType, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        Path path = file.orElse(null);
+        if (path == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(path);
+        // HTTP dates only have second precision
+        long lastModified = Files.getLastModifiedTime(path).toMillis() / 1000 * 1000;
+        String etag = etagFor(name, length, lastModified);
+        if (contentType == null) {
+            contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        // Object names are content hashes, so a name never changes meaning
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<ByteRange> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            ranges = ByteRange.parse(rangeHeader, length);
+        }
+        boolean headOnly = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!headOnly) {
+                send(request, response, path, length, lastModified, 0, length);
+            }
+        } else if (ranges.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            response.setContentLengthLong(range.length());
+            if (!headOnly) {
+                send(request, response, path, length, lastModified, range.start, range.length());
+            }
+        } else {
+            sendMultipart(response, path, ranges, length, contentType, headOnly);
+        }
+    }
+
+    private void sendMultipart(HttpServletResponse response, Path path, List<ByteRange> ranges, long length,
+                               String contentType, boolean headOnly) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[ranges.size()][];
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long contentLength = trailer.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + range.length();
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headOnly) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders[i]);
+                transfer(source, ranges.get(i).start, ranges.get(i).length(), target);
+            }
+        }
+        out.write(trailer);
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, Path path, long length,
+                      long lastModified, long start, long count) throws IOException {
+        // Sendfile beats memory: a cached head would still be copied through the heap to reach the socket
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        ServletOutputStream out = response.getOutputStream();
+        ByteBuffer cached = mediaCache.read(path, length, lastModified, start, count);
+        if (cached != null) {
+            byte[] chunk = COPY_BUFFER.get();
+            while (cached.hasRemaining()) {
+                int size = Math.min(chunk.length, cached.remaining());
+                cached.get(chunk, 0, size);
+                out.write(chunk, 0, size);
+            }
+            return;
+        }
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(source, start, count, Channels.newChannel(out));
+        }
+    }
+
+    private static void transfer(FileChannel source, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = source.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("File truncated while serving");
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Weak comparison, as required for If-None-Match
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison, as required for If-Range
+            return ifRange.trim().equals(etag) && !etag.startsWith("W/");
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String etagFor(String name, long length, long lastModified) {
+        int dot = name.indexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        if (base.matches("[0-9a-f]{64}")) {
+            // Content-addressed objects: the hash is a strong validator
+            return "\"" + base + "\"";
+        }
+        return "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String contentRange(ByteRange range, long length) {
+        return "bytes " + range.start + "-" + range.end + "/" + length;
+    }
+}
@@ -1,11 +1,24 @@
 package com.saurabhh.tiktokreels.controller;
 
+import com.saurabhh.tiktokreels.dto.IngestionJobDTO;
 import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.dto.ReelPageDTO;
+import com.saurabhh.tiktokreels.dto.ViewEventDTO;
+import com.saurabhh.tiktokreels.dto.WatchBucketDTO;
+import com.saurabhh.tiktokreels.security.AuthenticatedUser;
+import com.saurabhh.tiktokreels.service.IngestionService;
 import com.saurabhh.tiktokreels.service.ReelService;
+import com.saurabhh.tiktokreels.service.WatchStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -14,25 +27,86 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ReelController {
     private final ReelService reelService;
+    private final IngestionService ingestionService;
+    private final WatchStatsService watchStatsService;
 
     @PostMapping
-    public ResponseEntity<ReelDTO> createReel(@RequestBody ReelDTO reelDTO) {
+    public ResponseEntity<ReelDTO> createReel(@RequestBody ReelDTO reelDTO,
+                                              @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // Reels are always posted as the caller
+        reelDTO.setUserId(viewer.getId());
         return ResponseEntity.ok(reelService.createReel(reelDTO));
     }
 
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<IngestionJobDTO> uploadReel(@RequestParam String title,
+                                                      @RequestParam(required = false) String description,
+                                                      @RequestParam(defaultValue = "public") String privacy,
+                                                      @RequestParam("video") MultipartFile videoFile,
+                                                      @RequestParam(value = "thumbnail", required = false) MultipartFile thumbnailFile,
+                                                      @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (videoFile.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        IngestionJobDTO job = ingestionService.submit(viewer.getId(), title, description, privacy, videoFile, thumbnailFile);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<IngestionJobDTO> getIngestionJob(@PathVariable String jobId) {
+        return ingestionService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping
-    public ResponseEntity<List<ReelDTO>> getAllReels() {
-        return ResponseEntity.ok(reelService.getAllReels());
+    public ResponseEntity<ReelPageDTO> getAllReels(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.getAllReels(cursor, size, idOf(viewer)));
     }
     
     @GetMapping("/public")
-    public ResponseEntity<List<ReelDTO>> getPublicReels() {
-        return ResponseEntity.ok(reelService.getPublicReels());
+    public ResponseEntity<ReelPageDTO> getPublicReels(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.getPublicReels(cursor, size, idOf(viewer)));
+    }
+
+    @GetMapping("/home")
+    public ResponseEntity<ReelPageDTO> getHomeReels(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(reelService.getHomeReels(viewer.getId(), cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ReelPageDTO> searchReels(@RequestParam("q") String query,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.searchReels(query, cursor, size, idOf(viewer)));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<ReelDTO>> getTrendingReels(@RequestParam(defaultValue = "20") int size,
+                                                          @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.getTrendingReels(size, idOf(viewer)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ReelDTO> getReel(@PathVariable Long id) {
-        return ResponseEntity.ok(reelService.getReel(id));
+    public ResponseEntity<ReelDTO> getReel(@PathVariable Long id,
+                                           @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.getReel(id, idOf(viewer)));
     }
 
     @PutMapping("/{id}")
@@ -47,9 +121,24 @@ public class ReelController {
     }
     
     @PostMapping("/{id}/like")
-    public ResponseEntity<String> likeReel(@PathVariable Long id) {
-        reelService.incrementLikesCount(id);
-        return ResponseEntity.ok("Reel liked successfully");
+    public ResponseEntity<String> likeReel(@PathVariable Long id,
+                                           @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // Idempotent: retries and repeat likes do not change the count
+        boolean added = reelService.likeReel(id, viewer.getId());
+        return ResponseEntity.ok(added ? "Reel liked successfully" : "Reel already liked");
+    }
+    
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<String> unlikeReel(@PathVariable Long id,
+                                             @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean removed = reelService.unlikeReel(id, viewer.getId());
+        return ResponseEntity.ok(removed ? "Reel unliked successfully" : "Reel was not liked");
     }
     
     @PostMapping("/{id}/view")
@@ -57,4 +146,43 @@ public class ReelController {
         reelService.incrementViewsCount(id);
         return ResponseEntity.ok("View count incremented successfully");
     }
+    
+    /**
+     * Takes many views in one request, e.g. everything swiped past since the
+     * client last reported, instead of one request per reel
+     */
+    @PostMapping("/views")
+    public ResponseEntity<String> recordViews(@RequestBody List<ViewEventDTO> events) {
+        if (events.size() > ReelService.MAX_VIEW_BATCH) {
+            return ResponseEntity.badRequest().body("At most " + ReelService.MAX_VIEW_BATCH + " view events per request");
+        }
+        int recorded = reelService.recordViews(events);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(recorded + " view events recorded");
+    }
+    
+    /**
+     * Views, watch time and completion rate of a reel over time, from the
+     * rolled-up buckets. Defaults to the last hour by minute or the last day by hour.
+     */
+    @GetMapping("/{id}/watch-stats")
+    public ResponseEntity<List<WatchBucketDTO>> getWatchStats(@PathVariable Long id,
+                                                              @RequestParam(defaultValue = "hour") String granularity,
+                                                              @RequestParam(required = false) Instant from,
+                                                              @RequestParam(required = false) Instant to,
+                                                              @AuthenticationPrincipal AuthenticatedUser viewer) {
+        WatchStatsService.Granularity bucket;
+        try {
+            bucket = WatchStatsService.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+                : end.minus(bucket == WatchStatsService.Granularity.MINUTE ? Duration.ofHours(1) : Duration.ofDays(1));
+        return ResponseEntity.ok(watchStatsService.getSeries(id, idOf(viewer), bucket, start, end));
+    }
+    
+    private static Long idOf(AuthenticatedUser viewer) {
+        return viewer == null ? null : viewer.getId();
+    }
 }
\ No newline at end of file
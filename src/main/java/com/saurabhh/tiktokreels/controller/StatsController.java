@@ -0,0 +1,35 @@
+package com.saurabhh.tiktokreels.controller;
+
+import com.saurabhh.tiktokreels.dto.CacheStatsDTO;
+import com.saurabhh.tiktokreels.dto.HashingStatsDTO;
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+import com.saurabhh.tiktokreels.security.BoundedPasswordEncoder;
+import com.saurabhh.tiktokreels.service.MediaCache;
+import com.saurabhh.tiktokreels.service.ReelCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+    private final ReelCache reelCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final MediaCache mediaCache;
+    
+    @GetMapping("/reel-cache")
+    public ResponseEntity<CacheStatsDTO> getReelCacheStats() {
+        return ResponseEntity.ok(reelCache.getStats());
+    }
+    
+    @GetMapping("/media-cache")
+    public ResponseEntity<MediaCacheStatsDTO> getMediaCacheStats() {
+        return ResponseEntity.ok(mediaCache.getStats());
+    }
+    
+    @GetMapping("/password-hashing")
+    public ResponseEntity<HashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+}
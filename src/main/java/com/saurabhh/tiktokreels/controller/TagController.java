@@ -0,0 +1,24 @@
+package com.saurabhh.tiktokreels.controller;
+
+import com.saurabhh.tiktokreels.dto.TagPageDTO;
+import com.saurabhh.tiktokreels.security.AuthenticatedUser;
+import com.saurabhh.tiktokreels.service.ReelService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tags")
+@RequiredArgsConstructor
+public class TagController {
+    private final ReelService reelService;
+
+    @GetMapping("/{tag}/reels")
+    public ResponseEntity<TagPageDTO> getTagReels(@PathVariable String tag,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  @AuthenticationPrincipal AuthenticatedUser viewer) {
+        return ResponseEntity.ok(reelService.getTagReels(tag, cursor, size, viewer == null ? null : viewer.getId()));
+    }
+}
@@ -1,10 +1,16 @@
 package com.saurabhh.tiktokreels.controller;
 
+import com.saurabhh.tiktokreels.dto.ReelPageDTO;
 import com.saurabhh.tiktokreels.dto.UserDTO;
 import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.security.AuthenticatedUser;
+import com.saurabhh.tiktokreels.service.FollowService;
+import com.saurabhh.tiktokreels.service.ReelService;
 import com.saurabhh.tiktokreels.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -12,6 +18,8 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final ReelService reelService;
+    private final FollowService followService;
     
     @PostMapping("/register")
     public ResponseEntity<UserDTO> registerUser(@RequestBody User user) {
@@ -27,4 +35,35 @@ public class UserController {
     public ResponseEntity<UserDTO> getUserByUsername(@PathVariable String username) {
         return ResponseEntity.ok(userService.getUserByUsername(username));
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/{id}/follow")
+    public ResponseEntity<String> followUser(@PathVariable Long id,
+                                             @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean added = followService.follow(viewer.getId(), id);
+        return ResponseEntity.ok(added ? "User followed successfully" : "User already followed");
+    }
+    
+    @DeleteMapping("/{id}/follow")
+    public ResponseEntity<String> unfollowUser(@PathVariable Long id,
+                                               @AuthenticationPrincipal AuthenticatedUser viewer) {
+        if (viewer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean removed = followService.unfollow(viewer.getId(), id);
+        return ResponseEntity.ok(removed ? "User unfollowed successfully" : "User was not followed");
+    }
+    
+    @GetMapping("/{id}/reels")
+    public ResponseEntity<ReelPageDTO> getUserReels(@PathVariable Long id,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    @AuthenticationPrincipal AuthenticatedUser viewer) {
+        // Owners also see their private reels
+        boolean isOwner = viewer != null && id.equals(viewer.getId());
+        return ResponseEntity.ok(reelService.getUserReels(id, isOwner, cursor, size,
+                viewer == null ? null : viewer.getId()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private boolean enabled;
+    private long size;
+    private long maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private double hitRatio;
+}
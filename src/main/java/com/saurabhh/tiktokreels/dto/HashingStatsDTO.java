@@ -0,0 +1,17 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HashingStatsDTO {
+    private int strength;
+    private int threads;
+    private int activeThreads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+}
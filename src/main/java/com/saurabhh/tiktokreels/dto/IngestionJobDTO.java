@@ -0,0 +1,19 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionJobDTO {
+    private String jobId;
+    private String status; // QUEUED, RUNNING, COMPLETED or FAILED
+    private String stage;  // The stage currently running, or the last one attempted
+    private Long reelId;   // Set once the reel has been published
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaCacheStatsDTO {
+    private boolean enabled;
+    private long entries;
+    private long bytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections; // Entries that left the window but were used less than what they would push out
+    private double hitRatio;
+    private long bytesServed;
+}
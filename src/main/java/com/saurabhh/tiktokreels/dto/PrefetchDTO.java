@@ -0,0 +1,14 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrefetchDTO {
+    private Long reelId;
+    private String url; // The first HLS segment, or the uploaded video if it has no HLS output yet
+    private long bytes; // Fetch this many bytes from the start of url
+    private String thumbnailUrl;
+}
@@ -7,7 +7,7 @@ import java.time.Instant;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ReelDTO {
     private Long id;
     private Long userId;
@@ -16,10 +16,12 @@ public class ReelDTO {
     private String description;
     private String videoUrl;
     private String thumbnailUrl;
+    private String hlsUrl; // Adaptive stream; players fall back to videoUrl while it is null
     private Long durationMs;
     private Integer likesCount;
     private Integer viewsCount;
     private boolean isPrivate;
+    private Boolean liked; // Whether the caller has liked this reel; null if not known
     private Instant createdAt;
     private Instant updatedAt;
 }
\ No newline at end of file
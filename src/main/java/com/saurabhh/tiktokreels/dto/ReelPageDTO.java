@@ -0,0 +1,15 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReelPageDTO {
+    private List<ReelDTO> reels;
+    private String nextCursor; // Null when there are no more reels
+    private List<PrefetchDTO> prefetch; // What to fetch ahead for the reels after this page
+}
@@ -0,0 +1,16 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagPageDTO {
+    private String tag;
+    private long reelCount;
+    private List<ReelDTO> reels;
+    private String nextCursor; // Null when there are no more reels
+}
@@ -12,5 +12,7 @@ public class UserDTO {
     private Long id;
     private String username;
     private String email;
+    private Integer followersCount;
+    private Integer followingCount;
     private Instant createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+/**
+ * One reel seen by the client, as sent to POST /api/reels/views
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewEventDTO {
+    private Long reelId;
+    private Long watchedMs;
+}
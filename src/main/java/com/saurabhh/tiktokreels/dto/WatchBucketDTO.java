@@ -0,0 +1,17 @@
+package com.saurabhh.tiktokreels.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchBucketDTO {
+    private Instant bucketStart;
+    private long views;
+    private long watchTimeMs;
+    private double averageWatchMs;
+    private double completionRate;
+}
@@ -0,0 +1,29 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One user following another. The primary key makes a follow idempotent;
+ * users.followers_count and following_count are maintained separately.
+ */
+@Entity
+@Table(name = "follows", indexes = {
+        // Fan-out walks a user's followers in id order
+        @Index(name = "idx_follows_followee", columnList = "followee_id, follower_id")
+})
+@IdClass(FollowId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Follow {
+    @Id
+    @Column(name = "follower_id")
+    private Long followerId;
+    
+    @Id
+    @Column(name = "followee_id")
+    private Long followeeId;
+    
+    private Instant createdAt = Instant.now();
+}
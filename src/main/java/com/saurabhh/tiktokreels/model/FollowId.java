@@ -0,0 +1,11 @@
+package com.saurabhh.tiktokreels.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class FollowId implements Serializable {
+    private Long followerId;
+    private Long followeeId;
+}
@@ -0,0 +1,32 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A stored, content-addressed video or thumbnail and the number of reels
+ * that reference it. For videos it also remembers the thumbnail and caption
+ * generated for that content, so reposts of the same clip skip the AI work.
+ * An object nobody references keeps its row, with the time it was let go,
+ * until the storage sweep deletes it.
+ */
+@Entity
+@Table(name = "media_objects", indexes = {
+        @Index(name = "idx_media_objects_released", columnList = "ref_count, released_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MediaObject {
+    // "<bucket>/<sha256>.<ext>", e.g. videos/9f86d0...15b0.mp4
+    @Id
+    @Column(length = 128)
+    private String objectKey;
+    
+    private Integer refCount = 0;
+    private String thumbnailUrl;
+    private String caption;
+    private Instant createdAt = Instant.now();
+    // When the count last dropped to zero; null while referenced
+    private Instant releasedAt;
+}
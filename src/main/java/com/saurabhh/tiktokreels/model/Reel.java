@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "reels")
+@Table(name = "reels", indexes = {
+        @Index(name = "idx_reels_feed", columnList = "is_private, created_at, id"),
+        @Index(name = "idx_reels_user", columnList = "user_id, created_at, id")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Reel {
     @Id
@@ -20,12 +23,20 @@ public class Reel {
     private String description;
     private String videoUrl;
     private String thumbnailUrl;
+    // Master playlist of the adaptive bitrate ladder; null until transcoding finishes
+    private String hlsUrl;
     private Long durationMs;
     private Integer likesCount = 0;
     private Integer viewsCount = 0;
+    // Total time watched across all views, summed by the counter flush
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long watchTimeMs = 0L;
     private boolean isPrivate = false;
     private Instant createdAt = Instant.now();
     private Instant updatedAt = Instant.now();
+    // The upload job that published the reel, so a retried publish finds it instead of saving a second one
+    @Column(unique = true, length = 36)
+    private String ingestJobId;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
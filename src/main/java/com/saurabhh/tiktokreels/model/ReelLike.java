@@ -0,0 +1,28 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One user's like of one reel. The primary key makes a like idempotent;
+ * reels.likes_count is still maintained separately so feeds never count rows.
+ */
+@Entity
+@Table(name = "reel_likes", indexes = {
+        @Index(name = "idx_reel_likes_reel", columnList = "reel_id")
+})
+@IdClass(ReelLikeId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReelLike {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Id
+    @Column(name = "reel_id")
+    private Long reelId;
+    
+    private Instant createdAt = Instant.now();
+}
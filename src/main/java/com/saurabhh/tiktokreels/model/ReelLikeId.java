@@ -0,0 +1,11 @@
+package com.saurabhh.tiktokreels.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ReelLikeId implements Serializable {
+    private Long userId;
+    private Long reelId;
+}
@@ -0,0 +1,30 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A public reel carrying a tag. The reel's creation time is copied here so
+ * tag pages seek over idx_reel_tags_feed alone, newest first.
+ */
+@Entity
+@Table(name = "reel_tags", indexes = {
+        @Index(name = "idx_reel_tags_feed", columnList = "tag_id, created_at, reel_id"),
+        @Index(name = "idx_reel_tags_reel", columnList = "reel_id")
+})
+@IdClass(ReelTagId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReelTag {
+    @Id
+    @Column(name = "tag_id")
+    private Long tagId;
+    
+    @Id
+    @Column(name = "reel_id")
+    private Long reelId;
+    
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
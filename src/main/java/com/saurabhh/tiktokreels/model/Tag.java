@@ -0,0 +1,22 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A hashtag, stored once in normalized form (lower case, without '#')
+ */
+@Entity
+@Table(name = "tags")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Tag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(unique = true, nullable = false, length = 64)
+    private String name;
+    
+    // Public reels carrying the tag
+    private Integer reelCount = 0;
+}
@@ -22,5 +22,12 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Maintained on follow/unfollow so profiles and fan-out never count rows
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer followersCount = 0;
+
+    @Column(nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer followingCount = 0;
+
     private Instant createdAt = Instant.now();
 }
\ No newline at end of file
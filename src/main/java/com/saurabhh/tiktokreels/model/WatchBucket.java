@@ -0,0 +1,34 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Views and watch time of one reel within one time bucket, rolled up from
+ * the watch event log. Minute and hour buckets share the table and are
+ * told apart by their size.
+ */
+@Entity
+@Table(name = "reel_watch_buckets")
+@IdClass(WatchBucketId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WatchBucket {
+    @Id
+    @Column(name = "reel_id")
+    private Long reelId;
+    
+    // Bucket size, e.g. 60000 for minute buckets
+    @Id
+    @Column(name = "bucket_ms")
+    private Long bucketMs;
+    
+    // Start of the bucket in epoch milliseconds
+    @Id
+    @Column(name = "bucket_start_ms")
+    private Long bucketStartMs;
+    
+    private Long views;
+    private Long watchTimeMs;
+    // Views that watched at least 90% of the reel's duration
+    private Long completions;
+}
@@ -0,0 +1,12 @@
+package com.saurabhh.tiktokreels.model;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data @NoArgsConstructor @AllArgsConstructor
+public class WatchBucketId implements Serializable {
+    private Long reelId;
+    private Long bucketMs;
+    private Long bucketStartMs;
+}
@@ -0,0 +1,21 @@
+package com.saurabhh.tiktokreels.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A watch event log segment that has been added to the buckets. Written in
+ * the same transaction as the buckets, so a segment is never counted twice.
+ */
+@Entity
+@Table(name = "watch_rollup_segments")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WatchRollupSegment {
+    @Id
+    @Column(length = 64)
+    private String name;
+    
+    private Instant appliedAt;
+}
@@ -0,0 +1,37 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.Follow;
+import com.saurabhh.tiktokreels.model.FollowId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, FollowId> {
+    
+    /**
+     * @return 1 if the follow was recorded, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO follows (follower_id, followee_id, created_at) " +
+                   "VALUES (:followerId, :followeeId, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertIfAbsent(Long followerId, Long followeeId);
+    
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerId = :followerId AND f.followeeId = :followeeId")
+    int deleteFollow(Long followerId, Long followeeId);
+    
+    // Served by the primary key (follower_id, followee_id)
+    @Query("SELECT f.followeeId FROM Follow f WHERE f.followerId = :followerId")
+    List<Long> findFolloweeIds(Long followerId);
+    
+    // Served by idx_follows_followee, one batch at a time
+    @Query("SELECT f.followerId FROM Follow f WHERE f.followeeId = :followeeId AND f.followerId > :followerId " +
+           "ORDER BY f.followerId ASC")
+    List<Long> findFollowerIdsAfter(Long followeeId, Long followerId, Pageable limit);
+}
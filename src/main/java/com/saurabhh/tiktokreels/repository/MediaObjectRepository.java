@@ -0,0 +1,69 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.MediaObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObject, String> {
+    
+    // Single-statement upserts, so concurrent reels sharing an object never lose a reference
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_objects (object_key, ref_count, created_at) VALUES (:objectKey, 1, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, released_at = NULL", nativeQuery = true)
+    void retain(String objectKey);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaObject m SET m.refCount = m.refCount - 1 WHERE m.objectKey = :objectKey AND m.refCount > 0")
+    int decrementRefCount(String objectKey);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaObject m SET m.releasedAt = :releasedAt WHERE m.objectKey = :objectKey AND m.refCount = 0")
+    int markReleased(String objectKey, Instant releasedAt);
+    
+    // Also creates the row, for an upload no reel was ever published with; referenced objects are left alone
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_objects (object_key, ref_count, created_at, released_at) " +
+                   "VALUES (:objectKey, 0, CURRENT_TIMESTAMP, :releasedAt) " +
+                   "ON DUPLICATE KEY UPDATE released_at = CASE WHEN ref_count = 0 THEN :releasedAt ELSE released_at END",
+           nativeQuery = true)
+    void markDiscarded(String objectKey, Instant releasedAt);
+    
+    @Query("SELECT m.objectKey FROM MediaObject m WHERE m.refCount = 0 AND m.releasedAt < :cutoff")
+    List<String> findReleasedBefore(Instant cutoff, Pageable pageable);
+    
+    // Only matches while still unreferenced, so an object retained since it was found is kept
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MediaObject m WHERE m.objectKey = :objectKey AND m.refCount = 0 AND m.releasedAt < :cutoff")
+    int deleteIfReleasedBefore(String objectKey, Instant cutoff);
+    
+    // Objects whose key starts the same way, e.g. other extensions of the same content
+    @Query("SELECT COUNT(m) > 0 FROM MediaObject m WHERE m.objectKey LIKE :prefix% AND m.objectKey <> :objectKey")
+    boolean existsOtherWithPrefix(String prefix, String objectKey);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_objects (object_key, ref_count, thumbnail_url, created_at) " +
+                   "VALUES (:objectKey, 0, :thumbnailUrl, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE thumbnail_url = :thumbnailUrl", nativeQuery = true)
+    void saveThumbnailUrl(String objectKey, String thumbnailUrl);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_objects (object_key, ref_count, caption, created_at) " +
+                   "VALUES (:objectKey, 0, :caption, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE caption = :caption", nativeQuery = true)
+    void saveCaption(String objectKey, String caption);
+}
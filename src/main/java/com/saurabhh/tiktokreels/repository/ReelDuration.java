@@ -0,0 +1,9 @@
+package com.saurabhh.tiktokreels.repository;
+
+/**
+ * A reel's length, used to tell full watches from skips
+ */
+public interface ReelDuration {
+    Long getId();
+    Long getDurationMs();
+}
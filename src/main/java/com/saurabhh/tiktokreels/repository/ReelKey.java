@@ -0,0 +1,11 @@
+package com.saurabhh.tiktokreels.repository;
+
+import java.time.Instant;
+
+/**
+ * Just the keyset position of a reel in a newest-first feed
+ */
+public interface ReelKey {
+    Long getId();
+    Instant getCreatedAt();
+}
@@ -0,0 +1,46 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.ReelLike;
+import com.saurabhh.tiktokreels.model.ReelLikeId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReelLikeRepository extends JpaRepository<ReelLike, ReelLikeId> {
+    
+    /**
+     * @return 1 if the like was recorded, 0 if the user had already liked the reel
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO reel_likes (user_id, reel_id, created_at) VALUES (:userId, :reelId, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertIfAbsent(Long userId, Long reelId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReelLike l WHERE l.userId = :userId AND l.reelId = :reelId")
+    int deleteLike(Long userId, Long reelId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReelLike l WHERE l.reelId = :reelId")
+    int deleteAllByReelId(Long reelId);
+    
+    // Served by the primary key (user_id, reel_id)
+    @Query("SELECT l.reelId FROM ReelLike l WHERE l.userId = :userId AND l.reelId IN :reelIds")
+    List<Long> findLikedReelIds(Long userId, Collection<Long> reelIds);
+    
+    // Walks the whole table in primary key order, one page at a time
+    @Query("SELECT new com.saurabhh.tiktokreels.model.ReelLikeId(l.userId, l.reelId) FROM ReelLike l " +
+           "WHERE l.userId > :userId OR (l.userId = :userId AND l.reelId > :reelId) " +
+           "ORDER BY l.userId ASC, l.reelId ASC")
+    List<ReelLikeId> findKeysAfter(Long userId, Long reelId, Pageable limit);
+}
@@ -1,23 +1,92 @@
 package com.saurabhh.tiktokreels.repository;
 
 import com.saurabhh.tiktokreels.model.Reel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReelRepository extends JpaRepository<Reel, Long> {
     List<Reel> findByUserId(Long userId);
     List<Reel> findByIsPrivateFalseOrderByCreatedAtDesc();
+    Optional<Reel> findByIngestJobId(String ingestJobId);
     
+    // Keyset pagination over idx_reels_feed; Pageable is only used for its LIMIT, never an offset
+    @Query("SELECT r FROM Reel r WHERE r.isPrivate = false ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reel> findPublicFeedFirstPage(Pageable limit);
+    
+    @Query("SELECT r FROM Reel r WHERE r.isPrivate = false AND (r.createdAt < :createdAt " +
+           "OR (r.createdAt = :createdAt AND r.id < :id)) ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reel> findPublicFeedPageAfter(Instant createdAt, Long id, Pageable limit);
+    
+    // Profile listings seek over idx_reels_user and select only the listed columns
+    @Query("SELECT r.id AS id, r.title AS title, r.description AS description, r.videoUrl AS videoUrl, " +
+           "r.thumbnailUrl AS thumbnailUrl, r.hlsUrl AS hlsUrl, r.durationMs AS durationMs, r.likesCount AS likesCount, " +
+           "r.viewsCount AS viewsCount, r.isPrivate AS isPrivate, r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+           "FROM Reel r WHERE r.userId = :userId AND (:includePrivate = true OR r.isPrivate = false) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReelSummary> findUserReelsFirstPage(Long userId, boolean includePrivate, Pageable limit);
+    
+    @Query("SELECT r.id AS id, r.title AS title, r.description AS description, r.videoUrl AS videoUrl, " +
+           "r.thumbnailUrl AS thumbnailUrl, r.hlsUrl AS hlsUrl, r.durationMs AS durationMs, r.likesCount AS likesCount, " +
+           "r.viewsCount AS viewsCount, r.isPrivate AS isPrivate, r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+           "FROM Reel r WHERE r.userId = :userId AND (:includePrivate = true OR r.isPrivate = false) " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReelSummary> findUserReelsPageAfter(Long userId, boolean includePrivate, Instant createdAt, Long id,
+                                             Pageable limit);
+    
+    @Query("SELECT r.id AS id, r.likesCount AS likesCount, r.viewsCount AS viewsCount, r.createdAt AS createdAt " +
+           "FROM Reel r WHERE r.isPrivate = false AND r.createdAt >= :since " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<TrendingSeed> findTrendingSeeds(Instant since, Pageable limit);
+    
+    @Query("SELECT r.id AS id, r.durationMs AS durationMs FROM Reel r WHERE r.id IN :ids")
+    List<ReelDuration> findDurations(Collection<Long> ids);
+    
+    // Seeds in-memory timelines: each author's range of idx_reels_user, merged
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Reel r WHERE r.isPrivate = false " +
+           "AND r.userId IN :userIds ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReelKey> findNewestPublicKeys(Collection<Long> userIds, Pageable limit);
+    
+    // Home feed straight from the follow graph, for pages past what is kept in memory
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Reel r WHERE r.isPrivate = false " +
+           "AND (r.userId = :followerId OR r.userId IN (SELECT f.followeeId FROM Follow f WHERE f.followerId = :followerId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReelKey> findHomeFeedFirstPage(Long followerId, Pageable limit);
+    
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Reel r WHERE r.isPrivate = false " +
+           "AND (r.userId = :followerId OR r.userId IN (SELECT f.followeeId FROM Follow f WHERE f.followerId = :followerId)) " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReelKey> findHomeFeedPageAfter(Long followerId, Instant createdAt, Long id, Pageable limit);
+    
+    // Late enrichment only fills fields that are still empty
+    @Modifying
+    @Transactional
+    @Query("UPDATE Reel r SET r.thumbnailUrl = :thumbnailUrl WHERE r.id = :reelId AND r.thumbnailUrl IS NULL")
+    int fillThumbnailUrl(Long reelId, String thumbnailUrl);
+    
+    @Query("SELECT r.id FROM Reel r WHERE r.videoUrl = :videoUrl AND r.hlsUrl IS NULL")
+    List<Long> findIdsWithoutHls(String videoUrl);
+    
+    // Identical uploads share one video, and so one transcode
     @Modifying
-    @Query("UPDATE Reel r SET r.likesCount = r.likesCount + 1 WHERE r.id = :reelId")
-    void incrementLikesCount(Long reelId);
+    @Transactional
+    @Query("UPDATE Reel r SET r.hlsUrl = :hlsUrl WHERE r.videoUrl = :videoUrl AND r.hlsUrl IS NULL")
+    int fillHlsUrl(String videoUrl, String hlsUrl);
     
     @Modifying
-    @Query("UPDATE Reel r SET r.viewsCount = r.viewsCount + 1 WHERE r.id = :reelId")
-    void incrementViewsCount(Long reelId);
+    @Transactional
+    @Query("UPDATE Reel r SET r.description = :description WHERE r.id = :reelId " +
+           "AND (r.description IS NULL OR r.description = '')")
+    int fillDescription(Long reelId, String description);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.saurabhh.tiktokreels.repository;
+
+import java.time.Instant;
+
+/**
+ * The reel columns a listing needs, fetched without loading {@code Reel} entities
+ */
+public interface ReelSummary {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    String getVideoUrl();
+    String getThumbnailUrl();
+    String getHlsUrl();
+    Long getDurationMs();
+    Integer getLikesCount();
+    Integer getViewsCount();
+    boolean getIsPrivate();
+    Instant getCreatedAt();
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,30 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.ReelTag;
+import com.saurabhh.tiktokreels.model.ReelTagId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ReelTagRepository extends JpaRepository<ReelTag, ReelTagId> {
+    
+    // Tag pages seek over idx_reel_tags_feed (tag_id, created_at, reel_id)
+    @Query("SELECT rt.reelId AS reelId, rt.createdAt AS createdAt FROM ReelTag rt WHERE rt.tagId = :tagId " +
+           "ORDER BY rt.createdAt DESC, rt.reelId DESC")
+    List<TaggedReel> findTagFirstPage(Long tagId, Pageable limit);
+    
+    @Query("SELECT rt.reelId AS reelId, rt.createdAt AS createdAt FROM ReelTag rt WHERE rt.tagId = :tagId " +
+           "AND (rt.createdAt < :createdAt OR (rt.createdAt = :createdAt AND rt.reelId < :reelId)) " +
+           "ORDER BY rt.createdAt DESC, rt.reelId DESC")
+    List<TaggedReel> findTagPageAfter(Long tagId, Instant createdAt, Long reelId, Pageable limit);
+    
+    @Modifying
+    @Query("DELETE FROM ReelTag rt WHERE rt.tagId = :tagId AND rt.reelId = :reelId")
+    int deleteTag(Long tagId, Long reelId);
+}
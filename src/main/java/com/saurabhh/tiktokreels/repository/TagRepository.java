@@ -0,0 +1,36 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.Tag;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    
+    Optional<Tag> findByName(String name);
+    
+    // Safe against a concurrent insert of the same tag
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO tags (name, reel_count) VALUES (:name, 0)", nativeQuery = true)
+    void insertIfAbsent(String name);
+    
+    // A locking read sees the latest committed row, where a plain read inside the transaction
+    // would miss a tag that a concurrent transaction inserted after our snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT t.id FROM Tag t WHERE t.name = :name")
+    Optional<Long> findIdByNameForShare(String name);
+    
+    @Modifying
+    @Query("UPDATE Tag t SET t.reelCount = t.reelCount + :delta WHERE t.id = :id")
+    void adjustReelCount(Long id, int delta);
+    
+    @Query("SELECT t FROM Tag t WHERE t.id IN (SELECT rt.tagId FROM ReelTag rt WHERE rt.reelId = :reelId)")
+    List<Tag> findByReelId(Long reelId);
+}
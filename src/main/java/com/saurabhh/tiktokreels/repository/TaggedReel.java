@@ -0,0 +1,11 @@
+package com.saurabhh.tiktokreels.repository;
+
+import java.time.Instant;
+
+/**
+ * One entry of a tag page: the reel and its position in the newest-first order
+ */
+public interface TaggedReel {
+    Long getReelId();
+    Instant getCreatedAt();
+}
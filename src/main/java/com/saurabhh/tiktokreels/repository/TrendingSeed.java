@@ -0,0 +1,13 @@
+package com.saurabhh.tiktokreels.repository;
+
+import java.time.Instant;
+
+/**
+ * Stored engagement of a recent public reel, used to seed the trending ranking
+ */
+public interface TrendingSeed {
+    Long getId();
+    Integer getLikesCount();
+    Integer getViewsCount();
+    Instant getCreatedAt();
+}
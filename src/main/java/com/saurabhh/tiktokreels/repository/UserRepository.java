@@ -2,8 +2,12 @@ package com.saurabhh.tiktokreels.repository;
 
 import com.saurabhh.tiktokreels.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = u.followersCount + :delta WHERE u.id = :id")
+    void adjustFollowersCount(Long id, int delta);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = u.followingCount + :delta WHERE u.id = :id")
+    void adjustFollowingCount(Long id, int delta);
+    
+    @Query("SELECT u.followersCount FROM User u WHERE u.id = :id")
+    Optional<Integer> findFollowersCount(Long id);
+    
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.followersCount >= :followers")
+    List<Long> findIdsWithFollowersAtLeast(Collection<Long> ids, int followers);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.saurabhh.tiktokreels.repository;
+
+import com.saurabhh.tiktokreels.model.WatchBucket;
+import com.saurabhh.tiktokreels.model.WatchBucketId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WatchBucketRepository extends JpaRepository<WatchBucket, WatchBucketId> {
+    
+    // A range scan of the primary key (reel_id, bucket_ms, bucket_start_ms)
+    @Query("SELECT b FROM WatchBucket b WHERE b.reelId = :reelId AND b.bucketMs = :bucketMs " +
+           "AND b.bucketStartMs >= :fromMs AND b.bucketStartMs < :toMs ORDER BY b.bucketStartMs ASC")
+    List<WatchBucket> findSeries(Long reelId, Long bucketMs, Long fromMs, Long toMs);
+}
@@ -0,0 +1,386 @@
+package com.saurabhh.tiktokreels.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking over a text field and exact
+ * matching on a tag field. Documents get dense internal ids in insertion
+ * order and postings are plain int arrays, so a million documents fit in a
+ * few hundred megabytes and a query never allocates per posting.
+ * Each document carries a timestamp, such as its creation time, that
+ * orders tag-only matches and breaks score ties, so the order does not
+ * depend on when documents were (re)indexed.
+ * Removed and replaced documents are only marked dead; their postings are
+ * dropped by a compaction once they make up a quarter of the index. Ranking
+ * counts only live documents, so dead postings never skew it meanwhile.
+ * Searches share a read lock and writes take the write lock.
+ */
+public class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> text = new HashMap<>();
+    private final Map<String, Postings> tags = new HashMap<>();
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] keys = new long[1024];
+    private long[] timestamps = new long[1024];
+    private int[] lengths = new int[1024];
+    // The text postings of each document, so removing it can update their live document counts
+    private Postings[][] docTerms = new Postings[1024][];
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    // Per-thread score board, reset after every query so it is never reallocated
+    private final ThreadLocal<float[]> scoreBoard = ThreadLocal.withInitial(() -> new float[0]);
+
+    /**
+     * Adds a document, replacing any earlier version with the same key
+     *
+     * @param key The caller's id, e.g. the reel id
+     * @param timestamp Orders documents newest first, e.g. the creation time in epoch millis
+     * @param termFrequencies Text terms and how often each occurs (weighted as the caller likes)
+     * @param tagTerms Exact-match tags
+     */
+    public void put(long key, long timestamp, Map<String, Integer> termFrequencies, Collection<String> tagTerms) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int doc = docCount++;
+            if (doc == keys.length) {
+                keys = Arrays.copyOf(keys, doc * 2);
+                timestamps = Arrays.copyOf(timestamps, doc * 2);
+                lengths = Arrays.copyOf(lengths, doc * 2);
+                docTerms = Arrays.copyOf(docTerms, doc * 2);
+            }
+            int length = 0;
+            Postings[] terms = new Postings[termFrequencies.size()];
+            int termCount = 0;
+            for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+                Postings postings = text.computeIfAbsent(term.getKey(), t -> new Postings());
+                postings.add(doc, term.getValue());
+                postings.live++;
+                terms[termCount++] = postings;
+                length += term.getValue();
+            }
+            docTerms[doc] = terms;
+            for (String tag : tagTerms) {
+                tags.computeIfAbsent(tag, t -> new Postings()).add(doc, 1);
+            }
+            keys[doc] = key;
+            timestamps[doc] = timestamp;
+            lengths[doc] = length;
+            live.set(doc);
+            docByKey.put(key, doc);
+            liveCount++;
+            liveLength += length;
+            // A replaced document leaves a dead one behind, just like a removal
+            compactIfMostlyDead();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            compactIfMostlyDead();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            text.clear();
+            tags.clear();
+            docByKey.clear();
+            live.clear();
+            Arrays.fill(docTerms, 0, docCount, null);
+            docCount = 0;
+            liveCount = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the documents that contain every required tag by the BM25 score
+     * of the text terms. With no text terms, matches are ordered newest first.
+     *
+     * @param terms Text terms, any of which may match
+     * @param requiredTags Tags every result must have
+     * @param offset The number of top results to skip
+     * @param limit The number of results to return
+     * @return The keys of the matching documents, best first
+     */
+    public List<Long> search(List<String> terms, List<String> requiredTags, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0 || (terms.isEmpty() && requiredTags.isEmpty())) {
+                return List.of();
+            }
+            int[] allowed = null;
+            for (String tag : requiredTags) {
+                Postings postings = tags.get(tag);
+                if (postings == null) {
+                    return List.of();
+                }
+                allowed = allowed == null ? Arrays.copyOf(postings.docs, postings.size) : intersect(allowed, postings);
+            }
+            if (terms.isEmpty()) {
+                return newest(allowed, offset, limit);
+            }
+
+            float[] scores = scoreBoard.get();
+            if (scores.length < docCount) {
+                scores = new float[Math.max(docCount, scores.length * 2)];
+                scoreBoard.set(scores);
+            }
+            float averageLength = Math.max(1f, (float) liveLength / liveCount);
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            for (String term : terms) {
+                Postings postings = text.get(term);
+                if (postings == null || postings.live == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveCount - postings.live + 0.5) / (postings.live + 0.5));
+                if (allowed == null) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        if (!live.get(doc)) {
+                            continue;
+                        }
+                        if (scores[doc] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touchedCount * 2);
+                            }
+                            touched[touchedCount++] = doc;
+                        }
+                        scores[doc] += bm25(idf, postings.freqs[i], lengths[doc], averageLength);
+                    }
+                } else {
+                    for (int doc : allowed) {
+                        int i = Arrays.binarySearch(postings.docs, 0, postings.size, doc);
+                        if (i < 0 || !live.get(doc)) {
+                            continue;
+                        }
+                        if (scores[doc] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touchedCount * 2);
+                            }
+                            touched[touchedCount++] = doc;
+                        }
+                        scores[doc] += bm25(idf, postings.freqs[i], lengths[doc], averageLength);
+                    }
+                }
+            }
+
+            // Ties broken towards newer documents
+            float[] board = scores;
+            List<Long> results = top(touched, touchedCount, offset, limit,
+                    (a, b) -> board[a] != board[b] ? Float.compare(board[a], board[b]) : olderFirst(a, b));
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float bm25(float idf, int tf, int length, float averageLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private List<Long> newest(int[] allowed, int offset, int limit) {
+        int[] candidates = new int[allowed.length];
+        int count = 0;
+        for (int doc : allowed) {
+            if (live.get(doc)) {
+                candidates[count++] = doc;
+            }
+        }
+        return top(candidates, count, offset, limit, this::olderFirst);
+    }
+
+    /**
+     * Keeps only the best offset + limit documents in a min-heap
+     *
+     * @param worseFirst Orders documents from worst to best
+     * @return The keys of the documents ranked offset to offset + limit, best first
+     */
+    private List<Long> top(int[] docs, int count, int offset, int limit, Comparator<Integer> worseFirst) {
+        int wanted = offset + limit;
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, count)), worseFirst);
+        for (int i = 0; i < count; i++) {
+            top.add(docs[i]);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+        Integer[] ranked = top.toArray(new Integer[0]);
+        Arrays.sort(ranked, worseFirst.reversed());
+        List<Long> results = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.length; i++) {
+            results.add(keys[ranked[i]]);
+        }
+        return results;
+    }
+
+    private int olderFirst(int a, int b) {
+        return timestamps[a] != timestamps[b] ? Long.compare(timestamps[a], timestamps[b]) : Integer.compare(a, b);
+    }
+
+    private static int[] intersect(int[] sorted, Postings postings) {
+        int[] result = new int[Math.min(sorted.length, postings.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < postings.size) {
+            if (sorted[i] == postings.docs[j]) {
+                result[count++] = sorted[i];
+                i++;
+                j++;
+            } else if (sorted[i] < postings.docs[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc != null) {
+            live.clear(doc);
+            liveCount--;
+            liveLength -= lengths[doc];
+            for (Postings postings : docTerms[doc]) {
+                postings.live--;
+            }
+            docTerms[doc] = null;
+        }
+    }
+
+    private void compactIfMostlyDead() {
+        int dead = docCount - liveCount;
+        if (dead >= MIN_DEAD_FOR_COMPACTION && dead * 4 > docCount) {
+            compact();
+        }
+    }
+
+    /**
+     * @return The number of internal documents, dead ones included
+     */
+    int storedDocuments() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renumbers live documents densely and drops dead postings
+     */
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = live.get(doc) ? next++ : -1;
+        }
+        compact(text, remap);
+        compact(tags, remap);
+        long[] newKeys = new long[Math.max(1024, next * 2)];
+        long[] newTimestamps = new long[newKeys.length];
+        int[] newLengths = new int[newKeys.length];
+        Postings[][] newDocTerms = new Postings[newKeys.length][];
+        live.clear();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (remap[doc] >= 0) {
+                newKeys[remap[doc]] = keys[doc];
+                newTimestamps[remap[doc]] = timestamps[doc];
+                newDocTerms[remap[doc]] = docTerms[doc];
+                newLengths[remap[doc]] = lengths[doc];
+                live.set(remap[doc]);
+                docByKey.put(keys[doc], remap[doc]);
+            }
+        }
+        keys = newKeys;
+        timestamps = newTimestamps;
+        docTerms = newDocTerms;
+        lengths = newLengths;
+        docCount = next;
+    }
+
+    private static void compact(Map<String, Postings> field, int[] remap) {
+        Iterator<Postings> iterator = field.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = remap[postings.docs[i]];
+                if (doc >= 0) {
+                    postings.docs[kept] = doc;
+                    postings.freqs[kept] = postings.freqs[i];
+                    kept++;
+                }
+            }
+            if (kept == 0) {
+                iterator.remove();
+            } else {
+                postings.size = kept;
+            }
+        }
+    }
+
+    /**
+     * Documents containing a term, in increasing doc id order
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int[] freqs = new int[2];
+        int size;
+        // How many of the documents are live; the document frequency BM25 uses
+        int live;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+}
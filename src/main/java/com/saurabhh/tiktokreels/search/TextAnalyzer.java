@@ -0,0 +1,60 @@
+package com.saurabhh.tiktokreels.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits reel text into index terms: lower-cased runs of letters and digits.
+ * Hashtags are also extracted on their own, without the '#', for the tag field.
+ */
+public final class TextAnalyzer {
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern HASHTAG = Pattern.compile("#([\\p{L}\\p{N}_]+)");
+    // Appended to generated captions; it would otherwise match every such reel
+    private static final String AI_MARKER = "[AI Generated]";
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @return The terms in order, with repeats
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        Matcher matcher = TOKEN.matcher(text.replace(AI_MARKER, " "));
+        while (matcher.find()) {
+            String term = matcher.group().toLowerCase(Locale.ROOT);
+            if (term.length() <= MAX_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @return The distinct hashtags, lower-cased and without the '#'
+     */
+    public static Set<String> hashtags(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null) {
+            return tags;
+        }
+        Matcher matcher = HASHTAG.matcher(text);
+        while (matcher.find()) {
+            String tag = matcher.group(1).toLowerCase(Locale.ROOT);
+            if (tag.length() <= MAX_TERM_LENGTH) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,111 @@
+package com.saurabhh.tiktokreels.security;
+
+import com.saurabhh.tiktokreels.dto.HashingStatsDTO;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt on a small dedicated pool. Hashing is deliberately slow, so running
+ * it on request threads lets a login burst take every worker; here callers
+ * wait for a bounded number of hashing threads, and once the queue is full
+ * they are turned away with a 429 instead of piling up.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.strength = strength;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes made with any other cost are re-encoded on the next successful
+     * login, whether the configured strength went up or down
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public HashingStatsDTO getStats() {
+        return HashingStatsDTO.builder()
+                .strength(strength)
+                .threads(executor.getMaximumPoolSize())
+                .activeThreads(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(executor.getQueue().size() + executor.getQueue().remainingCapacity())
+                .completed(executor.getCompletedTaskCount())
+                .rejected(rejected.sum())
+                .build();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many concurrent logins, retry later");
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        }
+    }
+}
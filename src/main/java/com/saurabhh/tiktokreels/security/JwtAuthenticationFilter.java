@@ -9,6 +9,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -30,10 +31,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Parsed once (or served from the verified-token cache); the principal comes from the claims
+                JwtTokenProvider.VerifiedToken verified = tokenProvider.verify(jwt).orElse(null);
+                UserDetails userDetails = null;
+                if (verified == null) {
+                    // Expired, forged or malformed; the request simply goes on unauthenticated
+                    logger.debug("Ignoring invalid JWT");
+                } else if (verified.getPrincipal() != null) {
+                    userDetails = verified.getPrincipal();
+                } else {
+                    userDetails = loadLegacyPrincipal(verified.getSubject());
+                }
                 
-                if (tokenProvider.validateToken(jwt, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -48,6 +58,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Tokens issued before the uid/roles claims existed still need the user from the database
+     *
+     * @param username The subject of an already verified token
+     */
+    private UserDetails loadLegacyPrincipal(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            logger.debug("Ignoring JWT of unknown user " + username);
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,29 +1,51 @@
 package com.saurabhh.tiktokreels.security;
 
+import com.saurabhh.tiktokreels.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final long jwtExpirationInMs;
+    // Derived once; rebuilding the HMAC key and parser per call showed up on every request
+    private final Key signingKey;
+    private final JwtParser parser;
+    // Verified tokens by SHA-256 digest, so repeat requests skip signature checks and JSON parsing
+    private final BoundedCache<String, VerifiedToken> verifiedTokens;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpirationInMs;
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration}") long jwtExpirationInMs,
+                            @Value("${jwt.cache.max-size:10000}") int cacheMaxSize) {
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = new BoundedCache<>(cacheMaxSize, jwtExpirationInMs);
     }
 
     public String generateToken(Authentication authentication) {
@@ -31,42 +53,108 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        // Everything needed to rebuild the principal travels in the token
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userDetails.getUsername())
+                .claim(ROLES_CLAIM, roles)
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .setExpiration(expiryDate);
+        if (userDetails instanceof AuthenticatedUser) {
+            builder.claim(USER_ID_CLAIM, ((AuthenticatedUser) userDetails).getId());
+        }
+        return builder
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+    /**
+     * Verifies a token, parsing it at most once while it is cached
+     *
+     * @param token The compact JWT
+     * @return The verified token, or empty if it is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(digest);
+            return Optional.empty();
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // Remembered until the token itself expires; legacy tokens are remembered as "no principal"
+        VerifiedToken verified = new VerifiedToken(principalFrom(claims), claims.getSubject(),
+                claims.getExpiration().getTime());
+        verifiedTokens.put(digest, verified);
+        return Optional.of(verified);
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public String getUsernameFromToken(String token) {
+        return getAllClaimsFromToken(token).getSubject();
     }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
+    public boolean validateToken(String token, UserDetails userDetails) {
+        // Parsing verifies the signature and rejects expired tokens
         final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+        return claims.getSubject().equals(userDetails.getUsername()) && claims.getExpiration().after(new Date());
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static AuthenticatedUser principalFrom(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), null, authorities);
     }
 
-    private Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static final class VerifiedToken {
+        private final AuthenticatedUser principal;
+        private final String subject;
+        private final long expiresAt;
+
+        VerifiedToken(AuthenticatedUser principal, String subject, long expiresAt) {
+            this.principal = principal;
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return The principal from the claims, or null if the token predates the uid/roles claims
+         */
+        public AuthenticatedUser getPrincipal() {
+            return principal;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
     }
-}
\ No newline at end of file
+}
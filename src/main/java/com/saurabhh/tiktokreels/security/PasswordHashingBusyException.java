@@ -0,0 +1,14 @@
+package com.saurabhh.tiktokreels.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the password hashing pool is saturated and a login or registration cannot be served
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
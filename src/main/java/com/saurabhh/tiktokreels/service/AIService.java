@@ -5,17 +5,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.UUID;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AIService {
+    private static final int DEFAULT_THUMBNAIL_WIDTH = 1280;
+    
+    private final ThumbnailEngine thumbnailEngine;
 
     /**
      * Generates a caption for a video using AI
@@ -27,6 +32,17 @@ public class AIService {
         return generateDefaultCaption(videoFile.getOriginalFilename());
     }
     
+    /**
+     * Generates a caption for a video that has already been stored
+     * 
+     * @param videoPath The stored video
+     * @param originalFilename The filename the video was uploaded with
+     * @return The generated caption
+     */
+    public String generateCaption(Path videoPath, String originalFilename) {
+        return generateDefaultCaption(originalFilename);
+    }
+    
     /**
      * Generates a default caption based on the filename
      * 
@@ -71,60 +87,118 @@ public class AIService {
      * @return The generated thumbnail as a byte array
      */
     public byte[] generateThumbnail(MultipartFile videoFile) {
+        return generateThumbnail(videoFile, DEFAULT_THUMBNAIL_WIDTH);
+    }
+    
+    /**
+     * Generates a thumbnail of the given width from a video file
+     * 
+     * @param videoFile The video file to generate a thumbnail from
+     * @param width The thumbnail width; must be one of {@link #getThumbnailWidths()}
+     * @return The generated thumbnail as a byte array
+     */
+    public byte[] generateThumbnail(MultipartFile videoFile, int width) {
+        Path tempFile = null;
         try {
-            // Create a blank image
-            BufferedImage thumbnail = new BufferedImage(1280, 720, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g = thumbnail.createGraphics();
-            
-            // Set background gradient
-            GradientPaint gradient = new GradientPaint(
-                0, 0, new Color(25, 118, 210), 
-                thumbnail.getWidth(), thumbnail.getHeight(), new Color(66, 165, 245)
-            );
-            g.setPaint(gradient);
-            g.fillRect(0, 0, thumbnail.getWidth(), thumbnail.getHeight());
-            
-            // Add text
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 48));
-            String filename = videoFile.getOriginalFilename();
-            String displayText = filename != null ? filename : "New Video";
-            
-            // Truncate if too long
-            if (displayText.length() > 20) {
-                displayText = displayText.substring(0, 17) + "...";
-            }
-            
-            // Center text
-            FontMetrics metrics = g.getFontMetrics();
-            int x = (thumbnail.getWidth() - metrics.stringWidth(displayText)) / 2;
-            int y = ((thumbnail.getHeight() - metrics.getHeight()) / 2) + metrics.getAscent();
-            
-            g.drawString(displayText, x, y);
-            
-            // Add play button icon
-            int iconSize = 100;
-            int iconX = (thumbnail.getWidth() - iconSize) / 2;
-            int iconY = y + 100;
-            
-            g.setColor(new Color(255, 255, 255, 180));
-            g.fillOval(iconX, iconY, iconSize, iconSize);
-            
-            g.setColor(new Color(25, 118, 210));
-            int[] xPoints = {iconX + iconSize/4, iconX + iconSize/4, iconX + 3*iconSize/4};
-            int[] yPoints = {iconY + iconSize/4, iconY + 3*iconSize/4, iconY + iconSize/2};
-            g.fillPolygon(xPoints, yPoints, 3);
-            
-            g.dispose();
-            
-            // Convert to byte array
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(thumbnail, "jpg", baos);
-            return baos.toByteArray();
-            
+            // The decoder needs a file, and the upload may only exist as a stream
+            tempFile = Files.createTempFile("thumbnail-", ".video");
+            videoFile.transferTo(tempFile);
+        } catch (IOException e) {
+            log.warn("Could not stage video for thumbnail extraction: {}", e.getMessage());
+        }
+        try {
+            return generateThumbnails(tempFile, videoFile.getOriginalFilename(), List.of(width))
+                    .getOrDefault(width, new byte[0]);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+    
+    /**
+     * Generates a thumbnail for a video that has already been stored
+     * 
+     * @param videoPath The stored video
+     * @param originalFilename The filename the video was uploaded with
+     * @return The generated thumbnail as a byte array
+     */
+    public byte[] generateThumbnail(Path videoPath, String originalFilename) {
+        return generateThumbnails(videoPath, originalFilename, List.of(DEFAULT_THUMBNAIL_WIDTH))
+                .getOrDefault(DEFAULT_THUMBNAIL_WIDTH, new byte[0]);
+    }
+    
+    /**
+     * Generates thumbnails in several widths from the first keyframe of a video,
+     * falling back to a rendered placeholder when the video cannot be decoded
+     * 
+     * @param videoPath The video, or null if it is not available as a file
+     * @param originalFilename The filename the video was uploaded with
+     * @param widths The widths to generate
+     * @return JPEG bytes by width
+     */
+    public Map<Integer, byte[]> generateThumbnails(Path videoPath, String originalFilename, List<Integer> widths) {
+        return thumbnailEngine.fromVideo(videoPath, widths)
+                .orElseGet(() -> thumbnailEngine.fromImage(renderPlaceholder(originalFilename), widths));
+    }
+    
+    public Set<Integer> getThumbnailWidths() {
+        return thumbnailEngine.getSupportedWidths();
+    }
+    
+    private BufferedImage renderPlaceholder(String filename) {
+        // Draw on a pooled canvas; the engine returns it to the pool after encoding
+        BufferedImage thumbnail = thumbnailEngine.borrow(1280, 720);
+        Graphics2D g = thumbnail.createGraphics();
+        
+        // Set background gradient
+        GradientPaint gradient = new GradientPaint(
+            0, 0, new Color(25, 118, 210), 
+            thumbnail.getWidth(), thumbnail.getHeight(), new Color(66, 165, 245)
+        );
+        g.setPaint(gradient);
+        g.fillRect(0, 0, thumbnail.getWidth(), thumbnail.getHeight());
+        
+        // Add text
+        g.setColor(Color.WHITE);
+        g.setFont(new Font("Arial", Font.BOLD, 48));
+        String displayText = filename != null ? filename : "New Video";
+        
+        // Truncate if too long
+        if (displayText.length() > 20) {
+            displayText = displayText.substring(0, 17) + "...";
+        }
+        
+        // Center text
+        FontMetrics metrics = g.getFontMetrics();
+        int x = (thumbnail.getWidth() - metrics.stringWidth(displayText)) / 2;
+        int y = ((thumbnail.getHeight() - metrics.getHeight()) / 2) + metrics.getAscent();
+        
+        g.drawString(displayText, x, y);
+        
+        // Add play button icon
+        int iconSize = 100;
+        int iconX = (thumbnail.getWidth() - iconSize) / 2;
+        int iconY = y + 100;
+        
+        g.setColor(new Color(255, 255, 255, 180));
+        g.fillOval(iconX, iconY, iconSize, iconSize);
+        
+        g.setColor(new Color(25, 118, 210));
+        int[] xPoints = {iconX + iconSize/4, iconX + iconSize/4, iconX + 3*iconSize/4};
+        int[] yPoints = {iconY + iconSize/4, iconY + 3*iconSize/4, iconY + iconSize/2};
+        g.fillPolygon(xPoints, yPoints, 3);
+        
+        g.dispose();
+        return thumbnail;
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
         } catch (IOException e) {
-            log.error("Error generating thumbnail: {}", e.getMessage());
-            return new byte[0];
+            log.warn("Could not delete temp file {}: {}", file, e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package com.saurabhh.tiktokreels.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregator for reel like, view and watch time counters.
+ * Increments are absorbed in memory and periodically flushed as batched
+ * relative updates, so a hot reel no longer turns into a row lock hotspot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CounterAggregator {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CounterSet views = new CounterSet("UPDATE reels SET views_count = views_count + ? WHERE id = ?");
+    private final CounterSet likes = new CounterSet("UPDATE reels SET likes_count = likes_count + ? WHERE id = ?");
+    private final CounterSet watchTime = new CounterSet("UPDATE reels SET watch_time_ms = watch_time_ms + ? WHERE id = ?");
+
+    public void incrementViews(Long reelId) {
+        views.add(reelId, 1);
+    }
+
+    /**
+     * Records several views of one reel at once, e.g. from a client's batch of view events
+     *
+     * @param reelId The reel that was viewed
+     * @param count The number of views
+     * @param watchedMs The total time watched across those views
+     */
+    public void addViews(Long reelId, long count, long watchedMs) {
+        views.add(reelId, count);
+        if (watchedMs > 0) {
+            watchTime.add(reelId, watchedMs);
+        }
+    }
+
+    public void incrementLikes(Long reelId) {
+        likes.add(reelId, 1);
+    }
+
+    public void decrementLikes(Long reelId) {
+        likes.add(reelId, -1);
+    }
+
+    /**
+     * @param reelId The reel to look up
+     * @return Views recorded for the reel that are not yet visible in the database
+     */
+    public long getPendingViews(Long reelId) {
+        return views.pending(reelId);
+    }
+
+    /**
+     * @param reelId The reel to look up
+     * @return Likes recorded for the reel that are not yet visible in the database
+     */
+    public long getPendingLikes(Long reelId) {
+        return likes.pending(reelId);
+    }
+
+    /**
+     * Drops pending deltas for a reel, e.g. after it has been deleted
+     *
+     * @param reelId The reel to discard
+     */
+    public void discard(Long reelId) {
+        views.counters.remove(reelId);
+        likes.counters.remove(reelId);
+        watchTime.counters.remove(reelId);
+    }
+
+    @Scheduled(fixedDelayString = "${reels.counters.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        try {
+            Map<Long, Long> viewDeltas = flush(views);
+            Map<Long, Long> likeDeltas = flush(likes);
+            flush(watchTime);
+            if (!viewDeltas.isEmpty() || !likeDeltas.isEmpty()) {
+                eventPublisher.publishEvent(new CountersFlushedEvent(viewDeltas, likeDeltas));
+            }
+        } finally {
+            // Only now that cached counts were dropped, or a set failed and put its deltas back, so reads never dip
+            views.inFlight = Map.of();
+            likes.inFlight = Map.of();
+            watchTime.inFlight = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Writes a set's deltas. They stay visible as in flight until the
+     * caller clears {@link CounterSet#inFlight}.
+     *
+     * @return The deltas that were committed, by reel id; empty if nothing was written
+     */
+    private Map<Long, Long> flush(CounterSet set) {
+        Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+        set.inFlight = inFlight;
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, Counter> entry : set.counters.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                inFlight.put(entry.getKey(), delta);
+                batch.add(new Object[] {delta, entry.getKey()});
+            } else {
+                set.retireIfIdle(entry.getKey());
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                // One transaction per batch so a failure leaves nothing half-applied
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(set.sql, batch));
+            }
+            return inFlight;
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            log.error("Failed to flush {} counter deltas: {}", batch.size(), e.getMessage());
+            for (Object[] args : batch) {
+                set.add((Long) args[1], (Long) args[0]);
+            }
+            set.inFlight = Map.of();
+            return Map.of();
+        }
+    }
+
+    /**
+     * Pending deltas for one counter column. Counters that stay idle for a
+     * flush are retired so the map only holds recently touched reels.
+     */
+    private static class CounterSet {
+        private final String sql;
+        private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+        // Deltas taken out of the counters by a running flush but not committed yet
+        private volatile Map<Long, Long> inFlight = Map.of();
+
+        CounterSet(String sql) {
+            this.sql = sql;
+        }
+
+        long pending(Long reelId) {
+            Counter counter = counters.get(reelId);
+            long pending = counter == null ? 0 : counter.sum();
+            return pending + inFlight.getOrDefault(reelId, 0L);
+        }
+
+        void add(Long reelId, long delta) {
+            Counter counter = counters.computeIfAbsent(reelId, id -> new Counter());
+            counter.add(delta);
+            if (counter.retired) {
+                // The flusher removed this counter while we were adding; move our delta to a live one
+                long orphaned = counter.sumThenReset();
+                if (orphaned != 0) {
+                    add(reelId, orphaned);
+                }
+            }
+        }
+
+        void retireIfIdle(Long reelId) {
+            Counter[] retired = new Counter[1];
+            counters.computeIfPresent(reelId, (id, counter) -> {
+                if (counter.sum() != 0) {
+                    return counter;
+                }
+                counter.retired = true;
+                retired[0] = counter;
+                return null;
+            });
+            if (retired[0] != null) {
+                // Sweep anything added between the idle check and the removal
+                long leftover = retired[0].sumThenReset();
+                if (leftover != 0) {
+                    add(reelId, leftover);
+                }
+            }
+        }
+    }
+
+    private static class Counter extends LongAdder {
+        private volatile boolean retired;
+    }
+}
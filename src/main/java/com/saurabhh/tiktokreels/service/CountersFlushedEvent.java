@@ -0,0 +1,16 @@
+package com.saurabhh.tiktokreels.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published after a counter flush has committed, with the deltas it applied by reel id
+ */
+@Getter
+@AllArgsConstructor
+public class CountersFlushedEvent {
+    private final Map<Long, Long> viewDeltas;
+    private final Map<Long, Long> likeDeltas;
+}
@@ -0,0 +1,46 @@
+package com.saurabhh.tiktokreels.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a feed ordered by (createdAt DESC, id DESC).
+ * Clients only ever see the encoded form and pass it back unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class FeedCursor {
+    private final Instant createdAt;
+    private final Long id;
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}
+     *
+     * @param cursor The encoded cursor
+     * @return The decoded cursor
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    public static FeedCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new FeedCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,34 +1,49 @@
 package com.saurabhh.tiktokreels.service;
 
+import com.saurabhh.tiktokreels.storage.LocalObjectStore;
+import com.saurabhh.tiktokreels.storage.StoredObject;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
+    public static final String VIDEOS = "videos";
+    public static final String THUMBNAILS = "thumbnails";
+    public static final String HLS = "hls";
+    private static final String VIDEO_URL_PREFIX = "/api/videos/";
+    private static final String THUMBNAIL_URL_PREFIX = "/api/thumbnails/";
+    private static final String HLS_URL_PREFIX = "/api/hls/";
+    private static final String MASTER_PLAYLIST = "master.m3u8";
+    // A rendition's playlist or one of its segments, e.g. 480p/seg_003.ts
+    private static final Pattern HLS_FILE = Pattern.compile("[0-9]{3,4}p/(index\\.m3u8|seg_[0-9]{3,5}\\.ts)");
 
-    // Mock implementation for local development
-    public FileStorageService() {
-        // No initialization needed for mock implementation
-    }
+    private final LocalObjectStore objectStore;
 
     public String uploadVideo(MultipartFile file) {
-        try {
-            String fileName = generateFileName(file.getOriginalFilename());
-            // Mock implementation returns a fake URL
-            return "/api/videos/" + fileName;
+        try (InputStream in = file.getInputStream()) {
+            StoredObject object = objectStore.store(VIDEOS, in, extensionOf(file.getOriginalFilename(), "mp4"));
+            return VIDEO_URL_PREFIX + object.getName();
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload file", e);
         }
     }
 
     public String uploadThumbnail(MultipartFile file) {
-        try {
-            String fileName = generateFileName(file.getOriginalFilename());
-            // Mock implementation returns a fake URL
-            return "/api/thumbnails/" + fileName;
+        try (InputStream in = file.getInputStream()) {
+            StoredObject object = objectStore.store(THUMBNAILS, in, extensionOf(file.getOriginalFilename(), "jpg"));
+            return THUMBNAIL_URL_PREFIX + object.getName();
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload thumbnail", e);
         }
@@ -43,15 +58,197 @@ public class FileStorageService {
      */
     public String uploadGeneratedThumbnail(byte[] thumbnailBytes, String filename) {
         try {
-            String key = "thumbnails/" + UUID.randomUUID().toString() + "-" + filename.replaceAll("\\s+", "-");
-            // Mock implementation returns a fake URL
-            return "/api/thumbnails/" + key;
+            StoredObject object = objectStore.store(THUMBNAILS, thumbnailBytes, extensionOf(filename, "jpg"));
+            return THUMBNAIL_URL_PREFIX + object.getName();
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload generated thumbnail", e);
         }
     }
 
-    private String generateFileName(String originalFileName) {
-        return UUID.randomUUID().toString() + "-" + originalFileName.replaceAll("\\s+", "-");
+    /**
+     * Looks up a stored video or thumbnail by the name used in its URL
+     *
+     * @param bucket {@link #VIDEOS} or {@link #THUMBNAILS}
+     * @param name The object name from the URL
+     * @return The file on disk, or empty if the name is invalid or unknown
+     */
+    public Optional<Path> find(String bucket, String name) {
+        try {
+            Path path = objectStore.resolve(bucket, name);
+            return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Looks up the file behind a URL returned by one of the upload methods
+     *
+     * @param url The media URL, e.g. /api/videos/{name} or /api/hls/{name}/240p/seg_000.ts
+     * @return The file on disk, or empty if the URL is not a stored object
+     */
+    public Optional<Path> findByUrl(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        if (url.startsWith(VIDEO_URL_PREFIX)) {
+            return find(VIDEOS, url.substring(VIDEO_URL_PREFIX.length()));
+        }
+        if (url.startsWith(THUMBNAIL_URL_PREFIX)) {
+            return find(THUMBNAILS, url.substring(THUMBNAIL_URL_PREFIX.length()));
+        }
+        if (url.startsWith(HLS_URL_PREFIX)) {
+            String path = url.substring(HLS_URL_PREFIX.length());
+            int slash = path.indexOf('/');
+            return slash < 0 ? Optional.empty() : findHls(path.substring(0, slash), path.substring(slash + 1));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Maps a media URL to the key its reference count is tracked under
+     *
+     * @param url The media URL, e.g. /api/videos/{name}
+     * @return "{bucket}/{name}", or empty if the URL is not a stored object
+     */
+    public Optional<String> objectKeyOf(String url) {
+        if (url == null) {
+            return Optional.empty();
+        }
+        String bucket;
+        String name;
+        if (url.startsWith(VIDEO_URL_PREFIX)) {
+            bucket = VIDEOS;
+            name = url.substring(VIDEO_URL_PREFIX.length());
+        } else if (url.startsWith(THUMBNAIL_URL_PREFIX)) {
+            bucket = THUMBNAILS;
+            name = url.substring(THUMBNAIL_URL_PREFIX.length());
+        } else {
+            return Optional.empty();
+        }
+        try {
+            objectStore.resolve(bucket, name);
+            return Optional.of(bucket + "/" + name);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The inverse of {@link #objectKeyOf(String)}
+     *
+     * @param objectKey "{bucket}/{name}"
+     * @return The media URL, or empty if the key is not of a video or thumbnail
+     */
+    public Optional<String> urlOf(String objectKey) {
+        if (objectKey.startsWith(VIDEOS + "/")) {
+            return Optional.of(VIDEO_URL_PREFIX + objectKey.substring(VIDEOS.length() + 1));
+        }
+        if (objectKey.startsWith(THUMBNAILS + "/")) {
+            return Optional.of(THUMBNAIL_URL_PREFIX + objectKey.substring(THUMBNAILS.length() + 1));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes a stored object unless it was written or re-uploaded recently.
+     * A recent write means an upload of the same content may be about to
+     * reference it, so it is kept.
+     *
+     * @param url The media URL
+     * @param minIdleMs How long the object must have been left untouched
+     * @return true if the object was deleted
+     */
+    public boolean deleteIfIdle(String url, long minIdleMs) {
+        Path path = findByUrl(url).orElse(null);
+        if (path == null) {
+            return false;
+        }
+        try {
+            if (Files.getLastModifiedTime(path).toMillis() > System.currentTimeMillis() - minIdleMs) {
+                return false;
+            }
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete " + url, e);
+        }
+    }
+
+    /**
+     * The HLS output of a video lives in a directory named after the video's
+     * content hash, so identical uploads share one transcode
+     *
+     * @param videoUrl The URL of a stored video
+     * @return The directory, which may not exist yet, or empty if the URL is not a stored video
+     */
+    public Optional<Path> hlsDirectoryOf(String videoUrl) {
+        return hlsNameOf(videoUrl).map(name -> objectStore.resolve(HLS, name + ".hls"));
+    }
+
+    /**
+     * @return The URL of the master playlist for a stored video, or empty if the URL is not a stored video
+     */
+    public Optional<String> hlsUrlOf(String videoUrl) {
+        return hlsNameOf(videoUrl).map(name -> HLS_URL_PREFIX + name + "/" + MASTER_PLAYLIST);
+    }
+
+    /**
+     * Looks up a file of a video's HLS output
+     *
+     * @param name The content hash from the URL
+     * @param file master.m3u8, or a rendition's playlist or segment such as 480p/seg_003.ts
+     * @return The file on disk, or empty if the name is invalid or unknown
+     */
+    public Optional<Path> findHls(String name, String file) {
+        if (!file.equals(MASTER_PLAYLIST) && !HLS_FILE.matcher(file).matches()) {
+            return Optional.empty();
+        }
+        try {
+            Path path = objectStore.resolve(HLS, name + ".hls").resolve(file);
+            return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes the HLS output of a video, if there is any
+     */
+    public void deleteHls(String videoUrl) {
+        Path directory = hlsDirectoryOf(videoUrl).orElse(null);
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            // Deepest first, so directories are empty when their turn comes
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete HLS output of " + videoUrl, e);
+        }
+    }
+
+    private Optional<String> hlsNameOf(String videoUrl) {
+        if (videoUrl == null || !videoUrl.startsWith(VIDEO_URL_PREFIX)) {
+            return Optional.empty();
+        }
+        String name = videoUrl.substring(VIDEO_URL_PREFIX.length());
+        int dot = name.indexOf('.');
+        try {
+            objectStore.resolve(VIDEOS, name);
+            return Optional.of(name.substring(0, dot));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String extensionOf(String originalFileName, String fallback) {
+        if (originalFileName == null) {
+            return fallback;
+        }
+        int dot = originalFileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,8}") ? extension : fallback;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.FollowRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * The follow graph. Follower and following counts are kept on the users
+ * row, and the follower's home timeline is rebuilt after every change.
+ * The followee's followers are told too when the change makes the followee
+ * a celebrity or stops them being one.
+ */
+@Service
+@RequiredArgsConstructor
+public class FollowService {
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final TimelineService timelineService;
+    
+    /**
+     * @return true if the follow was new; false if the user already followed them
+     */
+    @Transactional
+    public boolean follow(Long followerId, Long followeeId) {
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("Users cannot follow themselves");
+        }
+        if (!userRepository.existsById(followeeId)) {
+            throw new EntityNotFoundException("User not found with id: " + followeeId);
+        }
+        boolean added = followRepository.insertIfAbsent(followerId, followeeId) > 0;
+        if (added) {
+            userRepository.adjustFollowersCount(followeeId, 1);
+            userRepository.adjustFollowingCount(followerId, 1);
+            timelineService.invalidate(followerId);
+            userRepository.findFollowersCount(followeeId)
+                    .ifPresent(count -> timelineService.followersChanged(followeeId, count - 1, count));
+        }
+        return added;
+    }
+    
+    /**
+     * @return true if a follow was removed; false if there was none
+     */
+    @Transactional
+    public boolean unfollow(Long followerId, Long followeeId) {
+        boolean removed = followRepository.deleteFollow(followerId, followeeId) > 0;
+        if (removed) {
+            userRepository.adjustFollowersCount(followeeId, -1);
+            userRepository.adjustFollowingCount(followerId, -1);
+            timelineService.invalidate(followerId);
+            userRepository.findFollowersCount(followeeId)
+                    .ifPresent(count -> timelineService.followersChanged(followeeId, count + 1, count));
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,14 @@
+package com.saurabhh.tiktokreels.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the ingestion queue is full and an upload cannot be accepted
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestionBusyException extends RuntimeException {
+    public IngestionBusyException(String message) {
+        super(message);
+    }
+}
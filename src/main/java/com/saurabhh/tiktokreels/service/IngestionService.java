@@ -0,0 +1,263 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.IngestionJobDTO;
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous reel ingestion. The request thread only stores the upload;
+ * enrichment (thumbnail and caption), metadata and publish stages run later
+ * on a bounded worker pool, and clients poll the job for the outcome.
+ */
+@Service
+@Slf4j
+public class IngestionService {
+
+    public enum Stage { UPLOAD, ENRICH, METADATA, PUBLISH }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final FileStorageService fileStorageService;
+    private final ReelEnricher reelEnricher;
+    private final ReelService reelService;
+    private final UserRepository userRepository;
+    private final TranscodeService transcodeService;
+    private final MediaObjectService mediaObjectService;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long jobRetentionMs;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    public IngestionService(FileStorageService fileStorageService,
+                            ReelEnricher reelEnricher,
+                            ReelService reelService,
+                            UserRepository userRepository,
+                            TranscodeService transcodeService,
+                            MediaObjectService mediaObjectService,
+                            @Value("${reels.ingest.workers:2}") int workers,
+                            @Value("${reels.ingest.queue-capacity:64}") int queueCapacity,
+                            @Value("${reels.ingest.max-attempts:3}") int maxAttempts,
+                            @Value("${reels.ingest.retry-backoff-ms:500}") long retryBackoffMs,
+                            @Value("${reels.ingest.job-retention-ms:3600000}") long jobRetentionMs) {
+        this.fileStorageService = fileStorageService;
+        this.reelEnricher = reelEnricher;
+        this.reelService = reelService;
+        this.userRepository = userRepository;
+        this.transcodeService = transcodeService;
+        this.mediaObjectService = mediaObjectService;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.jobRetentionMs = jobRetentionMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reel-ingest-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stores an upload and queues the rest of the ingestion
+     *
+     * @return The queued job
+     * @throws IngestionBusyException if the queue is full
+     */
+    public IngestionJobDTO submit(Long userId, String title, String description, String privacyStatus,
+                                  MultipartFile videoFile, MultipartFile thumbnailFile) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        // Refuse before touching the disk when the queue is already full
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new IngestionBusyException("Ingestion queue is full, retry later");
+        }
+
+        IngestionJob job = new IngestionJob(userId, title, description,
+                "private".equalsIgnoreCase(privacyStatus), videoFile.getOriginalFilename());
+        job.videoUrl = fileStorageService.uploadVideo(videoFile);
+        try {
+            if (thumbnailFile != null && !thumbnailFile.isEmpty()) {
+                job.thumbnailUrl = fileStorageService.uploadThumbnail(thumbnailFile);
+            }
+            jobs.put(job.id, job);
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            discardUploads(job);
+            throw new IngestionBusyException("Ingestion queue is full, retry later");
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            discardUploads(job);
+            throw e;
+        }
+        return toDTO(job);
+    }
+
+    public Optional<IngestionJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toDTO);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minusMillis(jobRetentionMs);
+        jobs.values().removeIf(job -> (job.status == Status.COMPLETED || job.status == Status.FAILED)
+                && job.updatedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void run(IngestionJob job) {
+        job.update(Status.RUNNING, Stage.UPLOAD);
+        Path videoPath = fileStorageService.findByUrl(job.videoUrl).orElse(null);
+
+        // Enrichment is best effort: steps run concurrently, and whatever misses its
+        // timeout is filled in after the reel has been published
+        job.update(Status.RUNNING, Stage.ENRICH);
+        boolean needThumbnail = job.thumbnailUrl == null;
+        boolean needCaption = job.description == null || job.description.isEmpty();
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(job.userId, videoPath, job.originalFilename,
+                needThumbnail, needCaption);
+        if (needThumbnail) {
+            job.thumbnailUrl = enrichment.awaitThumbnail();
+        }
+        if (needCaption) {
+            job.description = Objects.requireNonNullElse(enrichment.awaitCaption(), "");
+        }
+
+        boolean published = runStage(job, Stage.METADATA, () -> job.durationMs = transcodeService.probe(videoPath)
+                        .map(TranscodeService.Probe::getDurationMs)
+                        .orElse(0L))
+                && runStage(job, Stage.PUBLISH, () -> {
+                    // Keyed on the job, so a retry never publishes the reel twice
+                    ReelDTO reel = reelService.publishIngested(job.id, ReelDTO.builder()
+                            .userId(job.userId)
+                            .title(job.title)
+                            .description(job.description)
+                            .videoUrl(job.videoUrl)
+                            .thumbnailUrl(job.thumbnailUrl)
+                            .durationMs(job.durationMs)
+                            .isPrivate(job.isPrivate)
+                            .build());
+                    job.reelId = reel.getId();
+                });
+        if (published) {
+            reelService.fillInLateEnrichment(job.reelId, enrichment);
+        } else {
+            discardUploads(job);
+            // A thumbnail that arrives after its timeout has no reel to go to either
+            enrichment.whenLate(mediaObjectService::discard, description -> { });
+        }
+        job.update(published ? Status.COMPLETED : Status.FAILED, job.stage);
+    }
+
+    private boolean runStage(IngestionJob job, Stage stage, Runnable work) {
+        job.update(Status.RUNNING, stage);
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                work.run();
+                job.error = null;
+                return true;
+            } catch (Exception e) {
+                log.warn("Ingestion job {} stage {} failed (attempt {}/{}): {}",
+                        job.id, stage, attempt, maxAttempts, e.getMessage());
+                job.error = stage + ": " + e.getMessage();
+                if (attempt < maxAttempts && !sleep(retryBackoffMs * attempt)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lets the sweep delete the stored files of a job that will never be published
+     */
+    private void discardUploads(IngestionJob job) {
+        mediaObjectService.discard(job.videoUrl);
+        mediaObjectService.discard(job.thumbnailUrl);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private IngestionJobDTO toDTO(IngestionJob job) {
+        return IngestionJobDTO.builder()
+                .jobId(job.id)
+                .status(job.status.name())
+                .stage(job.stage.name())
+                .reelId(job.reelId)
+                .error(job.error)
+                .createdAt(job.createdAt)
+                .updatedAt(job.updatedAt)
+                .build();
+    }
+
+    /**
+     * Mutable job state; written by one worker at a time and read by status polls
+     */
+    private static class IngestionJob {
+        private final String id = UUID.randomUUID().toString();
+        private final Instant createdAt = Instant.now();
+        private final Long userId;
+        private final String title;
+        private final boolean isPrivate;
+        private final String originalFilename;
+        private volatile String description;
+        private volatile String videoUrl;
+        private volatile String thumbnailUrl;
+        private volatile Long durationMs;
+        private volatile Long reelId;
+        private volatile String error;
+        private volatile Status status = Status.QUEUED;
+        private volatile Stage stage = Stage.UPLOAD;
+        private volatile Instant updatedAt = createdAt;
+
+        IngestionJob(Long userId, String title, String description, boolean isPrivate, String originalFilename) {
+            this.userId = userId;
+            this.title = title;
+            this.description = description;
+            this.isPrivate = isPrivate;
+            this.originalFilename = originalFilename;
+        }
+
+        void update(Status status, Stage stage) {
+            this.status = status;
+            this.stage = stage;
+            this.updatedAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.BloomFilter;
+import com.saurabhh.tiktokreels.model.ReelLikeId;
+import com.saurabhh.tiktokreels.repository.ReelLikeRepository;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Records who liked which reel, so a like counts once per user. A Bloom
+ * filter over all (user, reel) likes sits in front of the table: a feed page
+ * only queries the reels the filter cannot rule out, which for most pages
+ * is none of them.
+ */
+@Service
+@Slf4j
+public class LikeService {
+    private static final int WARM_UP_BATCH = 10_000;
+
+    private final ReelLikeRepository reelLikeRepository;
+    private final ReelRepository reelRepository;
+    private final CounterAggregator counterAggregator;
+    private final BloomFilter filter;
+    // Until the filter has seen every stored like it may give false negatives, so it is not consulted
+    private volatile boolean warm;
+
+    public LikeService(ReelLikeRepository reelLikeRepository,
+                       ReelRepository reelRepository,
+                       CounterAggregator counterAggregator,
+                       @Value("${reels.likes.filter.expected-likes:1000000}") long expectedLikes,
+                       @Value("${reels.likes.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.reelLikeRepository = reelLikeRepository;
+        this.reelRepository = reelRepository;
+        this.counterAggregator = counterAggregator;
+        this.filter = new BloomFilter(expectedLikes, falsePositiveRate);
+    }
+
+    /**
+     * @return true if the like was new; false if the user had already liked the reel
+     */
+    public boolean like(Long userId, Long reelId) {
+        if (!reelRepository.existsById(reelId)) {
+            throw new EntityNotFoundException("Reel not found with id: " + reelId);
+        }
+        boolean added = reelLikeRepository.insertIfAbsent(userId, reelId) > 0;
+        filter.put(userId, reelId);
+        if (added) {
+            counterAggregator.incrementLikes(reelId);
+        }
+        return added;
+    }
+
+    /**
+     * @return true if a like was removed; false if there was none
+     */
+    public boolean unlike(Long userId, Long reelId) {
+        boolean removed = reelLikeRepository.deleteLike(userId, reelId) > 0;
+        if (removed) {
+            counterAggregator.decrementLikes(reelId);
+        }
+        return removed;
+    }
+
+    /**
+     * @param userId The viewer
+     * @param reelIds The reels on the page
+     * @return The subset of reelIds the viewer has liked, found with at most one query
+     */
+    public Set<Long> likedAmong(Long userId, Collection<Long> reelIds) {
+        Set<Long> candidates = warm
+                ? reelIds.stream().filter(id -> filter.mightContain(userId, id)).collect(Collectors.toSet())
+                : new HashSet<>(reelIds);
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(reelLikeRepository.findLikedReelIds(userId, candidates));
+    }
+
+    /**
+     * Drops all likes of a deleted reel
+     */
+    public void deleteAll(Long reelId) {
+        reelLikeRepository.deleteAllByReelId(reelId);
+    }
+
+    /**
+     * Loads every stored like into the filter. Likes recorded meanwhile are
+     * added by {@link #like} as usual, so none are missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long loaded = 0;
+        List<ReelLikeId> batch = reelLikeRepository.findKeysAfter(0L, 0L, PageRequest.of(0, WARM_UP_BATCH));
+        while (!batch.isEmpty()) {
+            for (ReelLikeId key : batch) {
+                filter.put(key.getUserId(), key.getReelId());
+            }
+            loaded += batch.size();
+            ReelLikeId last = batch.get(batch.size() - 1);
+            batch = reelLikeRepository.findKeysAfter(last.getUserId(), last.getReelId(), PageRequest.of(0, WARM_UP_BATCH));
+        }
+        warm = true;
+        log.info("Like filter loaded with {} likes ({} bits, {} hashes)", loaded, filter.bitCount(), filter.hashCount());
+    }
+}
@@ -0,0 +1,108 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.OffHeapCache;
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the start of frequently served media files in direct buffers:
+ * whole thumbnails and playlists, and the first head-bytes of videos and
+ * segments, which is where nearly every playback begins. A head is only
+ * read into memory once it has been asked for min-frequency times, so
+ * one-off reads never allocate; until then, and for anything past the
+ * head, requests go to the file. The memory is outside the heap, so the
+ * JVM's MaxDirectMemorySize has to leave room for max-bytes.
+ */
+@Component
+public class MediaCache {
+    // A guess at the average entry, to size the frequency sketch
+    private static final long TYPICAL_ENTRY_BYTES = 64 * 1024;
+
+    private final boolean enabled;
+    private final long headBytes;
+    private final int minFrequency;
+    private final OffHeapCache<String> cache;
+    // Heads being read, so concurrent misses on one file read it once
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    private final LongAdder bytesServed = new LongAdder();
+
+    public MediaCache(@Value("${reels.media-cache.enabled:true}") boolean enabled,
+                      @Value("${reels.media-cache.max-bytes:268435456}") long maxBytes,
+                      @Value("${reels.media-cache.head-bytes:1048576}") long headBytes,
+                      @Value("${reels.media-cache.min-frequency:2}") int minFrequency) {
+        this.enabled = enabled;
+        this.minFrequency = minFrequency;
+        this.cache = new OffHeapCache<>(maxBytes, (int) Math.min(Integer.MAX_VALUE, maxBytes / TYPICAL_ENTRY_BYTES + 1));
+        this.headBytes = Math.min(headBytes, cache.getMaxEntryBytes());
+    }
+
+    /**
+     * Returns a range of a file from memory. A miss is left to the caller
+     * to serve from the file; once the head has been missed min-frequency
+     * times it is read into the cache for the next request. Files are
+     * identified by path, size and modification time, so a replaced file
+     * is never served from memory.
+     *
+     * @param start The first byte of the range
+     * @param count The length of the range
+     * @return The range, ready to be written out, or null if it is not within the cached head of the file
+     */
+    public ByteBuffer read(Path path, long length, long lastModified, long start, long count) {
+        long head = Math.min(length, headBytes);
+        if (!enabled || start + count > head) {
+            return null;
+        }
+        String key = path + "|" + length + "|" + lastModified;
+        ByteBuffer buffer = cache.get(key);
+        if (buffer == null) {
+            if (cache.frequency(key) >= minFrequency && loading.add(key)) {
+                try {
+                    ByteBuffer loaded = load(path, (int) head);
+                    if (loaded != null) {
+                        cache.put(key, loaded);
+                    }
+                } finally {
+                    loading.remove(key);
+                }
+            }
+            return null;
+        }
+        bytesServed.add(count);
+        buffer.position((int) start).limit((int) (start + count));
+        return buffer;
+    }
+
+    public MediaCacheStatsDTO getStats() {
+        MediaCacheStatsDTO stats = cache.stats();
+        stats.setEnabled(enabled);
+        stats.setBytesServed(bytesServed.sum());
+        return stats;
+    }
+
+    /**
+     * @return The first bytes of the file in a direct buffer, or null if it is gone or shorter than expected
+     */
+    private static ByteBuffer load(Path path, int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return buffer.clear();
+    }
+}
@@ -0,0 +1,154 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.MediaObject;
+import com.saurabhh.tiktokreels.repository.MediaObjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counting for stored media. Identical uploads share one
+ * content-addressed object; every reel holds a reference to its video and
+ * thumbnail. Releasing the last reference only marks the object, and a
+ * periodic sweep deletes files that have stayed unreferenced and untouched
+ * for the grace period, along with any HLS output of a video. HLS output is
+ * shared by every upload of the same content, whatever its extension, so it
+ * goes with the last of them.
+ */
+@Service
+@Slf4j
+public class MediaObjectService {
+    private static final int SWEEP_BATCH = 500;
+
+    private final MediaObjectRepository mediaObjectRepository;
+    private final FileStorageService fileStorageService;
+    private final long orphanGraceMs;
+
+    public MediaObjectService(MediaObjectRepository mediaObjectRepository,
+                              FileStorageService fileStorageService,
+                              @Value("${reels.storage.orphan-grace-ms:3600000}") long orphanGraceMs) {
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.fileStorageService = fileStorageService;
+        this.orphanGraceMs = orphanGraceMs;
+    }
+
+    /**
+     * Adds a reference to the object behind a media URL; URLs that are not
+     * stored objects (e.g. external links) are ignored. Joins the caller's
+     * transaction, so the count moves together with the reel row.
+     */
+    public void retain(String url) {
+        fileStorageService.objectKeyOf(url).ifPresent(mediaObjectRepository::retain);
+    }
+
+    /**
+     * Drops a reference to the object behind a media URL. Joins the caller's
+     * transaction; if it was the last reference, the object becomes eligible
+     * for the sweep.
+     */
+    public void release(String url) {
+        String objectKey = fileStorageService.objectKeyOf(url).orElse(null);
+        if (objectKey == null || mediaObjectRepository.decrementRefCount(objectKey) == 0) {
+            return;
+        }
+        mediaObjectRepository.markReleased(objectKey, Instant.now());
+    }
+
+    /**
+     * Gives up on a stored upload whose ingestion failed or was rejected.
+     * Unless a reel references the same content, it is swept like a
+     * released object.
+     */
+    public void discard(String url) {
+        fileStorageService.objectKeyOf(url).ifPresent(objectKey ->
+                mediaObjectRepository.markDiscarded(objectKey, Instant.now()));
+    }
+
+    /**
+     * Deletes objects that were released more than the grace period ago
+     * and have not been referenced again since
+     */
+    @Scheduled(fixedDelayString = "${reels.storage.sweep-interval-ms:600000}")
+    public void sweepUnreferenced() {
+        Instant cutoff = Instant.now().minusMillis(orphanGraceMs);
+        List<String> objectKeys;
+        int deleted;
+        do {
+            objectKeys = mediaObjectRepository.findReleasedBefore(cutoff, PageRequest.of(0, SWEEP_BATCH));
+            deleted = 0;
+            for (String objectKey : objectKeys) {
+                try {
+                    if (sweep(objectKey, cutoff)) {
+                        deleted++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to delete media object {}: {}", objectKey, e.getMessage());
+                }
+            }
+            // Stops on a short batch, or when nothing in a full one could be deleted
+        } while (objectKeys.size() == SWEEP_BATCH && deleted > 0);
+    }
+
+    /**
+     * Looks up what is known about a stored video, including cached AI results
+     *
+     * @param videoName The video's object name, i.e. its file name in storage
+     */
+    public Optional<MediaObject> findVideo(String videoName) {
+        return mediaObjectRepository.findById(FileStorageService.VIDEOS + "/" + videoName);
+    }
+
+    public void cacheThumbnail(String videoName, String thumbnailUrl) {
+        try {
+            mediaObjectRepository.saveThumbnailUrl(FileStorageService.VIDEOS + "/" + videoName, thumbnailUrl);
+        } catch (Exception e) {
+            // Only a cache; the reel itself already has the thumbnail
+            log.warn("Failed to cache thumbnail for {}: {}", videoName, e.getMessage());
+        }
+    }
+
+    public void cacheCaption(String videoName, String caption) {
+        try {
+            mediaObjectRepository.saveCaption(FileStorageService.VIDEOS + "/" + videoName, caption);
+        } catch (Exception e) {
+            log.warn("Failed to cache caption for {}: {}", videoName, e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the row was deleted
+     */
+    private boolean sweep(String objectKey, Instant cutoff) {
+        if (mediaObjectRepository.deleteIfReleasedBefore(objectKey, cutoff) == 0) {
+            // Referenced again since it was found
+            return false;
+        }
+        String url = fileStorageService.urlOf(objectKey).orElse(null);
+        // A file written within the grace period belongs to an upload of the same content that is
+        // still in progress, which takes a reference when it publishes or discards the object if it fails
+        if (url != null && fileStorageService.deleteIfIdle(url, orphanGraceMs)) {
+            if (!hlsStillShared(objectKey)) {
+                fileStorageService.deleteHls(url);
+            }
+            log.info("Deleted unreferenced media object {}", objectKey);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if another stored video has the same content hash, e.g. a .mov upload of an .mp4 being swept
+     */
+    private boolean hlsStillShared(String objectKey) {
+        int dot = objectKey.indexOf('.');
+        if (!objectKey.startsWith(FileStorageService.VIDEOS + "/") || dot < 0) {
+            return false;
+        }
+        return mediaObjectRepository.existsOtherWithPrefix(objectKey.substring(0, dot + 1), objectKey);
+    }
+}
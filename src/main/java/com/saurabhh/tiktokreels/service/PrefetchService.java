@@ -0,0 +1,159 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.BoundedCache;
+import com.saurabhh.tiktokreels.dto.PrefetchDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefetch hints for the reels right after a feed page. Each hint names the
+ * bytes a player needs to show the first frame: the first segment of the
+ * lowest HLS rendition, or the start of the uploaded file until that exists.
+ * The same bytes, and the thumbnail, are read once in the background so they
+ * are in the OS page cache when the client asks, and sendfile serves them
+ * without touching the disk.
+ */
+@Service
+@Slf4j
+public class PrefetchService {
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_CHUNK_BYTES));
+
+    private final FileStorageService fileStorageService;
+    private final int count;
+    private final long videoPrefixBytes;
+    private final ThreadPoolExecutor warmer;
+    // Files read recently enough that they are most likely still cached
+    private final BoundedCache<Path, Boolean> recentlyWarmed;
+
+    public PrefetchService(FileStorageService fileStorageService,
+                           @Value("${reels.prefetch.count:3}") int count,
+                           @Value("${reels.prefetch.video-prefix-bytes:524288}") long videoPrefixBytes,
+                           @Value("${reels.prefetch.warm.threads:2}") int threads,
+                           @Value("${reels.prefetch.warm.queue-capacity:256}") int queueCapacity,
+                           @Value("${reels.prefetch.warm.max-files:10000}") int maxFiles,
+                           @Value("${reels.prefetch.warm.ttl-ms:60000}") long ttlMs) {
+        this.fileStorageService = fileStorageService;
+        this.count = count;
+        this.videoPrefixBytes = videoPrefixBytes;
+        this.recentlyWarmed = new BoundedCache<>(maxFiles, ttlMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.warmer = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "prefetch-warm-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @return The number of reels after a page that get hints
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Builds the hints for the given reels and starts warming their files
+     *
+     * @param reels The reels after the page, in feed order
+     * @return One hint per reel whose video is stored here; external videos are skipped
+     */
+    public List<PrefetchDTO> manifest(List<Reel> reels) {
+        List<PrefetchDTO> hints = new ArrayList<>(reels.size());
+        for (Reel reel : reels) {
+            String url = reel.getVideoUrl();
+            Path path = null;
+            boolean segment = false;
+            if (reel.getHlsUrl() != null) {
+                String segmentUrl = TranscodeService.firstSegmentUrl(reel.getHlsUrl());
+                path = fileStorageService.findByUrl(segmentUrl).orElse(null);
+                if (path != null) {
+                    url = segmentUrl;
+                    segment = true;
+                }
+            }
+            if (path == null) {
+                // Not transcoded yet, or the HLS output was removed
+                path = fileStorageService.findByUrl(url).orElse(null);
+            }
+            if (path == null) {
+                continue;
+            }
+            long bytes;
+            try {
+                bytes = segment ? Files.size(path) : Math.min(Files.size(path), videoPrefixBytes);
+            } catch (IOException e) {
+                continue;
+            }
+            warm(path, bytes);
+            fileStorageService.findByUrl(reel.getThumbnailUrl()).ifPresent(thumbnail -> warm(thumbnail, Long.MAX_VALUE));
+            hints.add(PrefetchDTO.builder()
+                    .reelId(reel.getId())
+                    .url(url)
+                    .bytes(bytes)
+                    .thumbnailUrl(reel.getThumbnailUrl())
+                    .build());
+        }
+        return hints;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmer.shutdownNow();
+    }
+
+    private void warm(Path path, long bytes) {
+        if (recentlyWarmed.getIfPresent(path) != null) {
+            return;
+        }
+        recentlyWarmed.put(path, Boolean.TRUE);
+        try {
+            warmer.execute(() -> read(path, bytes));
+        } catch (RejectedExecutionException e) {
+            // Warming is best effort, so a full queue drops work instead of slowing down the feed
+            recentlyWarmed.invalidate(path);
+        }
+    }
+
+    /**
+     * Reads the first bytes of a file and throws them away, leaving them in the page cache
+     */
+    private static void read(Path path, long bytes) {
+        ByteBuffer buffer = READ_BUFFER.get();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < bytes) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            // Deleted in the meantime; the client will get a 404 either way
+            log.debug("Could not warm {}: {}", path, e.getMessage());
+        }
+    }
+}
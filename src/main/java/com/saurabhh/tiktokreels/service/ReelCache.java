@@ -0,0 +1,66 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.BoundedCache;
+import com.saurabhh.tiktokreels.dto.CacheStatsDTO;
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Cache of assembled single-reel DTOs with their stored counts. Pending
+ * like and view deltas are overlaid by the caller on every read, so the
+ * entry only has to be dropped when the reel row itself changes.
+ */
+@Component
+public class ReelCache {
+    private final boolean enabled;
+    private final BoundedCache<Long, ReelDTO> cache;
+
+    public ReelCache(@Value("${reels.cache.enabled:true}") boolean enabled,
+                     @Value("${reels.cache.max-size:10000}") int maxSize,
+                     @Value("${reels.cache.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled;
+        this.cache = new BoundedCache<>(maxSize, ttlMs);
+    }
+
+    public ReelDTO get(Long reelId, Function<Long, ReelDTO> loader) {
+        return enabled ? cache.get(reelId, loader) : loader.apply(reelId);
+    }
+
+    /**
+     * Drops a reel now and, inside a transaction, again after it commits so
+     * a concurrent read cannot re-cache the uncommitted old row
+     */
+    public void invalidate(Long reelId) {
+        if (!enabled) {
+            return;
+        }
+        cache.invalidate(reelId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(reelId);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onCountersFlushed(CountersFlushedEvent event) {
+        // The flushed deltas are now part of the stored counts, so cached entries are stale
+        event.getViewDeltas().keySet().forEach(this::invalidate);
+        event.getLikeDeltas().keySet().forEach(this::invalidate);
+    }
+
+    public CacheStatsDTO getStats() {
+        CacheStatsDTO stats = cache.stats();
+        stats.setEnabled(enabled);
+        return stats;
+    }
+}
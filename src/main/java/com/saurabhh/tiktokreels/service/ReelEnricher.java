@@ -0,0 +1,208 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.MediaObject;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent AI enrichment steps for a new reel (thumbnail and
+ * caption) concurrently. Callers wait for each step up to its own timeout,
+ * publish with whatever finished, and patch the reel when the rest completes.
+ * Results are remembered per video content, so a repost reuses them.
+ */
+@Component
+@Slf4j
+public class ReelEnricher {
+    private final AIService aiService;
+    private final FileStorageService fileStorageService;
+    private final MediaObjectService mediaObjectService;
+    private final long thumbnailTimeoutMs;
+    private final long captionTimeoutMs;
+    private final int maxAttempts;
+    private final ExecutorService executor = newEnrichmentExecutor();
+
+    public ReelEnricher(AIService aiService,
+                        FileStorageService fileStorageService,
+                        MediaObjectService mediaObjectService,
+                        @Value("${reels.enrich.thumbnail-timeout-ms:2000}") long thumbnailTimeoutMs,
+                        @Value("${reels.enrich.caption-timeout-ms:1000}") long captionTimeoutMs,
+                        @Value("${reels.enrich.max-attempts:2}") int maxAttempts) {
+        this.aiService = aiService;
+        this.fileStorageService = fileStorageService;
+        this.mediaObjectService = mediaObjectService;
+        this.thumbnailTimeoutMs = thumbnailTimeoutMs;
+        this.captionTimeoutMs = captionTimeoutMs;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Starts the requested enrichment steps concurrently
+     *
+     * @param needThumbnail Whether to generate and store a thumbnail
+     * @param needCaption Whether to generate a caption
+     * @return A handle to wait for the results
+     */
+    public Enrichment start(Long userId, Path videoPath, String originalFilename,
+                            boolean needThumbnail, boolean needCaption) {
+        // Results are cached by the video's content hash, so reposts of the same clip skip the AI work
+        String videoName = videoPath == null ? null : videoPath.getFileName().toString();
+        MediaObject cached = videoName == null ? null : mediaObjectService.findVideo(videoName).orElse(null);
+        
+        CompletableFuture<String> thumbnail = null;
+        if (needThumbnail && cached != null && cached.getThumbnailUrl() != null
+                && fileStorageService.findByUrl(cached.getThumbnailUrl()).isPresent()) {
+            thumbnail = CompletableFuture.completedFuture(cached.getThumbnailUrl());
+        } else if (needThumbnail) {
+            thumbnail = supply("thumbnail", () -> {
+                byte[] generated = aiService.generateThumbnail(videoPath, originalFilename);
+                if (generated.length == 0) {
+                    return null;
+                }
+                String url = fileStorageService.uploadGeneratedThumbnail(generated, userId + "_" + System.currentTimeMillis() + ".jpg");
+                if (videoName != null) {
+                    mediaObjectService.cacheThumbnail(videoName, url);
+                }
+                return url;
+            });
+        }
+        
+        CompletableFuture<String> caption = null;
+        if (needCaption && cached != null && cached.getCaption() != null) {
+            caption = CompletableFuture.completedFuture(cached.getCaption());
+        } else if (needCaption) {
+            caption = supply("caption", () -> {
+                String generated = aiService.generateCaption(videoPath, originalFilename) + " [AI Generated]";
+                if (videoName != null) {
+                    mediaObjectService.cacheCaption(videoName, generated);
+                }
+                return generated;
+            });
+        }
+        return new Enrichment(thumbnail, caption);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<String> supply(String step, Supplier<String> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return work.get();
+                } catch (Exception e) {
+                    log.warn("Failed to generate {} (attempt {}/{}): {}", step, attempt, maxAttempts, e.getMessage());
+                    if (attempt >= maxAttempts) {
+                        return null;
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * Results of one reel's enrichment. Steps that miss their timeout keep
+     * running and can be applied to the reel once they finish.
+     */
+    public class Enrichment {
+        private final CompletableFuture<String> thumbnail;
+        private final CompletableFuture<String> caption;
+        private volatile boolean thumbnailLate;
+        private volatile boolean captionLate;
+
+        private Enrichment(CompletableFuture<String> thumbnail, CompletableFuture<String> caption) {
+            this.thumbnail = thumbnail;
+            this.caption = caption;
+        }
+
+        /**
+         * @return The thumbnail URL, or null if not requested, failed or not ready within the timeout
+         */
+        public String awaitThumbnail() {
+            if (thumbnail == null) {
+                return null;
+            }
+            return await(thumbnail, thumbnailTimeoutMs, () -> thumbnailLate = true);
+        }
+
+        /**
+         * @return The caption, or null if not requested, failed or not ready within the timeout
+         */
+        public String awaitCaption() {
+            if (caption == null) {
+                return null;
+            }
+            return await(caption, captionTimeoutMs, () -> captionLate = true);
+        }
+
+        /**
+         * Registers callbacks for steps that missed their timeout; each runs
+         * once its step succeeds and is never called for failed steps
+         */
+        public void whenLate(Consumer<String> onThumbnail, Consumer<String> onCaption) {
+            if (thumbnailLate) {
+                thumbnail.thenAccept(url -> applyLate("thumbnail", url, onThumbnail));
+            }
+            if (captionLate) {
+                caption.thenAccept(text -> applyLate("caption", text, onCaption));
+            }
+        }
+
+        private void applyLate(String step, String value, Consumer<String> apply) {
+            if (value == null) {
+                return;
+            }
+            try {
+                apply.accept(value);
+            } catch (Exception e) {
+                log.error("Failed to apply late {}: {}", step, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits for a step without cancelling it on timeout, so it can still be applied later
+     *
+     * @return The step's result, or null if it failed or did not finish in time
+     */
+    private static String await(CompletableFuture<String> step, long timeoutMs, Runnable onTimeout) {
+        try {
+            return step.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            onTimeout.run();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onTimeout.run();
+            return null;
+        }
+    }
+
+    private static ExecutorService newEnrichmentExecutor() {
+        try {
+            // Virtual threads where the runtime has them (Java 21+)
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, runnable -> {
+                Thread thread = new Thread(runnable, "reel-enrich");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.search.InvertedIndex;
+import com.saurabhh.tiktokreels.search.TextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text search over public reels. Titles, descriptions and hashtags
+ * live in an in-memory {@link InvertedIndex} kept current by ReelService,
+ * so a query never reaches MySQL. Private reels are not indexed.
+ */
+@Service
+@Slf4j
+public class ReelSearchService {
+    // Title words count as much as this many description words
+    private static final int TITLE_WEIGHT = 2;
+    private static final int REBUILD_BATCH = 1000;
+
+    private final ReelRepository reelRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    public ReelSearchService(ReelRepository reelRepository) {
+        this.reelRepository = reelRepository;
+    }
+
+    /**
+     * Indexes a saved reel, or drops it if it is private. Inside a
+     * transaction this happens after commit, so a rollback leaves the index alone.
+     */
+    public void index(Reel reel) {
+        long id = reel.getId();
+        long createdAt = createdAtOf(reel);
+        boolean searchable = !reel.isPrivate();
+        Map<String, Integer> terms = searchable ? termFrequencies(reel) : Map.of();
+        Set<String> tags = searchable ? hashtags(reel) : Set.of();
+        afterCommit(() -> {
+            if (searchable) {
+                index.put(id, createdAt, terms, tags);
+            } else {
+                index.remove(id);
+            }
+        });
+    }
+
+    public void remove(Long reelId) {
+        afterCommit(() -> index.remove(reelId));
+    }
+
+    /**
+     * @param query Words, and hashtags such as {@code #viral} that every result must carry
+     * @param offset The number of results to skip
+     * @param limit The number of results to return
+     * @return Matching reel ids, best match first
+     */
+    public List<Long> search(String query, int offset, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.terms(query.replaceAll("#\\S*", " "))));
+        List<String> tags = new ArrayList<>(TextAnalyzer.hashtags(query));
+        return index.search(words, tags, offset, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Loads every public reel into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        index.clear();
+        List<Reel> batch = reelRepository.findPublicFeedFirstPage(PageRequest.of(0, REBUILD_BATCH));
+        while (!batch.isEmpty()) {
+            for (Reel reel : batch) {
+                index.put(reel.getId(), createdAtOf(reel), termFrequencies(reel), hashtags(reel));
+            }
+            Reel last = batch.get(batch.size() - 1);
+            batch = reelRepository.findPublicFeedPageAfter(last.getCreatedAt(), last.getId(), PageRequest.of(0, REBUILD_BATCH));
+        }
+        log.info("Search index built with {} reels in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    private static long createdAtOf(Reel reel) {
+        return reel.getCreatedAt() == null ? 0 : reel.getCreatedAt().toEpochMilli();
+    }
+
+    private static Map<String, Integer> termFrequencies(Reel reel) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.terms(reel.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : TextAnalyzer.terms(reel.getDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static Set<String> hashtags(Reel reel) {
+        Set<String> tags = TextAnalyzer.hashtags(reel.getTitle());
+        tags.addAll(TextAnalyzer.hashtags(reel.getDescription()));
+        return tags;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,29 +1,93 @@
 package com.saurabhh.tiktokreels.service;
 
+import com.saurabhh.tiktokreels.cache.TimelineBuffer;
 import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.dto.ReelPageDTO;
+import com.saurabhh.tiktokreels.dto.TagPageDTO;
+import com.saurabhh.tiktokreels.dto.ViewEventDTO;
 import com.saurabhh.tiktokreels.model.Reel;
 import com.saurabhh.tiktokreels.model.User;
 import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.ReelSummary;
+import com.saurabhh.tiktokreels.repository.TaggedReel;
 import com.saurabhh.tiktokreels.repository.UserRepository;
+import com.saurabhh.tiktokreels.storage.WatchEvent;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ReelService {
+    private static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_VIEW_BATCH = 500;
+    // A single view event cannot claim more watch time than this
+    private static final long MAX_WATCHED_MS = 3_600_000;
+    // Search results are ranked, so deep pages get expensive and are cut off here
+    private static final int MAX_SEARCH_OFFSET = 1000;
+    
     private final ReelRepository reelRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final AIService aiService;
+    private final CounterAggregator counterAggregator;
+    private final ReelEnricher reelEnricher;
+    private final MediaObjectService mediaObjectService;
+    private final ReelCache reelCache;
+    private final TrendingService trendingService;
+    private final LikeService likeService;
+    private final WatchStatsService watchStatsService;
+    private final ReelSearchService reelSearchService;
+    private final TagService tagService;
+    private final TimelineService timelineService;
+    private final TranscodeService transcodeService;
+    private final PrefetchService prefetchService;
+    private final TransactionTemplate transactionTemplate;
     
+    @Transactional
     public ReelDTO createReel(ReelDTO reelDTO) {
+        return saveReel(reelDTO, null);
+    }
+    
+    /**
+     * Publishes the reel of an upload job. A retry after a failure that came
+     * after the commit gets the reel saved by the earlier attempt, instead of
+     * a second reel holding a second reference to the same media.
+     * 
+     * @param jobId The ingestion job
+     * @param reelDTO The reel to create
+     * @return The job's reel
+     */
+    @Transactional
+    public ReelDTO publishIngested(String jobId, ReelDTO reelDTO) {
+        Reel existing = reelRepository.findByIngestJobId(jobId).orElse(null);
+        if (existing != null) {
+            String username = userRepository.findById(existing.getUserId())
+                    .map(User::getUsername)
+                    .orElse("Unknown");
+            return convertToDTO(existing, username);
+        }
+        return saveReel(reelDTO, jobId);
+    }
+    
+    private ReelDTO saveReel(ReelDTO reelDTO, String ingestJobId) {
         User user = userRepository.findById(reelDTO.getUserId())
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + reelDTO.getUserId()));
         
@@ -37,12 +101,20 @@ public class ReelService {
                 .durationMs(reelDTO.getDurationMs())
                 .likesCount(0)
                 .viewsCount(0)
+                .watchTimeMs(0L)
                 .isPrivate(reelDTO.isPrivate())
                 .createdAt(Instant.now())
                 .updatedAt(Instant.now())
+                .ingestJobId(ingestJobId)
                 .build();
         
         Reel savedReel = reelRepository.save(reel);
+        mediaObjectService.retain(savedReel.getVideoUrl());
+        mediaObjectService.retain(savedReel.getThumbnailUrl());
+        reelSearchService.index(savedReel);
+        tagService.tagReel(savedReel);
+        timelineService.publish(savedReel, user);
+        transcodeService.submit(savedReel.getVideoUrl());
         return convertToDTO(savedReel, user.getUsername());
     }
     
@@ -53,36 +125,22 @@ public class ReelService {
         
         // Upload video to storage
         String videoUrl = fileStorageService.uploadVideo(videoFile);
-        String thumbnailUrl = null;
-        
-        // If no thumbnail provided, generate one using AI
-        if (thumbnailFile == null || thumbnailFile.isEmpty()) {
-            try {
-                byte[] generatedThumbnail = aiService.generateThumbnail(videoFile);
-                if (generatedThumbnail.length > 0) {
-                    thumbnailUrl = fileStorageService.uploadGeneratedThumbnail(generatedThumbnail, userId + "_" + System.currentTimeMillis() + ".jpg");
-                }
-            } catch (Exception e) {
-                // Log error but continue without thumbnail
-                System.err.println("Failed to generate thumbnail: " + e.getMessage());
-            }
-        } else {
-            thumbnailUrl = fileStorageService.uploadThumbnail(thumbnailFile);
-        }
-        
-        // If no description provided, generate one using AI
-        if (description == null || description.isEmpty()) {
-            try {
-                String aiCaption = aiService.generateCaption(videoFile);
-                // Mark AI-generated captions
-                description = aiCaption + " [AI Generated]";
-            } catch (Exception e) {
-                // Log error but continue with empty description
-                System.err.println("Failed to generate caption: " + e.getMessage());
-                description = "";
-            }
+        Path videoPath = fileStorageService.findByUrl(videoUrl).orElse(null);
+        
+        // Thumbnail and caption only read the video, so generate whatever is missing concurrently
+        boolean needThumbnail = thumbnailFile == null || thumbnailFile.isEmpty();
+        boolean needCaption = description == null || description.isEmpty();
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(userId, videoPath, videoFile.getOriginalFilename(),
+                needThumbnail, needCaption);
+        
+        String thumbnailUrl = needThumbnail ? enrichment.awaitThumbnail() : fileStorageService.uploadThumbnail(thumbnailFile);
+        if (needCaption) {
+            // Empty until the caption arrives if it failed or is running late
+            description = Objects.requireNonNullElse(enrichment.awaitCaption(), "");
         }
         
+        long durationMs = transcodeService.probe(videoPath).map(TranscodeService.Probe::getDurationMs).orElse(0L);
+        
         // Create and save the reel
         Reel reel = Reel.builder()
                 .userId(userId)
@@ -90,37 +148,315 @@ public class ReelService {
                 .description(description)
                 .videoUrl(videoUrl)
                 .thumbnailUrl(thumbnailUrl)
-                .durationMs(0) // This would be calculated from the video
+                .durationMs(durationMs)
                 .likesCount(0)
                 .viewsCount(0)
+                .watchTimeMs(0L)
                 .isPrivate(privacyStatus.equalsIgnoreCase("private"))
                 .createdAt(Instant.now())
                 .updatedAt(Instant.now())
                 .build();
         
-        Reel savedReel = reelRepository.save(reel);
+        // The row and its media references commit together
+        Reel savedReel = transactionTemplate.execute(status -> {
+            Reel saved = reelRepository.save(reel);
+            mediaObjectService.retain(saved.getVideoUrl());
+            mediaObjectService.retain(saved.getThumbnailUrl());
+            reelSearchService.index(saved);
+            tagService.tagReel(saved);
+            timelineService.publish(saved, user);
+            return saved;
+        });
+        transcodeService.submit(savedReel.getVideoUrl());
+        fillInLateEnrichment(savedReel.getId(), enrichment);
         return convertToDTO(savedReel, user.getUsername());
     }
     
-    public List<ReelDTO> getAllReels() {
-        // Get all public reels
-        return reelRepository.findByIsPrivateFalseOrderByCreatedAtDesc().stream()
-                .map(reel -> {
-                    String username = userRepository.findById(reel.getUserId())
-                            .map(User::getUsername)
-                            .orElse("Unknown");
-                    return convertToDTO(reel, username);
-                })
-                .collect(Collectors.toList());
+    /**
+     * Applies enrichment steps that missed their timeout to an already saved reel.
+     * Fields are only filled in if they are still empty.
+     * 
+     * @param reelId The saved reel
+     * @param enrichment The enrichment started for the reel
+     */
+    public void fillInLateEnrichment(Long reelId, ReelEnricher.Enrichment enrichment) {
+        enrichment.whenLate(
+                thumbnailUrl -> transactionTemplate.executeWithoutResult(status -> {
+                    if (reelRepository.fillThumbnailUrl(reelId, thumbnailUrl) > 0) {
+                        mediaObjectService.retain(thumbnailUrl);
+                        reelCache.invalidate(reelId);
+                    }
+                }),
+                description -> {
+                    if (reelRepository.fillDescription(reelId, description) > 0) {
+                        reelCache.invalidate(reelId);
+                        reelRepository.findById(reelId).ifPresent(reel -> {
+                            reelSearchService.index(reel);
+                            tagService.tagReel(reel);
+                        });
+                    }
+                });
     }
     
-    public List<ReelDTO> getPublicReels() {
-        // This method returns the same as getAllReels for now
-        // In the future, it could be extended to include additional filtering or sorting
-        return getAllReels();
+    public ReelPageDTO getAllReels(String cursor, int size, Long viewerId) {
+        // Get one page of public reels, newest first
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // The rows past the page tell whether another page exists, and are the ones to prefetch
+        Pageable limit = PageRequest.of(0, pageSize + Math.max(1, prefetchService.getCount()));
+        List<Reel> reels;
+        if (cursor == null || cursor.isEmpty()) {
+            reels = reelRepository.findPublicFeedFirstPage(limit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            reels = reelRepository.findPublicFeedPageAfter(position.getCreatedAt(), position.getId(), limit);
+        }
+        
+        String nextCursor = null;
+        List<Reel> next = List.of();
+        if (reels.size() > pageSize) {
+            next = reels.subList(pageSize, Math.min(reels.size(), pageSize + prefetchService.getCount()));
+            reels = reels.subList(0, pageSize);
+            Reel last = reels.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ReelPageDTO.builder()
+                .reels(withLikedFlags(convertToDTOs(reels), viewerId))
+                .nextCursor(nextCursor)
+                .prefetch(prefetchService.manifest(next))
+                .build();
     }
     
-    public ReelDTO getReel(Long id) {
+    /**
+     * Returns the reels with the most recent engagement, from the in-memory ranking
+     * 
+     * @param size The number of reels, clamped to 1..100
+     * @param viewerId The caller, whose likes are flagged; null if anonymous
+     * @return Public reels, highest trending score first
+     */
+    public List<ReelDTO> getTrendingReels(int size, Long viewerId) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ReelDTO> trending = new ArrayList<>(limit);
+        // Ask for a few extra in case some turn out to be private or deleted
+        for (Long id : trendingService.top(limit + 10)) {
+            ReelDTO reel = findPublicReel(id);
+            if (reel == null) {
+                trendingService.remove(id);
+                continue;
+            }
+            trending.add(reel);
+            if (trending.size() == limit) {
+                break;
+            }
+        }
+        return withLikedFlags(trending, viewerId);
+    }
+    
+    /**
+     * Full-text search over public reels, served from the in-memory index
+     * 
+     * @param query Words and hashtags, e.g. "dance #viral"
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size The page size, clamped to 1..100
+     * @param viewerId The caller, whose likes are flagged; null if anonymous
+     * @return One page of reels, best match first
+     */
+    public ReelPageDTO searchReels(String query, String cursor, int size, Long viewerId) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = decodeSearchCursor(cursor);
+        List<Long> ids = reelSearchService.search(query, offset, pageSize + 1);
+        String nextCursor = ids.size() > pageSize && offset + pageSize <= MAX_SEARCH_OFFSET
+                ? String.valueOf(offset + pageSize) : null;
+        
+        List<ReelDTO> reels = new ArrayList<>(pageSize);
+        for (Long id : ids.subList(0, Math.min(ids.size(), pageSize))) {
+            ReelDTO reel = findPublicReel(id);
+            if (reel == null) {
+                // The index is updated after commit, so it can briefly lag a delete
+                reelSearchService.remove(id);
+                continue;
+            }
+            reels.add(reel);
+        }
+        return ReelPageDTO.builder()
+                .reels(withLikedFlags(reels, viewerId))
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    /**
+     * Lists the public reels carrying a hashtag, newest first
+     * 
+     * @param tag The tag, with or without '#', in any case
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size The page size, clamped to 1..100
+     * @param viewerId The caller, whose likes are flagged; null if anonymous
+     * @return One page of reels and the number of public reels with the tag
+     */
+    public TagPageDTO getTagReels(String tag, String cursor, int size, Long viewerId) {
+        String name = TagService.normalize(tag);
+        long reelCount = tagService.getReelCount(name)
+                .orElseThrow(() -> new EntityNotFoundException("Tag not found: " + name));
+        
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<TaggedReel> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = tagService.getPage(name, null, null, pageSize + 1);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            entries = tagService.getPage(name, position.getCreatedAt(), position.getId(), pageSize + 1);
+        }
+        
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            TaggedReel last = entries.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getReelId()).encode();
+        }
+        List<ReelDTO> reels = new ArrayList<>(entries.size());
+        for (TaggedReel entry : entries) {
+            ReelDTO reel = findPublicReel(entry.getReelId());
+            if (reel != null) {
+                reels.add(reel);
+            }
+        }
+        return TagPageDTO.builder()
+                .tag(name)
+                .reelCount(reelCount)
+                .reels(withLikedFlags(reels, viewerId))
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    /**
+     * Lists the reels of the people a user follows, and their own, newest first
+     * 
+     * @param userId The reader
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size The page size, clamped to 1..100
+     * @return One page of reels
+     */
+    public ReelPageDTO getHomeReels(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<TimelineBuffer.Entry> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = timelineService.getPage(userId, null, null, pageSize + 1);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            entries = timelineService.getPage(userId, position.getCreatedAt(), position.getId(), pageSize + 1);
+        }
+        
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            TimelineBuffer.Entry last = entries.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getReelId()).encode();
+        }
+        List<ReelDTO> reels = new ArrayList<>(entries.size());
+        for (TimelineBuffer.Entry entry : entries) {
+            // Timelines are not told about deletes or privacy changes, so those are skipped here
+            ReelDTO reel = findPublicReel(entry.getReelId());
+            if (reel != null) {
+                reels.add(reel);
+            }
+        }
+        return ReelPageDTO.builder()
+                .reels(withLikedFlags(reels, userId))
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    /**
+     * The public feed, newest first; the same as getAllReels.
+     * Reels ranked by engagement are served by getTrendingReels
+     * 
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size The page size, clamped to 1..100
+     * @param viewerId The caller, whose likes are flagged; null if anonymous
+     * @return One page of reels
+     */
+    public ReelPageDTO getPublicReels(String cursor, int size, Long viewerId) {
+        return getAllReels(cursor, size, viewerId);
+    }
+    
+    /**
+     * Lists one user's reels, newest first
+     * 
+     * @param userId The author
+     * @param includePrivate Whether private reels are listed too, i.e. the author is asking
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size The page size, clamped to 1..100
+     * @param viewerId The caller, whose likes are flagged; null if anonymous
+     * @return One page of reels
+     */
+    public ReelPageDTO getUserReels(Long userId, boolean includePrivate, String cursor, int size, Long viewerId) {
+        // The author is known up front, so one lookup covers every row
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ReelSummary> reels;
+        if (cursor == null || cursor.isEmpty()) {
+            reels = reelRepository.findUserReelsFirstPage(userId, includePrivate, limit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            reels = reelRepository.findUserReelsPageAfter(userId, includePrivate,
+                    position.getCreatedAt(), position.getId(), limit);
+        }
+        
+        String nextCursor = null;
+        if (reels.size() > pageSize) {
+            reels = reels.subList(0, pageSize);
+            ReelSummary last = reels.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ReelPageDTO.builder()
+                .reels(withLikedFlags(reels.stream()
+                        .map(reel -> toDTO(reel, userId, user.getUsername()))
+                        .collect(Collectors.toList()), viewerId))
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    public ReelDTO getReel(Long id, Long viewerId) {
+        // Hot reels are served from the cache; pending counter deltas are overlaid on every read
+        ReelDTO reel = withPendingCounts(reelCache.get(id, this::loadReel));
+        return withLikedFlags(List.of(reel), viewerId).get(0);
+    }
+    
+    /**
+     * Search cursors are plain result offsets
+     */
+    private static int decodeSearchCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        int offset;
+        try {
+            offset = Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid search cursor: " + cursor, e);
+        }
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new InvalidCursorException("Invalid search cursor: " + cursor);
+        }
+        return offset;
+    }
+
+    /**
+     * @return The reel from the cache with pending counts, or null if it is gone or private
+     */
+    private ReelDTO findPublicReel(Long id) {
+        ReelDTO reel;
+        try {
+            reel = reelCache.get(id, this::loadReel);
+        } catch (EntityNotFoundException e) {
+            return null;
+        }
+        return reel.isPrivate() ? null : withPendingCounts(reel);
+    }
+    
+    private ReelDTO loadReel(Long id) {
         Reel reel = reelRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Reel not found with id: " + id));
         
@@ -128,13 +464,18 @@ public class ReelService {
                 .map(User::getUsername)
                 .orElse("Unknown");
         
-        return convertToDTO(reel, username);
+        return toDTO(reel, username);
     }
     
+    @Transactional
     public ReelDTO updateReel(Long id, ReelDTO reelDTO) {
         Reel reel = reelRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Reel not found with id: " + id));
         
+        // Move media references before the URLs change
+        swapMedia(reel.getVideoUrl(), reelDTO.getVideoUrl());
+        swapMedia(reel.getThumbnailUrl(), reelDTO.getThumbnailUrl());
+        
         // Update fields
         reel.setTitle(reelDTO.getTitle());
         reel.setDescription(reelDTO.getDescription());
@@ -142,10 +483,16 @@ public class ReelService {
         reel.setThumbnailUrl(reelDTO.getThumbnailUrl());
         reel.setDurationMs(reelDTO.getDurationMs());
         reel.setPrivate(reelDTO.isPrivate());
+        if (reelDTO.isPrivate()) {
+            trendingService.remove(id);
+        }
         reel.setUpdatedAt(Instant.now());
         
         // Save updated reel
         Reel updatedReel = reelRepository.save(reel);
+        reelCache.invalidate(id);
+        reelSearchService.index(updatedReel);
+        tagService.tagReel(updatedReel);
         
         String username = userRepository.findById(updatedReel.getUserId())
                 .map(User::getUsername)
@@ -154,30 +501,121 @@ public class ReelService {
         return convertToDTO(updatedReel, username);
     }
     
+    @Transactional
     public void deleteReel(Long id) {
-        if (!reelRepository.existsById(id)) {
-            throw new EntityNotFoundException("Reel not found with id: " + id);
-        }
+        Reel reel = reelRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Reel not found with id: " + id));
         reelRepository.deleteById(id);
+        counterAggregator.discard(id);
+        reelCache.invalidate(id);
+        trendingService.remove(id);
+        likeService.deleteAll(id);
+        reelSearchService.remove(id);
+        tagService.untagReel(reel);
+        // Stored media is shared by content; it is only freed when no other reel uses it
+        mediaObjectService.release(reel.getVideoUrl());
+        mediaObjectService.release(reel.getThumbnailUrl());
     }
     
-    @Transactional
-    public void incrementLikesCount(Long id) {
-        if (!reelRepository.existsById(id)) {
-            throw new EntityNotFoundException("Reel not found with id: " + id);
-        }
-        reelRepository.incrementLikesCount(id);
+    /**
+     * Likes a reel once per user; repeating the call changes nothing
+     * 
+     * @return true if the like was new
+     */
+    public boolean likeReel(Long id, Long userId) {
+        return likeService.like(userId, id);
+    }
+    
+    /**
+     * @return true if the user had liked the reel
+     */
+    public boolean unlikeReel(Long id, Long userId) {
+        return likeService.unlike(userId, id);
     }
     
-    @Transactional
     public void incrementViewsCount(Long id) {
-        if (!reelRepository.existsById(id)) {
-            throw new EntityNotFoundException("Reel not found with id: " + id);
+        // Buffered and flushed in batches; an unknown id simply updates no rows.
+        // No watch event: the time watched is unknown, and a zero would drag down the averages
+        counterAggregator.incrementViews(id);
+    }
+    
+    /**
+     * Records a client's batch of view events. Events are summed per reel
+     * first, so a session that swiped past the same reel many times becomes
+     * a single counter update. Only events that report the time watched
+     * go to the watch time analytics.
+     * 
+     * @param events Up to {@link #MAX_VIEW_BATCH} events
+     * @return The number of events recorded
+     */
+    public int recordViews(List<ViewEventDTO> events) {
+        Map<Long, long[]> perReel = new HashMap<>();
+        List<WatchEvent> watchEvents = new ArrayList<>(events.size());
+        long now = System.currentTimeMillis();
+        int recorded = 0;
+        for (ViewEventDTO event : events) {
+            if (event == null || event.getReelId() == null) {
+                continue;
+            }
+            long watchedMs = event.getWatchedMs() == null ? 0 : Math.max(0, Math.min(event.getWatchedMs(), MAX_WATCHED_MS));
+            long[] totals = perReel.computeIfAbsent(event.getReelId(), id -> new long[2]);
+            totals[0]++;
+            totals[1] += watchedMs;
+            recorded++;
+            if (event.getWatchedMs() != null) {
+                watchEvents.add(new WatchEvent(event.getReelId(), now, (int) watchedMs));
+            }
+        }
+        // Buffered and flushed in batches; an unknown id simply updates no rows
+        perReel.forEach((reelId, totals) -> counterAggregator.addViews(reelId, totals[0], totals[1]));
+        // The raw events go to the analytics log in one append
+        if (!watchEvents.isEmpty()) {
+            watchStatsService.record(watchEvents);
+        }
+        return recorded;
+    }
+    
+    private void swapMedia(String oldUrl, String newUrl) {
+        if (!Objects.equals(oldUrl, newUrl)) {
+            mediaObjectService.retain(newUrl);
+            mediaObjectService.release(oldUrl);
         }
-        reelRepository.incrementViewsCount(id);
     }
     
+    /**
+     * Converts a batch of reels, resolving all authors with a single query
+     * instead of one lookup per reel.
+     *
+     * @param reels The reels to convert
+     * @return The converted reels, in the same order
+     */
+    private List<ReelDTO> convertToDTOs(List<Reel> reels) {
+        Map<Long, String> usernames = resolveUsernames(reels);
+        return reels.stream()
+                .map(reel -> convertToDTO(reel, usernames.getOrDefault(reel.getUserId(), "Unknown")))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, String> resolveUsernames(Collection<Reel> reels) {
+        Set<Long> userIds = reels.stream()
+                .map(Reel::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
     private ReelDTO convertToDTO(Reel reel, String username) {
+        return withPendingCounts(toDTO(reel, username));
+    }
+    
+    /**
+     * Builds a DTO with the counts as stored, without pending deltas
+     */
+    private ReelDTO toDTO(Reel reel, String username) {
         return ReelDTO.builder()
                 .id(reel.getId())
                 .userId(reel.getUserId())
@@ -186,6 +624,7 @@ public class ReelService {
                 .description(reel.getDescription())
                 .videoUrl(reel.getVideoUrl())
                 .thumbnailUrl(reel.getThumbnailUrl())
+                .hlsUrl(reel.getHlsUrl())
                 .durationMs(reel.getDurationMs())
                 .likesCount(reel.getLikesCount())
                 .viewsCount(reel.getViewsCount())
@@ -194,4 +633,47 @@ public class ReelService {
                 .updatedAt(reel.getUpdatedAt())
                 .build();
     }
-}
\ No newline at end of file
+    
+    private ReelDTO toDTO(ReelSummary reel, Long userId, String username) {
+        return ReelDTO.builder()
+                .id(reel.getId())
+                .userId(userId)
+                .username(username)
+                .title(reel.getTitle())
+                .description(reel.getDescription())
+                .videoUrl(reel.getVideoUrl())
+                .thumbnailUrl(reel.getThumbnailUrl())
+                .hlsUrl(reel.getHlsUrl())
+                .durationMs(reel.getDurationMs())
+                .likesCount(reel.getLikesCount() + (int) counterAggregator.getPendingLikes(reel.getId()))
+                .viewsCount(reel.getViewsCount() + (int) counterAggregator.getPendingViews(reel.getId()))
+                .isPrivate(reel.getIsPrivate())
+                .createdAt(reel.getCreatedAt())
+                .updatedAt(reel.getUpdatedAt())
+                .build();
+    }
+    
+    /**
+     * Sets {@code liked} on freshly built DTOs (never on cached ones), with one
+     * lookup for the whole list
+     */
+    private List<ReelDTO> withLikedFlags(List<ReelDTO> reels, Long viewerId) {
+        if (viewerId == null || reels.isEmpty()) {
+            return reels;
+        }
+        Set<Long> liked = likeService.likedAmong(viewerId,
+                reels.stream().map(ReelDTO::getId).collect(Collectors.toList()));
+        reels.forEach(reel -> reel.setLiked(liked.contains(reel.getId())));
+        return reels;
+    }
+    
+    private ReelDTO withPendingCounts(ReelDTO reel) {
+        // Overlay deltas that have not been flushed yet so counts never look stale
+        long pendingLikes = counterAggregator.getPendingLikes(reel.getId());
+        long pendingViews = counterAggregator.getPendingViews(reel.getId());
+        return reel.toBuilder()
+                .likesCount(reel.getLikesCount() + (int) pendingLikes)
+                .viewsCount(reel.getViewsCount() + (int) pendingViews)
+                .build();
+    }
+}
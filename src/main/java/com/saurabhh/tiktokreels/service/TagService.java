@@ -0,0 +1,261 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.BoundedCache;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.ReelTag;
+import com.saurabhh.tiktokreels.model.Tag;
+import com.saurabhh.tiktokreels.repository.ReelTagRepository;
+import com.saurabhh.tiktokreels.repository.TagRepository;
+import com.saurabhh.tiktokreels.repository.TaggedReel;
+import com.saurabhh.tiktokreels.search.TextAnalyzer;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Hashtags of public reels. Tags are parsed from the title and description
+ * when a reel is written and stored in tags/reel_tags. The newest reels of
+ * recently requested tags are also kept in memory, so most tag pages are
+ * served without a query; deeper pages seek over idx_reel_tags_feed.
+ */
+@Service
+public class TagService {
+    // Anything beyond this is treated as spam and ignored
+    private static final int MAX_TAGS_PER_REEL = 30;
+
+    private final TagRepository tagRepository;
+    private final ReelTagRepository reelTagRepository;
+    private final int feedSize;
+    private final BoundedCache<String, TagFeed> feeds;
+
+    public TagService(TagRepository tagRepository,
+                      ReelTagRepository reelTagRepository,
+                      @Value("${reels.tags.feed-size:500}") int feedSize,
+                      @Value("${reels.tags.cache.max-tags:10000}") int maxTags,
+                      @Value("${reels.tags.cache.ttl-ms:600000}") long ttlMs) {
+        this.tagRepository = tagRepository;
+        this.reelTagRepository = reelTagRepository;
+        this.feedSize = feedSize;
+        this.feeds = new BoundedCache<>(maxTags, ttlMs);
+    }
+
+    /**
+     * @return The tag in normalized form: lower case, without a leading '#'
+     */
+    public static String normalize(String tag) {
+        String name = tag.startsWith("#") ? tag.substring(1) : tag;
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Brings a reel's stored tags in line with its current text and
+     * privacy: private reels carry no tags. Only the first
+     * {@link #MAX_TAGS_PER_REEL} tags in the text count.
+     */
+    @Transactional
+    public void tagReel(Reel reel) {
+        Set<String> wanted = new LinkedHashSet<>();
+        if (!reel.isPrivate()) {
+            wanted.addAll(TextAnalyzer.hashtags(reel.getTitle()));
+            wanted.addAll(TextAnalyzer.hashtags(reel.getDescription()));
+        }
+        sync(reel, wanted.stream().limit(MAX_TAGS_PER_REEL).collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    /**
+     * Removes all of a reel's tags, e.g. because it is being deleted
+     */
+    @Transactional
+    public void untagReel(Reel reel) {
+        // sync consumes the set it is given
+        sync(reel, new LinkedHashSet<>());
+    }
+
+    /**
+     * @return The number of public reels with the tag, or empty if no reel ever had it
+     */
+    public Optional<Long> getReelCount(String tag) {
+        TagFeed feed = feeds.get(tag, this::loadFeed);
+        return feed == null ? Optional.empty() : Optional.of(feed.reelCount.get());
+    }
+
+    /**
+     * @param tag The normalized tag
+     * @param afterCreatedAt The creation time of the last reel on the previous page, or null for the first page
+     * @param afterReelId The id of the last reel on the previous page
+     * @param limit The number of entries to return
+     * @return Reels with the tag, newest first
+     */
+    public List<TaggedReel> getPage(String tag, Instant afterCreatedAt, Long afterReelId, int limit) {
+        TagFeed feed = feeds.get(tag, this::loadFeed);
+        if (feed == null) {
+            return List.of();
+        }
+        List<TaggedReel> page = feed.page(afterCreatedAt, afterReelId, limit);
+        if (page.size() == limit || feed.complete) {
+            return page;
+        }
+        // Past the part of the tag kept in memory
+        PageRequest pageRequest = PageRequest.of(0, limit);
+        return afterCreatedAt == null
+                ? reelTagRepository.findTagFirstPage(feed.tagId, pageRequest)
+                : reelTagRepository.findTagPageAfter(feed.tagId, afterCreatedAt, afterReelId, pageRequest);
+    }
+
+    /**
+     * @param wanted The tags the reel should have; emptied down to the ones that were added
+     */
+    private void sync(Reel reel, Set<String> wanted) {
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Tag current : tagRepository.findByReelId(reel.getId())) {
+            if (!wanted.remove(current.getName())) {
+                reelTagRepository.deleteTag(current.getId(), reel.getId());
+                tagRepository.adjustReelCount(current.getId(), -1);
+                removed.add(current.getName());
+            }
+        }
+        // What is left in wanted is new
+        for (String name : wanted) {
+            tagRepository.insertIfAbsent(name);
+            // Locking read: the tag may have been committed by another transaction after our snapshot
+            Long tagId = tagRepository.findIdByNameForShare(name)
+                    .orElseThrow(() -> new IllegalStateException("Tag vanished after insert: " + name));
+            reelTagRepository.save(new ReelTag(tagId, reel.getId(), reel.getCreatedAt()));
+            tagRepository.adjustReelCount(tagId, 1);
+            added.add(name);
+        }
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        Entry entry = new Entry(reel.getId(), reel.getCreatedAt());
+        afterCommit(() -> {
+            added.forEach(name -> updateFeed(name, feed -> feed.add(entry, feedSize)));
+            removed.forEach(name -> updateFeed(name, feed -> feed.remove(entry)));
+        });
+    }
+
+    private void updateFeed(String tag, Consumer<TagFeed> change) {
+        TagFeed feed = feeds.getIfPresent(tag);
+        if (feed != null) {
+            change.accept(feed);
+        } else {
+            // Keeps a load that started before this commit from caching an outdated feed
+            feeds.invalidate(tag);
+        }
+    }
+
+    private TagFeed loadFeed(String tag) {
+        return tagRepository.findByName(tag)
+                .map(found -> {
+                    TagFeed feed = new TagFeed(found.getId(), found.getReelCount());
+                    List<TaggedReel> newest = reelTagRepository.findTagFirstPage(found.getId(), PageRequest.of(0, feedSize));
+                    newest.forEach(row -> feed.entries.add(new Entry(row.getReelId(), row.getCreatedAt())));
+                    feed.complete = newest.size() < feedSize;
+                    return feed;
+                })
+                .orElse(null);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The newest reels of one tag. Complete if it holds every reel of the
+     * tag; otherwise only the head, and pages past it go to the database.
+     */
+    private static final class TagFeed {
+        final Long tagId;
+        final AtomicLong reelCount;
+        final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(Entry.NEWEST_FIRST);
+        volatile boolean complete;
+
+        TagFeed(Long tagId, long reelCount) {
+            this.tagId = tagId;
+            this.reelCount = new AtomicLong(reelCount);
+        }
+
+        List<TaggedReel> page(Instant afterCreatedAt, Long afterReelId, int limit) {
+            Set<Entry> tail = afterCreatedAt == null
+                    ? entries
+                    : entries.tailSet(new Entry(afterReelId, afterCreatedAt), false);
+            List<TaggedReel> page = new ArrayList<>(limit);
+            for (Entry entry : tail) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(entry);
+            }
+            return page;
+        }
+
+        void add(Entry entry, int maxSize) {
+            if (entries.add(entry)) {
+                reelCount.incrementAndGet();
+            }
+            while (entries.size() > maxSize) {
+                entries.pollLast();
+                complete = false;
+            }
+        }
+
+        void remove(Entry entry) {
+            // Absent from the head either because it is older than the head, or because
+            // the feed was loaded after the removal committed and already counts it out
+            boolean beyondHead = !complete && !entries.isEmpty() && Entry.NEWEST_FIRST.compare(entry, entries.last()) > 0;
+            if (entries.remove(entry) || beyondHead) {
+                reelCount.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry implements TaggedReel {
+        static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing(Entry::getCreatedAt).reversed()
+                .thenComparing(Entry::getReelId, Comparator.reverseOrder());
+
+        private final Long reelId;
+        private final Instant createdAt;
+
+        Entry(Long reelId, Instant createdAt) {
+            this.reelId = reelId;
+            this.createdAt = createdAt;
+        }
+
+        @Override
+        public Long getReelId() {
+            return reelId;
+        }
+
+        @Override
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
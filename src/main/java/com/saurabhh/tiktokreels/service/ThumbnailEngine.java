@@ -0,0 +1,331 @@
+package com.saurabhh.tiktokreels.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces JPEG thumbnails in several widths from the first keyframe of a video.
+ * Frames are decoded by a local ffmpeg process into a PPM pipe that is read
+ * straight into pooled image buffers; scaling and encoding run on a bounded
+ * CPU-sized worker pool so concurrent uploads do not pile up garbage.
+ */
+@Component
+@Slf4j
+public class ThumbnailEngine {
+    // Pooled sizes per output width: one for each aspect ratio in common use
+    private static final int POOLED_HEIGHTS_PER_WIDTH = 4;
+
+    private final String ffmpegPath;
+    private final long decodeTimeoutMs;
+    private final Set<Integer> supportedWidths;
+    private final ThreadPoolExecutor workers;
+    // Kills ffmpeg runs that outlive the decode timeout, which unblocks the worker reading the pipe
+    private final ScheduledThreadPoolExecutor watchdog;
+    // Reusable frames and canvases, keyed by dimensions; only output widths are pooled
+    private final ConcurrentHashMap<Long, ArrayBlockingQueue<BufferedImage>> imagePool = new ConcurrentHashMap<>();
+    private final int poolSizePerDimension;
+    private final int maxPooledDimensions;
+    private final ThreadLocal<ByteArrayOutputStream> encodeBuffer =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(128 * 1024));
+
+    public ThumbnailEngine(@Value("${reels.thumbnails.ffmpeg-path:ffmpeg}") String ffmpegPath,
+                           @Value("${reels.thumbnails.widths:320,640,1280}") List<Integer> widths,
+                           @Value("${reels.thumbnails.workers:0}") int workers,
+                           @Value("${reels.thumbnails.decode-timeout-ms:10000}") long decodeTimeoutMs) {
+        this.ffmpegPath = ffmpegPath;
+        this.decodeTimeoutMs = decodeTimeoutMs;
+        this.supportedWidths = Collections.unmodifiableSet(new TreeSet<>(widths));
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.poolSizePerDimension = threads + 1;
+        this.maxPooledDimensions = supportedWidths.size() * POOLED_HEIGHTS_PER_WIDTH;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Callers run the work themselves once the queue is full, which throttles them
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    public Set<Integer> getSupportedWidths() {
+        return supportedWidths;
+    }
+
+    /**
+     * Decodes the first keyframe of a video and encodes it at each requested width
+     *
+     * @param video The video file
+     * @param widths The thumbnail widths to produce; each must be supported
+     * @return JPEG bytes by width, or empty if the video could not be decoded
+     */
+    public Optional<Map<Integer, byte[]>> fromVideo(Path video, List<Integer> widths) {
+        checkWidths(widths);
+        if (video == null) {
+            return Optional.empty();
+        }
+        return call(() -> {
+            BufferedImage frame = decodeFirstFrame(video, Collections.max(widths));
+            if (frame == null) {
+                return null;
+            }
+            try {
+                return scaleAndEncode(frame, widths);
+            } finally {
+                release(frame);
+            }
+        });
+    }
+
+    /**
+     * Encodes an already rendered image at each requested width
+     *
+     * @param image The source image; released to the pool afterwards if it was borrowed
+     * @param widths The thumbnail widths to produce; each must be supported
+     * @return JPEG bytes by width
+     */
+    public Map<Integer, byte[]> fromImage(BufferedImage image, List<Integer> widths) {
+        checkWidths(widths);
+        Optional<Map<Integer, byte[]>> encoded = call(() -> {
+            try {
+                return scaleAndEncode(image, widths);
+            } finally {
+                release(image);
+            }
+        });
+        return encoded.orElse(Collections.emptyMap());
+    }
+
+    /**
+     * Borrows an RGB image from the pool; its previous contents are undefined
+     */
+    public BufferedImage borrow(int width, int height) {
+        ArrayBlockingQueue<BufferedImage> pool = imagePool.get(key(width, height));
+        BufferedImage image = pool == null ? null : pool.poll();
+        return image != null ? image : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Returns an image to the pool. Sizes depend on each video's aspect
+     * ratio, so only the first few sizes seen at each output width are
+     * pooled; anything else is left to the garbage collector.
+     */
+    public void release(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB || !supportedWidths.contains(image.getWidth())) {
+            return;
+        }
+        long key = key(image.getWidth(), image.getHeight());
+        ArrayBlockingQueue<BufferedImage> pool = imagePool.get(key);
+        if (pool == null) {
+            if (imagePool.size() >= maxPooledDimensions) {
+                return;
+            }
+            pool = imagePool.computeIfAbsent(key, k -> new ArrayBlockingQueue<>(poolSizePerDimension));
+        }
+        pool.offer(image);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        watchdog.shutdownNow();
+    }
+
+    private Optional<Map<Integer, byte[]>> call(Callable<Map<Integer, byte[]>> task) {
+        Future<Map<Integer, byte[]>> result = workers.submit(task);
+        try {
+            return Optional.ofNullable(result.get());
+        } catch (ExecutionException e) {
+            log.error("Thumbnail generation failed: {}", e.getCause().getMessage());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            return Optional.empty();
+        }
+    }
+
+    private Map<Integer, byte[]> scaleAndEncode(BufferedImage source, List<Integer> widths) throws IOException {
+        Map<Integer, byte[]> thumbnails = new LinkedHashMap<>();
+        for (int width : widths) {
+            if (width == source.getWidth()) {
+                thumbnails.put(width, encode(source));
+                continue;
+            }
+            // Keep the aspect ratio, rounded to an even height
+            int height = Math.max(2, (int) Math.round((double) source.getHeight() * width / source.getWidth() / 2) * 2);
+            BufferedImage scaled = borrow(width, height);
+            try {
+                Graphics2D g = scaled.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(source, 0, 0, width, height, null);
+                g.dispose();
+                thumbnails.put(width, encode(scaled));
+            } finally {
+                release(scaled);
+            }
+        }
+        return thumbnails;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = encodeBuffer.get();
+        out.reset();
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Runs ffmpeg to decode the first frame, scaled down to at most {@code maxWidth}
+     *
+     * @return A pooled frame, or null if ffmpeg is unavailable or the file is not a video
+     */
+    private BufferedImage decodeFirstFrame(Path video, int maxWidth) {
+        Process process;
+        try {
+            process = new ProcessBuilder(ffmpegPath, "-v", "error", "-nostdin",
+                    "-i", video.toAbsolutePath().toString(),
+                    "-frames:v", "1",
+                    "-vf", "scale='min(" + maxWidth + ",iw)':-2",
+                    "-f", "image2pipe", "-vcodec", "ppm", "-")
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        } catch (IOException e) {
+            log.debug("ffmpeg not available at {}: {}", ffmpegPath, e.getMessage());
+            return null;
+        }
+
+        // Reading the pipe blocks for as long as ffmpeg runs, so the timeout is enforced by killing it
+        ScheduledFuture<?> timeout = watchdog.schedule(process::destroyForcibly, decodeTimeoutMs, TimeUnit.MILLISECONDS);
+        try (InputStream in = new BufferedInputStream(process.getInputStream(), 64 * 1024)) {
+            BufferedImage frame = readPpm(in);
+            if (timeout.isDone() || !process.waitFor(decodeTimeoutMs, TimeUnit.MILLISECONDS)
+                    || process.exitValue() != 0) {
+                if (frame != null) {
+                    release(frame);
+                }
+                return null;
+            }
+            return frame;
+        } catch (IOException e) {
+            log.debug("Could not decode a frame from {}: {}", video, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            timeout.cancel(false);
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Reads a binary PPM (P6, 8-bit) image into a pooled RGB buffer
+     *
+     * @return The frame, or null if the stream is empty
+     */
+    private BufferedImage readPpm(InputStream in) throws IOException {
+        String magic = readToken(in);
+        if (magic == null) {
+            return null;
+        }
+        if (!magic.equals("P6")) {
+            throw new IOException("Unexpected frame format " + magic);
+        }
+        int width = Integer.parseInt(readToken(in));
+        int height = Integer.parseInt(readToken(in));
+        if (Integer.parseInt(readToken(in)) != 255) {
+            throw new IOException("Unsupported PPM depth");
+        }
+
+        BufferedImage frame = borrow(width, height);
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[width * 3];
+        for (int y = 0; y < height; y++) {
+            readFully(in, row);
+            int offset = y * width;
+            for (int x = 0, i = 0; x < width; x++, i += 3) {
+                pixels[offset + x] = (row[i] & 0xff) << 16 | (row[i + 1] & 0xff) << 8 | (row[i + 2] & 0xff);
+            }
+        }
+        return frame;
+    }
+
+    private static String readToken(InputStream in) throws IOException {
+        StringBuilder token = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (Character.isWhitespace(c)) {
+                if (token.length() > 0) {
+                    return token.toString();
+                }
+            } else {
+                token.append((char) c);
+            }
+        }
+        return token.length() > 0 ? token.toString() : null;
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated frame");
+            }
+            read += n;
+        }
+    }
+
+    private void checkWidths(List<Integer> widths) {
+        if (widths.isEmpty() || !supportedWidths.containsAll(widths)) {
+            throw new IllegalArgumentException("Unsupported thumbnail width(s) " + widths
+                    + ", supported: " + supportedWidths);
+        }
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | height;
+    }
+}
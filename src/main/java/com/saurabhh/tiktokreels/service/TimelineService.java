@@ -0,0 +1,234 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.BoundedCache;
+import com.saurabhh.tiktokreels.cache.TimelineBuffer;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.FollowRepository;
+import com.saurabhh.tiktokreels.repository.ReelKey;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Home timelines: the public reels of the people a user follows, and their
+ * own. A new reel is pushed into the in-memory timeline of every follower
+ * that has one (fan-out on write), so a home page is read straight from the
+ * buffer. Authors with many followers are not fanned out; their newest reels
+ * are kept once and merged in when a follower reads (fan-in on read).
+ * Timelines that are not in memory are rebuilt from the follow graph on the
+ * next read, and pages past the buffered head are read from the database.
+ * Memory is bounded by the total number of buffered entries, not by users.
+ */
+@Service
+public class TimelineService {
+    private static final int FAN_OUT_BATCH = 1000;
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final ReelRepository reelRepository;
+    private final int timelineSize;
+    private final int celebrityFollowers;
+    private final BoundedCache<Long, HomeTimeline> timelines;
+    private final BoundedCache<Long, TimelineBuffer> celebrityReels;
+
+    public TimelineService(FollowRepository followRepository,
+                           UserRepository userRepository,
+                           ReelRepository reelRepository,
+                           @Value("${reels.timeline.size:200}") int timelineSize,
+                           @Value("${reels.timeline.celebrity-followers:10000}") int celebrityFollowers,
+                           @Value("${reels.timeline.cache.max-entries:1000000}") int maxEntries,
+                           @Value("${reels.timeline.cache.max-celebrities:1000}") int maxCelebrities,
+                           @Value("${reels.timeline.cache.ttl-ms:900000}") long ttlMs) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.reelRepository = reelRepository;
+        this.timelineSize = timelineSize;
+        this.celebrityFollowers = celebrityFollowers;
+        // Every buffer holds up to timelineSize entries; celebrity buffers come out of the same budget
+        int maxBuffers = Math.max(2, maxEntries / timelineSize);
+        int celebrityBuffers = Math.max(1, Math.min(maxCelebrities, maxBuffers / 2));
+        this.timelines = new BoundedCache<>(maxBuffers - celebrityBuffers, ttlMs);
+        this.celebrityReels = new BoundedCache<>(celebrityBuffers, ttlMs);
+    }
+
+    /**
+     * Delivers a new reel to its author's followers once the transaction commits
+     *
+     * @param reel The saved reel; private reels are not delivered
+     * @param author Its author, whose follower count picks fan-out or fan-in
+     */
+    public void publish(Reel reel, User author) {
+        if (reel.isPrivate()) {
+            return;
+        }
+        Long reelId = reel.getId();
+        Instant createdAt = reel.getCreatedAt();
+        boolean celebrity = author.getFollowersCount() >= celebrityFollowers;
+        afterCommit(() -> {
+            // Authors always see their own reels, even when they are not fanned out
+            push(author.getId(), reelId, createdAt);
+            if (celebrity) {
+                TimelineBuffer reels = celebrityReels.getIfPresent(author.getId());
+                if (reels != null) {
+                    reels.add(reelId, createdAt);
+                } else {
+                    celebrityReels.invalidate(author.getId());
+                }
+                return;
+            }
+            List<Long> followers = followRepository.findFollowerIdsAfter(author.getId(), 0L, PageRequest.of(0, FAN_OUT_BATCH));
+            while (!followers.isEmpty()) {
+                followers.forEach(follower -> push(follower, reelId, createdAt));
+                Long last = followers.get(followers.size() - 1);
+                followers = followRepository.findFollowerIdsAfter(author.getId(), last, PageRequest.of(0, FAN_OUT_BATCH));
+            }
+        });
+    }
+
+    /**
+     * Drops a user's timeline, e.g. because they followed or unfollowed
+     * someone; it is rebuilt on their next read
+     */
+    public void invalidate(Long userId) {
+        afterCommit(() -> timelines.invalidate(userId));
+    }
+
+    /**
+     * Cached timelines record which followees were celebrities when they
+     * were built. When an author crosses the celebrity threshold their
+     * followers' timelines are dropped once the transaction commits, so new
+     * reels are neither lost nor read twice.
+     *
+     * @param authorId The user whose follower count changed
+     * @param previousCount Their follower count before the change
+     * @param count Their follower count now
+     */
+    public void followersChanged(Long authorId, long previousCount, long count) {
+        if ((previousCount >= celebrityFollowers) == (count >= celebrityFollowers)) {
+            return;
+        }
+        afterCommit(() -> {
+            celebrityReels.invalidate(authorId);
+            List<Long> followers = followRepository.findFollowerIdsAfter(authorId, 0L, PageRequest.of(0, FAN_OUT_BATCH));
+            while (!followers.isEmpty()) {
+                followers.forEach(timelines::invalidate);
+                Long last = followers.get(followers.size() - 1);
+                followers = followRepository.findFollowerIdsAfter(authorId, last, PageRequest.of(0, FAN_OUT_BATCH));
+            }
+        });
+    }
+
+    /**
+     * @param userId The reader
+     * @param afterCreatedAt The creation time of the last reel on the previous page, or null for the first page
+     * @param afterReelId The id of the last reel on the previous page
+     * @param limit The number of entries to return
+     * @return Reels on the user's home timeline, newest first
+     */
+    public List<TimelineBuffer.Entry> getPage(Long userId, Instant afterCreatedAt, Long afterReelId, int limit) {
+        HomeTimeline home = timelines.get(userId, this::loadTimeline);
+
+        List<TimelineBuffer.Entry> merged = new ArrayList<>();
+        boolean exact = collect(home.pushed, afterCreatedAt, afterReelId, limit, merged);
+        for (Long celebrity : home.celebrityIds) {
+            TimelineBuffer reels = celebrityReels.get(celebrity, this::loadCelebrityReels);
+            exact &= collect(reels, afterCreatedAt, afterReelId, limit, merged);
+        }
+        if (exact) {
+            merged.sort(TimelineBuffer.Entry.NEWEST_FIRST);
+            return merged.size() > limit ? merged.subList(0, limit) : merged;
+        }
+
+        // Past the part of some source kept in memory
+        PageRequest pageRequest = PageRequest.of(0, limit);
+        List<ReelKey> rows = afterCreatedAt == null
+                ? reelRepository.findHomeFeedFirstPage(userId, pageRequest)
+                : reelRepository.findHomeFeedPageAfter(userId, afterCreatedAt, afterReelId, pageRequest);
+        return rows.stream()
+                .map(row -> new TimelineBuffer.Entry(row.getId(), row.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Adds one source's share of the page to merged
+     *
+     * @return false if the source may have entries for this page that it does not hold
+     */
+    private static boolean collect(TimelineBuffer source, Instant afterCreatedAt, Long afterReelId, int limit,
+                                   List<TimelineBuffer.Entry> merged) {
+        List<TimelineBuffer.Entry> page = source.page(afterCreatedAt, afterReelId, limit);
+        merged.addAll(page);
+        return page.size() == limit || source.isComplete();
+    }
+
+    private void push(Long userId, Long reelId, Instant createdAt) {
+        HomeTimeline home = timelines.getIfPresent(userId);
+        if (home != null) {
+            home.pushed.add(reelId, createdAt);
+        } else {
+            // Keeps a load that started before this commit from caching a timeline without the reel
+            timelines.invalidate(userId);
+        }
+    }
+
+    private HomeTimeline loadTimeline(Long userId) {
+        List<Long> followees = followRepository.findFolloweeIds(userId);
+        Set<Long> celebrities = followees.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findIdsWithFollowersAtLeast(followees, celebrityFollowers));
+        List<Long> authors = new ArrayList<>(followees.size() + 1);
+        authors.add(userId);
+        followees.stream().filter(id -> !celebrities.contains(id)).forEach(authors::add);
+        return new HomeTimeline(load(authors), List.copyOf(celebrities));
+    }
+
+    private TimelineBuffer loadCelebrityReels(Long authorId) {
+        return load(List.of(authorId));
+    }
+
+    private TimelineBuffer load(List<Long> authors) {
+        List<ReelKey> newest = reelRepository.findNewestPublicKeys(authors, PageRequest.of(0, timelineSize));
+        TimelineBuffer buffer = new TimelineBuffer(timelineSize, newest.size() < timelineSize);
+        newest.forEach(row -> buffer.add(row.getId(), row.getCreatedAt()));
+        return buffer;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Reels pushed to one reader, and the celebrities whose reels are
+     * merged in when they read
+     */
+    private static final class HomeTimeline {
+        final TimelineBuffer pushed;
+        final List<Long> celebrityIds;
+
+        HomeTimeline(TimelineBuffer pushed, List<Long> celebrityIds) {
+            this.pushed = pushed;
+            this.celebrityIds = celebrityIds;
+        }
+    }
+}
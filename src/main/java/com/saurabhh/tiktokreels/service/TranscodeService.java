@@ -0,0 +1,436 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Adaptive bitrate output for uploaded videos. ffprobe reads the duration
+ * and size up front; afterwards a bounded worker pool runs one ffmpeg
+ * process per worker to cut a 240p/480p/720p ladder into HLS segments with
+ * a short first segment, so playback starts after a few hundred kilobytes
+ * instead of the whole upload. Until the ladder is done, and whenever
+ * transcoding is not possible, reels play the original file.
+ */
+@Service
+@Slf4j
+public class TranscodeService {
+    // Renditions above the source's own size are skipped, except the lowest
+    static final List<Rendition> LADDER = List.of(
+            new Rendition("240p", 240, 400),
+            new Rendition("480p", 480, 1200),
+            new Rendition("720p", 720, 2800));
+    private static final int AUDIO_KBPS = 96;
+    private static final int SEGMENT_SECONDS = 4;
+    private static final int FIRST_SEGMENT_SECONDS = 1;
+    private static final String SEGMENT_PATTERN = "seg_%03d.ts";
+
+    private final FileStorageService fileStorageService;
+    private final ReelRepository reelRepository;
+    private final ReelCache reelCache;
+    private final String ffmpegPath;
+    private final String ffprobePath;
+    private final long probeTimeoutMs;
+    private final long transcodeTimeoutMs;
+    private final ThreadPoolExecutor workers;
+    // Videos with a transcode queued or running, by content hash directory
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    public TranscodeService(FileStorageService fileStorageService,
+                            ReelRepository reelRepository,
+                            ReelCache reelCache,
+                            @Value("${reels.transcode.ffmpeg-path:ffmpeg}") String ffmpegPath,
+                            @Value("${reels.transcode.ffprobe-path:ffprobe}") String ffprobePath,
+                            @Value("${reels.transcode.workers:0}") int workers,
+                            @Value("${reels.transcode.queue-capacity:64}") int queueCapacity,
+                            @Value("${reels.transcode.probe-timeout-ms:10000}") long probeTimeoutMs,
+                            @Value("${reels.transcode.timeout-ms:600000}") long transcodeTimeoutMs) {
+        this.fileStorageService = fileStorageService;
+        this.reelRepository = reelRepository;
+        this.reelCache = reelCache;
+        this.ffmpegPath = ffmpegPath;
+        this.ffprobePath = ffprobePath;
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.transcodeTimeoutMs = transcodeTimeoutMs;
+        // Each worker runs one single-threaded ffmpeg at a time, so processes never outnumber cores
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transcode-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Reads the duration and display size of a video with ffprobe
+     *
+     * @return The probe, or empty if ffprobe is unavailable or the file is not a video
+     */
+    public Optional<Probe> probe(Path video) {
+        if (video == null) {
+            return Optional.empty();
+        }
+        List<String> command = List.of(ffprobePath, "-v", "error",
+                "-select_streams", "v:0",
+                "-show_entries", "stream=width,height:stream_tags=rotate:stream_side_data=rotation:format=duration",
+                "-of", "default=noprint_wrappers=1",
+                video.toAbsolutePath().toString());
+        return capture(command, probeTimeoutMs).map(TranscodeService::parseProbe);
+    }
+
+    /**
+     * Queues the HLS ladder for a stored video. Every reel with that video
+     * gets its hlsUrl once the ladder is complete; a video that was already
+     * transcoded is filled in right away.
+     *
+     * @param videoUrl The reel's video URL; external URLs are ignored
+     */
+    public void submit(String videoUrl) {
+        Path directory = fileStorageService.hlsDirectoryOf(videoUrl).orElse(null);
+        Path video = fileStorageService.findByUrl(videoUrl).orElse(null);
+        if (directory == null || video == null) {
+            return;
+        }
+        // Checked before inFlight: a finished job publishes the directory before releasing its claim
+        if (Files.isDirectory(directory)) {
+            publish(videoUrl);
+            return;
+        }
+        if (!inFlight.add(directory)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    transcode(video, directory);
+                    publish(videoUrl);
+                } catch (Exception e) {
+                    // The reel keeps playing the original file
+                    log.warn("Transcoding {} failed: {}", videoUrl, e.getMessage());
+                } finally {
+                    inFlight.remove(directory);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(directory);
+            log.warn("Transcode queue is full, {} will only be served as uploaded", videoUrl);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Encodes every rendition into a scratch directory and moves it into
+     * place in one step, so readers never see a partial ladder
+     */
+    private void transcode(Path video, Path directory) throws IOException {
+        Probe probe = probe(video).orElseThrow(() -> new IOException("Not a readable video"));
+        if (probe.getWidth() == 0 || probe.getHeight() == 0) {
+            throw new IOException("No video stream");
+        }
+        List<Rendition> ladder = ladderFor(probe.getWidth(), probe.getHeight());
+
+        Path scratch = directory.resolveSibling(directory.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            for (Rendition rendition : ladder) {
+                Path output = Files.createDirectories(scratch.resolve(rendition.name));
+                if (!run(encodeCommand(video, rendition, probe, output), transcodeTimeoutMs)) {
+                    throw new IOException("ffmpeg failed on the " + rendition.name + " rendition");
+                }
+            }
+            Files.writeString(scratch.resolve("master.m3u8"), masterPlaylist(ladder, probe.getWidth(), probe.getHeight()));
+            Files.createDirectories(directory.getParent());
+            try {
+                Files.move(scratch, directory, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                if (!Files.isDirectory(directory)) {
+                    throw e;
+                }
+                // Another node, or an earlier run, got there first with the same content
+                log.debug("HLS output for {} already exists", directory);
+            }
+        } finally {
+            deleteRecursively(scratch);
+        }
+    }
+
+    private List<String> encodeCommand(Path video, Rendition rendition, Probe probe, Path output) {
+        // Scale the shorter side, so portrait reels get the same quality as landscape ones
+        int shortSide = rendition.scaledShortSide(probe.getWidth(), probe.getHeight());
+        String scale = probe.getWidth() >= probe.getHeight()
+                ? "scale=-2:" + shortSide
+                : "scale=" + shortSide + ":-2";
+        return List.of(ffmpegPath, "-v", "error", "-nostdin", "-y",
+                "-i", video.toAbsolutePath().toString(),
+                "-map", "0:v:0", "-map", "0:a:0?",
+                "-vf", scale,
+                "-c:v", "libx264", "-preset", "veryfast", "-profile:v", "main", "-threads", "1",
+                "-b:v", rendition.videoKbps + "k",
+                "-maxrate", rendition.videoKbps * 107 / 100 + "k",
+                "-bufsize", rendition.videoKbps * 3 / 2 + "k",
+                // A keyframe every second lets the first segment be cut after one second
+                "-force_key_frames", "expr:gte(t,n_forced*1)", "-sc_threshold", "0",
+                "-c:a", "aac", "-b:a", AUDIO_KBPS + "k", "-ac", "2",
+                "-f", "hls", "-hls_playlist_type", "vod",
+                "-hls_init_time", String.valueOf(FIRST_SEGMENT_SECONDS),
+                "-hls_time", String.valueOf(SEGMENT_SECONDS),
+                "-hls_segment_filename", output.resolve(SEGMENT_PATTERN).toString(),
+                output.resolve("index.m3u8").toString());
+    }
+
+    private void publish(String videoUrl) {
+        String hlsUrl = fileStorageService.hlsUrlOf(videoUrl).orElseThrow();
+        List<Long> reelIds = reelRepository.findIdsWithoutHls(videoUrl);
+        if (!reelIds.isEmpty()) {
+            reelRepository.fillHlsUrl(videoUrl, hlsUrl);
+            reelIds.forEach(reelCache::invalidate);
+        }
+    }
+
+    /**
+     * Runs a process that writes its results to files
+     *
+     * @return false if it could not start, failed or timed out
+     */
+    private boolean run(List<String> command, long timeoutMs) {
+        Process process = start(command, ProcessBuilder.Redirect.DISCARD);
+        if (process == null) {
+            return false;
+        }
+        try {
+            return process.waitFor(timeoutMs, TimeUnit.MILLISECONDS) && process.exitValue() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Runs a process with a short output, such as ffprobe. The output goes
+     * to a temporary file rather than a pipe, so waiting on the process is
+     * what blocks and the timeout applies.
+     *
+     * @return Its standard output, or empty if it could not start, failed or timed out
+     */
+    private Optional<String> capture(List<String> command, long timeoutMs) {
+        Path output;
+        try {
+            output = Files.createTempFile("capture-", ".out");
+        } catch (IOException e) {
+            log.warn("Could not create a file for the output of {}: {}", command.get(0), e.getMessage());
+            return Optional.empty();
+        }
+        Process process = start(command, ProcessBuilder.Redirect.to(output.toFile()));
+        try {
+            if (process == null
+                    || !process.waitFor(timeoutMs, TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+                return Optional.empty();
+            }
+            return Optional.of(Files.readString(output, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException e) {
+                log.debug("Could not delete {}: {}", output, e.getMessage());
+            }
+        }
+    }
+
+    private Process start(List<String> command, ProcessBuilder.Redirect output) {
+        try {
+            return new ProcessBuilder(command)
+                    .redirectOutput(output)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        } catch (IOException e) {
+            log.debug("{} not available: {}", command.get(0), e.getMessage());
+            return null;
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Parses ffprobe's key=value output. Phones often store portrait video
+     * as landscape frames with a rotation, which ffmpeg applies when encoding,
+     * so the reported size is swapped to match.
+     */
+    static Probe parseProbe(String output) {
+        long durationMs = 0;
+        int width = 0;
+        int height = 0;
+        int rotation = 0;
+        for (String line : output.split("\\R")) {
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = line.substring(0, eq).trim();
+            String value = line.substring(eq + 1).trim();
+            try {
+                if (key.equals("duration")) {
+                    durationMs = Math.round(Double.parseDouble(value) * 1000);
+                } else if (key.equals("width")) {
+                    width = Integer.parseInt(value);
+                } else if (key.equals("height")) {
+                    height = Integer.parseInt(value);
+                } else if (key.equals("rotation") || key.equals("TAG:rotate")) {
+                    rotation = (int) Double.parseDouble(value);
+                }
+            } catch (NumberFormatException e) {
+                // "N/A" for streams that do not report a value
+            }
+        }
+        if (Math.abs(rotation) % 180 == 90) {
+            return new Probe(durationMs, height, width);
+        }
+        return new Probe(durationMs, width, height);
+    }
+
+    /**
+     * @return The renditions worth producing for a source of this size, lowest first
+     */
+    static List<Rendition> ladderFor(int width, int height) {
+        int shortSide = Math.min(width, height);
+        List<Rendition> ladder = new ArrayList<>();
+        for (Rendition rendition : LADDER) {
+            if (ladder.isEmpty() || rendition.shortSide <= shortSide) {
+                ladder.add(rendition);
+            }
+        }
+        return ladder;
+    }
+
+    /**
+     * Players start with the first variant of the master playlist, which is
+     * the lowest rendition, so its first segment is what they fetch first
+     *
+     * @param hlsUrl The URL of a master playlist
+     * @return The URL of that segment
+     */
+    static String firstSegmentUrl(String hlsUrl) {
+        return hlsUrl.substring(0, hlsUrl.lastIndexOf('/') + 1)
+                + LADDER.get(0).name + "/" + String.format(SEGMENT_PATTERN, 0);
+    }
+
+    static String masterPlaylist(List<Rendition> ladder, int width, int height) {
+        StringBuilder playlist = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+        for (Rendition rendition : ladder) {
+            int[] size = rendition.outputSize(width, height);
+            long bandwidth = (rendition.videoKbps * 107L / 100 + AUDIO_KBPS) * 1000;
+            playlist.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(bandwidth)
+                    .append(",RESOLUTION=").append(size[0]).append('x').append(size[1])
+                    .append(",CODECS=\"avc1.4d401f,mp4a.40.2\"\n")
+                    .append(rendition.name).append("/index.m3u8\n");
+        }
+        return playlist.toString();
+    }
+
+    /**
+     * What ffprobe reported about a video; the size is as displayed
+     */
+    public static final class Probe {
+        private final long durationMs;
+        private final int width;
+        private final int height;
+
+        Probe(long durationMs, int width, int height) {
+            this.durationMs = durationMs;
+            this.width = width;
+            this.height = height;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    static final class Rendition {
+        final String name;
+        final int shortSide;
+        final int videoKbps;
+
+        Rendition(String name, int shortSide, int videoKbps) {
+            this.name = name;
+            this.shortSide = shortSide;
+            this.videoKbps = videoKbps;
+        }
+
+        /**
+         * @return Width and height after scaling the shorter side, rounded to even like ffmpeg's -2
+         */
+        int[] outputSize(int width, int height) {
+            int side = scaledShortSide(width, height);
+            if (width >= height) {
+                return new int[] {evenRound((double) width * side / height), side};
+            }
+            return new int[] {side, evenRound((double) height * side / width)};
+        }
+
+        /**
+         * @return The shorter side after scaling, rounded down to even since libx264 rejects odd sizes
+         */
+        int scaledShortSide(int width, int height) {
+            return Math.max(2, Math.min(shortSide, Math.min(width, height)) & ~1);
+        }
+
+        private static int evenRound(double value) {
+            return Math.max(2, (int) Math.round(value / 2) * 2);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.TrendingSeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Ranks reels by recent engagement. Scores use forward decay: each like or
+ * view is weighted by {@code e^(lambda * (t - landmark))} when it arrives, so newer
+ * activity counts for more without ever touching stored scores as time
+ * passes. Scores are fed from committed counter flushes, off the like and
+ * view request path, and the top reels are read straight from a skip list.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+    // Beyond this exponent the landmark is moved forward and all scores rescaled
+    private static final double MAX_EXPONENT = 50;
+
+    private final ReelRepository reelRepository;
+    private final double viewWeight;
+    private final double likeWeight;
+    private final double lambdaPerMs;
+    private final int maxTracked;
+    private final LongSupplier clock;
+
+    // Written by one updater at a time (synchronized); read lock-free
+    private final Map<Long, Double> scores = new HashMap<>();
+    private volatile ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(Ranked.ORDER);
+    private long landmark;
+
+    public TrendingService(ReelRepository reelRepository,
+                           @Value("${reels.trending.view-weight:1}") double viewWeight,
+                           @Value("${reels.trending.like-weight:5}") double likeWeight,
+                           @Value("${reels.trending.half-life-ms:21600000}") long halfLifeMs,
+                           @Value("${reels.trending.max-tracked:10000}") int maxTracked) {
+        this(reelRepository, viewWeight, likeWeight, halfLifeMs, maxTracked, System::currentTimeMillis);
+    }
+
+    TrendingService(ReelRepository reelRepository, double viewWeight, double likeWeight, long halfLifeMs,
+                    int maxTracked, LongSupplier clock) {
+        this.reelRepository = reelRepository;
+        this.viewWeight = viewWeight;
+        this.likeWeight = likeWeight;
+        this.lambdaPerMs = Math.log(2) / halfLifeMs;
+        this.maxTracked = maxTracked;
+        this.clock = clock;
+        this.landmark = clock.getAsLong();
+    }
+
+    /**
+     * @param k The number of reels to return
+     * @return Up to k reel ids, highest score first
+     */
+    public List<Long> top(int k) {
+        List<Long> ids = new ArrayList<>(k);
+        Iterator<Ranked> iterator = ranking.iterator();
+        while (ids.size() < k && iterator.hasNext()) {
+            ids.add(iterator.next().reelId);
+        }
+        return ids;
+    }
+
+    @EventListener
+    public void onCountersFlushed(CountersFlushedEvent event) {
+        long now = clock.getAsLong();
+        Map<Long, Double> engagement = new HashMap<>();
+        event.getViewDeltas().forEach((id, delta) -> engagement.merge(id, delta * viewWeight, Double::sum));
+        event.getLikeDeltas().forEach((id, delta) -> engagement.merge(id, delta * likeWeight, Double::sum));
+        synchronized (this) {
+            engagement.forEach((id, amount) -> add(id, amount, now));
+            trim();
+        }
+    }
+
+    /**
+     * Stops ranking a reel, e.g. because it was deleted or made private
+     */
+    public synchronized void remove(Long reelId) {
+        Double score = scores.remove(reelId);
+        if (score != null) {
+            ranking.remove(new Ranked(reelId, score));
+        }
+    }
+
+    /**
+     * Seeds the ranking from stored counts, treating each reel's engagement as
+     * if it happened when the reel was created
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long now = clock.getAsLong();
+        Instant since = Instant.ofEpochMilli(now - (long) (MAX_EXPONENT / 2 / lambdaPerMs));
+        List<TrendingSeed> seeds = reelRepository.findTrendingSeeds(since, PageRequest.of(0, maxTracked));
+        synchronized (this) {
+            scores.clear();
+            ranking = new ConcurrentSkipListSet<>(Ranked.ORDER);
+            landmark = now;
+            for (TrendingSeed seed : seeds) {
+                double amount = seed.getViewsCount() * viewWeight + seed.getLikesCount() * likeWeight;
+                if (amount > 0) {
+                    add(seed.getId(), amount, seed.getCreatedAt().toEpochMilli());
+                }
+            }
+            trim();
+        }
+        log.info("Trending ranking rebuilt from {} recent reels", seeds.size());
+    }
+
+    private void add(Long reelId, double amount, long at) {
+        if (lambdaPerMs * (at - landmark) > MAX_EXPONENT) {
+            moveLandmark(at);
+        }
+        double weighted = amount * Math.exp(lambdaPerMs * (at - landmark));
+        Double previous = scores.get(reelId);
+        double score = previous == null ? weighted : previous + weighted;
+        if (previous != null) {
+            ranking.remove(new Ranked(reelId, previous));
+        }
+        scores.put(reelId, score);
+        ranking.add(new Ranked(reelId, score));
+    }
+
+    private void moveLandmark(long newLandmark) {
+        double factor = Math.exp(-lambdaPerMs * (newLandmark - landmark));
+        // Rescale into a fresh set and swap it in, so readers never see a half-built ranking
+        ConcurrentSkipListSet<Ranked> rescaled = new ConcurrentSkipListSet<>(Ranked.ORDER);
+        scores.replaceAll((id, score) -> {
+            double value = score * factor;
+            rescaled.add(new Ranked(id, value));
+            return value;
+        });
+        ranking = rescaled;
+        landmark = newLandmark;
+    }
+
+    private void trim() {
+        while (scores.size() > maxTracked) {
+            Ranked lowest = ranking.pollLast();
+            if (lowest == null) {
+                break;
+            }
+            scores.remove(lowest.reelId);
+        }
+    }
+
+    private static final class Ranked {
+        static final Comparator<Ranked> ORDER = Comparator.comparingDouble((Ranked r) -> r.score).reversed()
+                .thenComparing(r -> r.reelId, Comparator.reverseOrder());
+
+        final Long reelId;
+        final double score;
+
+        Ranked(Long reelId, double score) {
+            this.reelId = reelId;
+            this.score = score;
+        }
+    }
+}
@@ -23,6 +23,10 @@ public class UserService {
             throw new IllegalArgumentException("Email already exists");
         }
         
+        // Counts are maintained by FollowService, never taken from the request
+        user.setFollowersCount(0);
+        user.setFollowingCount(0);
+        
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         
@@ -50,6 +54,8 @@ public class UserService {
                 .id(user.getId())
                 .username(user.getUsername())
                 .email(user.getEmail())
+                .followersCount(user.getFollowersCount())
+                .followingCount(user.getFollowingCount())
                 .createdAt(user.getCreatedAt())
                 .build();
     }
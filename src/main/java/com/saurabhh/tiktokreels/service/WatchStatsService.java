@@ -0,0 +1,189 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.WatchBucketDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.WatchBucket;
+import com.saurabhh.tiktokreels.repository.ReelDuration;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.WatchBucketRepository;
+import com.saurabhh.tiktokreels.storage.WatchEvent;
+import com.saurabhh.tiktokreels.storage.WatchEventLog;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Watch time analytics. Views are appended to the {@link WatchEventLog} as
+ * they arrive; a background rollup folds each sealed segment into per-reel
+ * minute and hour buckets, and queries only ever read those buckets.
+ */
+@Service
+@Slf4j
+public class WatchStatsService {
+    public enum Granularity {
+        MINUTE(60_000L), HOUR(3_600_000L);
+
+        private final long bucketMs;
+
+        Granularity(long bucketMs) {
+            this.bucketMs = bucketMs;
+        }
+    }
+
+    // A view counts as complete once this share of the reel's duration was watched
+    private static final double COMPLETION_RATIO = 0.9;
+    private static final int MAX_BUCKETS = 1440;
+    private static final int DURATION_LOOKUP_BATCH = 1000;
+    private static final String UPSERT_BUCKET =
+            "INSERT INTO reel_watch_buckets (reel_id, bucket_ms, bucket_start_ms, views, watch_time_ms, completions) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views), " +
+            "watch_time_ms = watch_time_ms + VALUES(watch_time_ms), completions = completions + VALUES(completions)";
+
+    private final WatchEventLog watchEventLog;
+    private final WatchBucketRepository watchBucketRepository;
+    private final ReelRepository reelRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long minuteRetentionMs;
+
+    public WatchStatsService(WatchEventLog watchEventLog,
+                             WatchBucketRepository watchBucketRepository,
+                             ReelRepository reelRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${reels.analytics.minute-retention-ms:604800000}") long minuteRetentionMs) {
+        this.watchEventLog = watchEventLog;
+        this.watchBucketRepository = watchBucketRepository;
+        this.reelRepository = reelRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.minuteRetentionMs = minuteRetentionMs;
+    }
+
+    /**
+     * Appends views to the event log. Analytics are best effort: a failed
+     * write is logged and the views still count towards viewsCount.
+     */
+    public void record(Collection<WatchEvent> events) {
+        try {
+            watchEventLog.append(events);
+        } catch (IOException e) {
+            log.error("Failed to append {} watch events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * @param reelId The reel
+     * @param viewerId The caller; private reels are only shown to their owner
+     * @param granularity Minute or hour buckets
+     * @param from Start of the range, inclusive
+     * @param to End of the range, exclusive; the range is cut to the last 1440 buckets
+     * @return The non-empty buckets in the range, oldest first
+     */
+    public List<WatchBucketDTO> getSeries(Long reelId, Long viewerId, Granularity granularity, Instant from, Instant to) {
+        Reel reel = reelRepository.findById(reelId)
+                .filter(r -> !r.isPrivate() || Objects.equals(r.getUserId(), viewerId))
+                .orElseThrow(() -> new EntityNotFoundException("Reel not found with id: " + reelId));
+
+        long toMs = to.toEpochMilli();
+        long fromMs = Math.max(from.toEpochMilli(), toMs - MAX_BUCKETS * granularity.bucketMs);
+        return watchBucketRepository.findSeries(reel.getId(), granularity.bucketMs, fromMs, toMs).stream()
+                .map(WatchStatsService::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${reels.analytics.rollup-interval-ms:60000}")
+    public synchronized void rollup() {
+        try {
+            watchEventLog.seal();
+            for (Path segment : watchEventLog.sealedSegments()) {
+                rollup(segment);
+            }
+        } catch (Exception e) {
+            // Segments stay on disk and are picked up by the next run
+            log.error("Watch event rollup failed: {}", e.getMessage());
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - minuteRetentionMs;
+        jdbcTemplate.update("DELETE FROM reel_watch_buckets WHERE bucket_ms = ? AND bucket_start_ms < ?",
+                Granularity.MINUTE.bucketMs, cutoff);
+        jdbcTemplate.update("DELETE FROM watch_rollup_segments WHERE applied_at < ?",
+                Timestamp.from(Instant.ofEpochMilli(cutoff)));
+    }
+
+    private void rollup(Path segment) throws IOException {
+        String name = segment.getFileName().toString();
+        List<WatchEvent> events = watchEventLog.read(segment);
+        Map<Long, Long> durations = loadDurations(events.stream().map(WatchEvent::getReelId).collect(Collectors.toSet()));
+
+        // reelId, bucket size, bucket start -> views, watch time, completions
+        Map<List<Long>, long[]> buckets = new HashMap<>();
+        for (WatchEvent event : events) {
+            long duration = durations.getOrDefault(event.getReelId(), 0L);
+            boolean completed = duration > 0 && event.getWatchedMs() >= duration * COMPLETION_RATIO;
+            for (Granularity granularity : Granularity.values()) {
+                long start = event.getTimestampMs() - Math.floorMod(event.getTimestampMs(), granularity.bucketMs);
+                long[] totals = buckets.computeIfAbsent(List.of(event.getReelId(), granularity.bucketMs, start),
+                        key -> new long[3]);
+                totals[0]++;
+                totals[1] += event.getWatchedMs();
+                totals[2] += completed ? 1 : 0;
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        buckets.forEach((key, totals) -> rows.add(new Object[] {key.get(0), key.get(1), key.get(2),
+                totals[0], totals[1], totals[2]}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // The marker row makes this idempotent if the segment could not be deleted last time
+            int marked = jdbcTemplate.update("INSERT IGNORE INTO watch_rollup_segments (name, applied_at) VALUES (?, ?)",
+                    name, Timestamp.from(Instant.now()));
+            if (marked > 0 && !rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_BUCKET, rows);
+            }
+        });
+        watchEventLog.delete(segment);
+    }
+
+    private Map<Long, Long> loadDurations(Set<Long> reelIds) {
+        Map<Long, Long> durations = new HashMap<>();
+        List<Long> ids = new ArrayList<>(reelIds);
+        for (int i = 0; i < ids.size(); i += DURATION_LOOKUP_BATCH) {
+            for (ReelDuration reel : reelRepository.findDurations(ids.subList(i, Math.min(ids.size(), i + DURATION_LOOKUP_BATCH)))) {
+                if (reel.getDurationMs() != null) {
+                    durations.put(reel.getId(), reel.getDurationMs());
+                }
+            }
+        }
+        return durations;
+    }
+
+    private static WatchBucketDTO toDTO(WatchBucket bucket) {
+        long views = bucket.getViews();
+        return WatchBucketDTO.builder()
+                .bucketStart(Instant.ofEpochMilli(bucket.getBucketStartMs()))
+                .views(views)
+                .watchTimeMs(bucket.getWatchTimeMs())
+                .averageWatchMs(views == 0 ? 0 : (double) bucket.getWatchTimeMs() / views)
+                .completionRate(views == 0 ? 0 : (double) bucket.getCompletions() / views)
+                .build();
+    }
+}
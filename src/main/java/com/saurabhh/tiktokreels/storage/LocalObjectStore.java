@@ -0,0 +1,135 @@
+package com.saurabhh.tiktokreels.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Disk-backed, content-addressed object store.
+ * Objects are streamed to a temp file while their SHA-256 is computed, then
+ * atomically renamed to {@code <root>/<bucket>/<h0h1>/<h2h3>/<sha256>.<ext>}.
+ */
+@Component
+@Slf4j
+public class LocalObjectStore {
+    // Upper bound per transferFrom call; the JDK copies through a small temporary direct buffer
+    private static final long TRANSFER_CHUNK_BYTES = 64 * 1024;
+    private static final Pattern OBJECT_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,8}");
+
+    private final Path root;
+
+    public LocalObjectStore(@Value("${reels.storage.root:./storage}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create storage root " + this.root, e);
+        }
+    }
+
+    /**
+     * Streams an object to disk with constant memory use, whatever its size
+     *
+     * @param bucket The bucket to store the object in, e.g. "videos"
+     * @param in The content to store; not closed by this method
+     * @param extension The file extension to store the object under
+     * @return The stored object
+     * @throws IOException if the content cannot be read or written
+     */
+    public StoredObject store(String bucket, InputStream in, String extension) throws IOException {
+        Path tmpDir = root.resolve(bucket).resolve(".tmp");
+        Files.createDirectories(tmpDir);
+        Path tmp = tmpDir.resolve(UUID.randomUUID() + ".part");
+
+        MessageDigest digest = newSha256();
+        long size = 0;
+        try {
+            ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+            try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK_BYTES)) > 0) {
+                    size += transferred;
+                }
+                target.force(false);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String name = sha256 + "." + extension;
+            Path destination = resolve(bucket, name);
+            Files.createDirectories(destination.getParent());
+            if (Files.exists(destination)) {
+                // Same content is already stored; refresh its age so a concurrent
+                // release of the last reference does not delete it under us
+                Files.delete(tmp);
+                Files.setLastModifiedTime(destination, FileTime.from(Instant.now()));
+            } else {
+                try {
+                    Files.move(tmp, destination, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // A concurrent upload of the same content won the rename
+                    Files.delete(tmp);
+                }
+            }
+            return new StoredObject(name, sha256, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    public StoredObject store(String bucket, byte[] content, String extension) throws IOException {
+        return store(bucket, new ByteArrayInputStream(content), extension);
+    }
+
+    /**
+     * Resolves the on-disk location of an object
+     *
+     * @param bucket The bucket the object lives in
+     * @param name The object name as returned by {@link #store}
+     * @return The object's path, which may not exist
+     * @throws IllegalArgumentException if the name is not a valid object name
+     */
+    public Path resolve(String bucket, String name) {
+        if (!OBJECT_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid object name: " + name);
+        }
+        return root.resolve(bucket)
+                .resolve(name.substring(0, 2))
+                .resolve(name.substring(2, 4))
+                .resolve(name);
+    }
+
+    public boolean delete(String bucket, String name) throws IOException {
+        return Files.deleteIfExists(resolve(bucket, name));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
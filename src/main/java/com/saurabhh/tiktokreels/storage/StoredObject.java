@@ -0,0 +1,15 @@
+package com.saurabhh.tiktokreels.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An object persisted by {@link LocalObjectStore}, named after its content hash
+ */
+@Getter
+@AllArgsConstructor
+public class StoredObject {
+    private final String name;   // <sha256>.<extension>
+    private final String sha256;
+    private final long size;
+}
@@ -0,0 +1,15 @@
+package com.saurabhh.tiktokreels.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One view of a reel as written to the {@link WatchEventLog}
+ */
+@Getter
+@AllArgsConstructor
+public class WatchEvent {
+    private final long reelId;
+    private final long timestampMs;
+    private final int watchedMs;
+}
@@ -0,0 +1,136 @@
+package com.saurabhh.tiktokreels.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of watch events in fixed-size binary records.
+ * Events go to the end of the open segment file; {@link #seal()} closes it
+ * and starts a new one, and sealed segments are read back whole by the
+ * rollup and then deleted. Segments left over from a previous run, even a
+ * crashed one, are simply treated as sealed.
+ */
+@Component
+public class WatchEventLog {
+    // reelId (8) + timestampMs (8) + watchedMs (4)
+    static final int RECORD_BYTES = 20;
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private int sequence;
+    private Path currentPath;
+    private FileChannel current;
+    private long currentSize;
+
+    public WatchEventLog(@Value("${reels.storage.root:./storage}") String root) {
+        this.dir = Paths.get(root).toAbsolutePath().normalize().resolve("watch-events");
+        try {
+            Files.createDirectories(dir);
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open watch event log in " + dir, e);
+        }
+    }
+
+    /**
+     * Appends the events with a single write
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    public synchronized void append(Collection<WatchEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(events.size() * RECORD_BYTES);
+        for (WatchEvent event : events) {
+            buffer.putLong(event.getReelId()).putLong(event.getTimestampMs()).putInt(event.getWatchedMs());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            currentSize += current.write(buffer);
+        }
+    }
+
+    /**
+     * Closes the open segment, if it has any events, and starts a new one
+     *
+     * @throws IOException if the segments cannot be switched
+     */
+    public synchronized void seal() throws IOException {
+        if (currentSize == 0) {
+            return;
+        }
+        current.close();
+        openSegment();
+    }
+
+    /**
+     * @return The sealed segments, oldest first
+     */
+    public List<Path> sealedSegments() throws IOException {
+        Path open;
+        synchronized (this) {
+            open = currentPath;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .filter(path -> !path.equals(open))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads a sealed segment. A torn record at the end, left by a crash mid-write, is ignored.
+     */
+    public List<WatchEvent> read(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<WatchEvent> events = new ArrayList<>(buffer.remaining() / RECORD_BYTES);
+        while (buffer.remaining() >= RECORD_BYTES) {
+            events.add(new WatchEvent(buffer.getLong(), buffer.getLong(), buffer.getInt()));
+        }
+        return events;
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        current.close();
+    }
+
+    private void openSegment() throws IOException {
+        while (true) {
+            // Named by creation time, so sorting by name replays segments in order
+            Path path = dir.resolve(String.format("%020d-%06d%s", System.currentTimeMillis(), sequence++ % 1_000_000, SUFFIX));
+            try {
+                current = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            currentPath = path;
+            currentSize = 0;
+            return;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The whole application under mixed traffic: it boots on a random port
+ * against an in-memory H2 database in MySQL mode (the loadtest profile),
+ * is seeded with users and reels, and is then driven over HTTP by worker
+ * threads that each log in and pick their next request from a weighted
+ * mix of login, feed, single reel, like, view and upload. Reports
+ * throughput and p50/p95/p99 latency per endpoint after a warm-up.
+ * Run with {@code -Dbenchmarks=true}; the sizes are system properties:
+ * loadtest.users, loadtest.reels, loadtest.threads, loadtest.warmup-ms,
+ * loadtest.duration-ms and loadtest.upload-bytes.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class ApiLoadBenchmark {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 1_000);
+    private static final int REELS = Integer.getInteger("loadtest.reels", 10_000);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 32);
+    private static final long WARMUP_MS = Long.getLong("loadtest.warmup-ms", 10_000);
+    private static final long DURATION_MS = Long.getLong("loadtest.duration-ms", 60_000);
+    private static final int UPLOAD_BYTES = Integer.getInteger("loadtest.upload-bytes", 256 * 1024);
+    private static final String PASSWORD = "password";
+    private static final int BATCH_SIZE = 1_000;
+    // Chance that a feed request scrolls on from the previous page instead of starting at the top
+    private static final double SCROLL_ON = 0.7;
+
+    /**
+     * What the workers request, and how often relative to each other
+     */
+    private enum Endpoint {
+        LOGIN("POST /api/auth/login", 2),
+        FEED("GET /api/reels", 35),
+        GET_REEL("GET /api/reels/{id}", 25),
+        LIKE("POST /api/reels/{id}/like", 10),
+        VIEW("POST /api/reels/{id}/view", 27),
+        UPLOAD("POST /api/reels/upload", 1);
+
+        private final String label;
+        private final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    @TempDir
+    static Path storageRoot;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("reels.storage.root", () -> storageRoot.toString());
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private long firstUserId;
+    private long firstReelId;
+    private long lastReelId;
+
+    @Test
+    void mixedTraffic() throws Exception {
+        long seedStarted = System.nanoTime();
+        seed();
+        System.out.printf("seeded %,d users and %,d reels in %dms%n",
+                USERS, REELS, (System.nanoTime() - seedStarted) / 1_000_000);
+
+        run(WARMUP_MS);
+        Map<Endpoint, Recorder> results = run(DURATION_MS);
+
+        double seconds = DURATION_MS / 1000.0;
+        long total = 0;
+        long serverErrors = 0;
+        System.out.printf("%d threads for %ds%n", THREADS, DURATION_MS / 1000);
+        System.out.printf("%-28s %9s %8s %9s %8s %8s %8s%n", "endpoint", "requests", "errors", "req/s", "p50", "p95", "p99");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Recorder recorder = results.get(endpoint);
+            long[] sorted = recorder.sorted();
+            System.out.printf("%-28s %9d %8d %9.1f %6.1fms %6.1fms %6.1fms%n", endpoint.label,
+                    sorted.length, recorder.errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+            total += sorted.length;
+            serverErrors += recorder.serverErrors;
+        }
+        System.out.printf("%-28s %9d %8s %9.1f%n", "total", total, "", total / seconds);
+        assertEquals(0, serverErrors, "no request should fail with a 5xx");
+    }
+
+    /**
+     * Inserts users sharing one password hash, and public reels spread over
+     * them with creation times a second apart, in JDBC batches
+     */
+    private void seed() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"loadtest-" + i, "loadtest-" + i + "@example.com", hash, now});
+            if (users.size() == BATCH_SIZE || i == USERS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, followers_count, following_count, created_at) " +
+                        "VALUES (?, ?, ?, 0, 0, ?)", users);
+                users.clear();
+            }
+        }
+        firstUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        long newest = now.getTime();
+        List<Object[]> reels = new ArrayList<>();
+        for (int i = 0; i < REELS; i++) {
+            Timestamp createdAt = new Timestamp(newest - (long) (REELS - i) * 1000);
+            reels.add(new Object[]{firstUserId + i % USERS, "Reel " + i, "Seeded #loadtest reel " + i,
+                    "/api/videos/seed-" + i + ".mp4", createdAt, createdAt});
+            if (reels.size() == BATCH_SIZE || i == REELS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO reels (user_id, title, description, video_url, likes_count, " +
+                        "views_count, watch_time_ms, is_private, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, 0, 0, 0, FALSE, ?, ?)", reels);
+                reels.clear();
+            }
+        }
+        firstReelId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM reels", Long.class);
+        lastReelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM reels", Long.class);
+    }
+
+    private Map<Endpoint, Recorder> run(long durationMs) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        long until = System.nanoTime() + durationMs * 1_000_000;
+        List<Future<Map<Endpoint, Recorder>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int worker = i;
+            futures.add(workers.submit(() -> new Worker(worker).run(until)));
+        }
+        Map<Endpoint, Recorder> merged = Recorder.forEachEndpoint();
+        for (Future<Map<Endpoint, Recorder>> future : futures) {
+            for (Map.Entry<Endpoint, Recorder> entry : future.get().entrySet()) {
+                merged.get(entry.getKey()).addAll(entry.getValue());
+            }
+        }
+        workers.shutdown();
+        return merged;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+
+    /**
+     * One simulated client: logs in, then sends one request at a time, like
+     * an app scrolling through the feed. Its recorders are only touched by
+     * its own thread and are merged when the run is over.
+     */
+    private final class Worker {
+        private final int index;
+        private final Map<Endpoint, Recorder> recorders = Recorder.forEachEndpoint();
+        private final byte[] video = new byte[UPLOAD_BYTES];
+        private String token;
+        private String cursor;
+        private long uploads;
+
+        Worker(int index) {
+            this.index = index;
+            ThreadLocalRandom.current().nextBytes(video);
+        }
+
+        Map<Endpoint, Recorder> run(long until) throws Exception {
+            login(firstUserId + index % USERS);
+            while (System.nanoTime() < until) {
+                Endpoint endpoint = pick();
+                long reelId = ThreadLocalRandom.current().nextLong(firstReelId, lastReelId + 1);
+                switch (endpoint) {
+                    case LOGIN:
+                        login(firstUserId + ThreadLocalRandom.current().nextInt(USERS));
+                        break;
+                    case FEED:
+                        feed();
+                        break;
+                    case GET_REEL:
+                        send(endpoint, authorized("/api/reels/" + reelId).GET());
+                        break;
+                    case LIKE:
+                        send(endpoint, authorized("/api/reels/" + reelId + "/like").POST(HttpRequest.BodyPublishers.noBody()));
+                        break;
+                    case VIEW:
+                        send(endpoint, authorized("/api/reels/" + reelId + "/view").POST(HttpRequest.BodyPublishers.noBody()));
+                        break;
+                    case UPLOAD:
+                        upload();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected endpoint " + endpoint);
+                }
+            }
+            return recorders;
+        }
+
+        private Endpoint pick() {
+            int totalWeight = 0;
+            for (Endpoint endpoint : Endpoint.values()) {
+                totalWeight += endpoint.weight;
+            }
+            int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Endpoint endpoint : Endpoint.values()) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalStateException("Weights do not add up");
+        }
+
+        private void login(long userId) throws Exception {
+            String body = "{\"username\":\"loadtest-" + (userId - firstUserId) + "\",\"password\":\"" + PASSWORD + "\"}";
+            HttpResponse<String> response = send(Endpoint.LOGIN, HttpRequest.newBuilder(uri("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            // A 429 from a busy hashing pool keeps the previous session
+            if (response != null && response.statusCode() == 200) {
+                token = objectMapper.readTree(response.body()).path("token").asText();
+            }
+        }
+
+        private void feed() throws Exception {
+            if (cursor != null && ThreadLocalRandom.current().nextDouble() >= SCROLL_ON) {
+                cursor = null;
+            }
+            String query = cursor == null ? "" : "?cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+            HttpResponse<String> response = send(Endpoint.FEED, authorized("/api/reels" + query).GET());
+            if (response != null && response.statusCode() == 200) {
+                JsonNode next = objectMapper.readTree(response.body()).path("nextCursor");
+                cursor = next.isTextual() ? next.asText() : null;
+            } else {
+                cursor = null;
+            }
+        }
+
+        private void upload() throws Exception {
+            // Different bytes every time, so uploads are not deduplicated into the same stored object
+            long sequence = ++uploads;
+            for (int i = 0; i < 8; i++) {
+                video[i] = (byte) (sequence >>> (i * 8));
+            }
+            video[8] = (byte) index;
+            String boundary = "loadtest-" + index + "-" + sequence;
+            ByteArrayOutputStream body = new ByteArrayOutputStream(UPLOAD_BYTES + 1024);
+            field(body, boundary, "title", "Load test upload " + sequence);
+            field(body, boundary, "description", "#loadtest upload");
+            body.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"video\"; filename=\"upload.mp4\"\r\n" +
+                    "Content-Type: video/mp4\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            body.write(video);
+            body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            send(Endpoint.UPLOAD, authorized("/api/reels/upload")
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())));
+        }
+
+        private void field(ByteArrayOutputStream body, String boundary, String name, String value) {
+            body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" +
+                    value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+        }
+
+        /**
+         * @return The response, or null if the request failed without one
+         */
+        private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder request) {
+            Recorder recorder = recorders.get(endpoint);
+            long started = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                recorder.record(System.nanoTime() - started, response.statusCode());
+                return response;
+            } catch (Exception e) {
+                // No response at all (refused, reset or timed out) counts as a server error
+                recorder.record(System.nanoTime() - started, 599);
+                return null;
+            }
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /**
+     * Latencies of one endpoint, in nanoseconds. Not thread-safe.
+     */
+    private static final class Recorder {
+        private long[] nanos = new long[1024];
+        private int count;
+        long errors;
+        long serverErrors;
+
+        static Map<Endpoint, Recorder> forEachEndpoint() {
+            Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                recorders.put(endpoint, new Recorder());
+            }
+            return recorders;
+        }
+
+        void record(long latency, int status) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (status >= 400) {
+                errors++;
+            }
+            if (status >= 500) {
+                serverErrors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            if (count + other.count > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+            }
+            System.arraycopy(other.nanos, 0, nanos, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            serverErrors += other.serverErrors;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
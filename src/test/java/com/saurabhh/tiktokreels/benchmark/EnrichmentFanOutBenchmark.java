@@ -0,0 +1,87 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.service.AIService;
+import com.saurabhh.tiktokreels.service.FileStorageService;
+import com.saurabhh.tiktokreels.service.MediaObjectService;
+import com.saurabhh.tiktokreels.service.ReelEnricher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ingest latency of sequential vs fanned-out enrichment under 200 concurrent uploads.
+ * AI calls are simulated with fixed delays. Run with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EnrichmentFanOutBenchmark {
+
+    private static final int CONCURRENT_UPLOADS = 200;
+    private static final long THUMBNAIL_MS = 150;
+    private static final long CAPTION_MS = 100;
+
+    @Test
+    void sequentialVsFanOut() throws Exception {
+        AIService aiService = mock(AIService.class);
+        FileStorageService fileStorageService = mock(FileStorageService.class);
+        MediaObjectService mediaObjectService = mock(MediaObjectService.class);
+        when(aiService.generateThumbnail(any(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(THUMBNAIL_MS);
+            return new byte[] {1};
+        });
+        when(aiService.generateCaption(any(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(CAPTION_MS);
+            return "caption";
+        });
+        when(fileStorageService.uploadGeneratedThumbnail(any(), anyString())).thenReturn("/api/thumbnails/t.jpg");
+        ReelEnricher reelEnricher = new ReelEnricher(aiService, fileStorageService, mediaObjectService, 10_000, 10_000, 1);
+
+        report("sequential", measure(() -> {
+            aiService.generateThumbnail(null, "clip.mp4");
+            aiService.generateCaption(null, "clip.mp4");
+        }));
+        report("fan-out", measure(() -> {
+            ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, null, "clip.mp4", true, true);
+            enrichment.awaitThumbnail();
+            enrichment.awaitCaption();
+        }));
+        reelEnricher.shutdown();
+    }
+
+    private static List<Long> measure(Runnable ingest) throws Exception {
+        ExecutorService uploads = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+            tasks.add(() -> {
+                long started = System.nanoTime();
+                ingest.run();
+                return (System.nanoTime() - started) / 1_000_000;
+            });
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> result : uploads.invokeAll(tasks)) {
+            latencies.add(result.get());
+        }
+        uploads.shutdown();
+        Collections.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String mode, List<Long> latencies) {
+        System.out.printf("%-10s p50=%dms p99=%dms max=%dms%n", mode,
+                latencies.get(latencies.size() / 2),
+                latencies.get((int) (latencies.size() * 0.99)),
+                latencies.get(latencies.size() - 1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.security.AuthenticatedUser;
+import com.saurabhh.tiktokreels.security.JwtAuthenticationFilter;
+import com.saurabhh.tiktokreels.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of the JWT filter per authenticated request: a token without the
+ * uid/roles claims takes the old path (parse, user query, parse again), a
+ * current token is parsed once and then served from the verified-token cache.
+ * The user query is simulated at 0.2 ms. Run with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKey1234567890123456789012345678901234567890123456";
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void legacyVsClaimsPath() throws Exception {
+        List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> {
+            simulateQuery();
+            return new User(invocation.getArgument(0), "hash", roles);
+        });
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 3_600_000, 10_000);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+
+        UserDetails legacyUser = new User("alice", "hash", roles);
+        UserDetails currentUser = new AuthenticatedUser(1L, "alice", "hash", roles);
+        String legacyToken = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(legacyUser, null, roles));
+        String currentToken = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(currentUser, null, roles));
+
+        report("legacy", measure(filter, legacyToken));
+        report("claims", measure(filter, currentToken));
+    }
+
+    private static long measure(JwtAuthenticationFilter filter, String token) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            authenticate(filter, token);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            authenticate(filter, token);
+        }
+        return (System.nanoTime() - started) / ITERATIONS;
+    }
+
+    private static void authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reels/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void report(String path, long nanosPerRequest) {
+        System.out.printf("%-7s %,d ns/request%n", path, nanosPerRequest);
+    }
+
+    private static void simulateQuery() {
+        long until = System.nanoTime() + 200_000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.security.BoundedPasswordEncoder;
+import com.saurabhh.tiktokreels.security.PasswordHashingBusyException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feed request latency on a fixed pool of request threads (standing in for
+ * Tomcat's workers) while a login storm hits the same pool, with BCrypt on
+ * the request threads versus on the bounded hashing pool.
+ * Run with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class LoginStormBenchmark {
+
+    // Tomcat's default maxThreads
+    private static final int REQUEST_THREADS = 200;
+    private static final int LOGINS = 1_000;
+    private static final int FEED_REQUESTS = 400;
+    private static final long FEED_INTERVAL_MS = 5;
+    private static final long FEED_WORK_NANOS = 1_000_000;
+    private static final int STRENGTH = 10;
+
+    @Test
+    void feedLatencyDuringLoginStorm() throws Exception {
+        String hash = new BCryptPasswordEncoder(STRENGTH).encode("password");
+
+        run("request-threads", new BCryptPasswordEncoder(STRENGTH), hash);
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(STRENGTH,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 32);
+        run("bounded-pool", bounded, hash);
+        bounded.shutdown();
+    }
+
+    private static void run(String mode, PasswordEncoder encoder, String hash) throws Exception {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        LongAdder loginsServed = new LongAdder();
+        LongAdder loginsRejected = new LongAdder();
+
+        // The storm arrives all at once, ahead of the feed traffic
+        for (int i = 0; i < LOGINS; i++) {
+            requestThreads.submit(() -> {
+                try {
+                    encoder.matches("password", hash);
+                    loginsServed.increment();
+                } catch (PasswordHashingBusyException e) {
+                    loginsRejected.increment();
+                }
+            });
+        }
+
+        List<Future<Long>> feedRequests = new ArrayList<>();
+        for (int i = 0; i < FEED_REQUESTS; i++) {
+            long submitted = System.nanoTime();
+            feedRequests.add(requestThreads.submit(() -> {
+                long until = System.nanoTime() + FEED_WORK_NANOS;
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                return (System.nanoTime() - submitted) / 1_000_000;
+            }));
+            Thread.sleep(FEED_INTERVAL_MS);
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> request : feedRequests) {
+            latencies.add(request.get());
+        }
+        requestThreads.shutdown();
+        requestThreads.awaitTermination(10, TimeUnit.MINUTES);
+
+        Collections.sort(latencies);
+        System.out.printf("%-16s feed p50=%dms p99=%dms max=%dms logins served=%d rejected(429)=%d%n", mode,
+                latencies.get(latencies.size() / 2),
+                latencies.get((int) (latencies.size() * 0.99)),
+                latencies.get(latencies.size() - 1),
+                loginsServed.sum(), loginsRejected.sum());
+    }
+}
@@ -0,0 +1,124 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.cache.OffHeapCache;
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hit ratio of the media cache against a plain LRU of the same byte budget.
+ * Reads of 20,000 thumbnails and video heads follow a Zipf distribution,
+ * and every fourth read is of an object that is never read again, like a
+ * crawler or someone scrolling far back. Run with {@code -Dbenchmarks=true}
+ * and {@code -XX:MaxDirectMemorySize=256m}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class MediaCacheBenchmark {
+
+    private static final int OBJECTS = 20_000;
+    private static final int READS = 1_000_000;
+    private static final long BUDGET = 64L * 1024 * 1024;
+    private static final double ZIPF_EXPONENT = 0.9;
+
+    @Test
+    void hitRatioUnderSkewedReadsWithOneOffs() {
+        Random random = new Random(7);
+        int[] sizes = new int[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            // Thumbnails of 20-60 KB, and every tenth object a 512 KB video head
+            sizes[i] = i % 10 == 0 ? 512 * 1024 : (20 + random.nextInt(40)) * 1024;
+        }
+        double[] cumulative = zipf(OBJECTS, ZIPF_EXPONENT);
+
+        OffHeapCache<String> cache = new OffHeapCache<>(BUDGET, (int) (BUDGET / (64 * 1024)));
+        ByteLru lru = new ByteLru(BUDGET);
+        long oneOff = 0;
+        long started = System.nanoTime();
+        for (int read = 0; read < READS; read++) {
+            String key;
+            int size;
+            if (read % 4 == 3) {
+                key = "once-" + oneOff++;
+                size = 40 * 1024;
+            } else {
+                int object = rank(cumulative, random.nextDouble());
+                key = "object-" + object;
+                size = sizes[object];
+            }
+            if (cache.get(key) == null) {
+                cache.put(key, ByteBuffer.allocateDirect(size));
+            }
+            lru.read(key, size);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        MediaCacheStatsDTO stats = cache.stats();
+        double lruHitRatio = (double) lru.hits / READS;
+        System.out.printf("w-tinylfu hit ratio %.3f (%,d evictions, %,d rejections), lru %.3f, %.0f reads/s%n",
+                stats.getHitRatio(), stats.getEvictions(), stats.getRejections(), lruHitRatio, READS / seconds);
+        assertTrue(stats.getHitRatio() > lruHitRatio, "frequency-aware admission should beat plain LRU");
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int rank(double[] cumulative, double p) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < p) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sizes only; enough to count what an LRU would have hit
+     */
+    private static final class ByteLru {
+        private final long budget;
+        private final LinkedHashMap<String, Integer> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        long hits;
+
+        ByteLru(long budget) {
+            this.budget = budget;
+        }
+
+        void read(String key, int size) {
+            if (entries.get(key) != null) {
+                hits++;
+                return;
+            }
+            entries.put(key, size);
+            bytes += size;
+            Iterator<Map.Entry<String, Integer>> eldest = entries.entrySet().iterator();
+            while (bytes > budget) {
+                bytes -= eldest.next().getValue();
+                eldest.remove();
+            }
+        }
+    }
+}
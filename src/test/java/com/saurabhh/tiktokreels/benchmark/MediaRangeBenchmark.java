@@ -0,0 +1,246 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.controller.MediaController;
+import com.saurabhh.tiktokreels.service.FileStorageService;
+import com.saurabhh.tiktokreels.service.MediaCache;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput, latency and bytes copied through the heap for concurrent
+ * range reads, written to real loopback sockets: 1 MB ranges anywhere in a
+ * 100 MB video, and 256 KB ranges within its first megabyte, the head the
+ * media cache keeps. With sendfile the controller only sets Tomcat's
+ * request attributes and the benchmark then does what Tomcat does with
+ * them, a {@link FileChannel#transferTo} straight into the socket; without
+ * it the controller copies the range through the servlet output stream,
+ * from the file or from the media cache. Run with {@code -Dbenchmarks=true}
+ * and {@code -XX:MaxDirectMemorySize=64m}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class MediaRangeBenchmark {
+
+    private static final long FILE_SIZE = 100L * 1024 * 1024;
+    private static final long RANGE_SIZE = 1024 * 1024;
+    private static final long HEAD_SIZE = 1024 * 1024;
+    private static final long HEAD_RANGE_SIZE = 256 * 1024;
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 200;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void concurrentRangeReads() throws Exception {
+        Path video = tempDir.resolve("c".repeat(64) + ".mp4");
+        try (RandomAccessFile file = new RandomAccessFile(video.toFile(), "rw")) {
+            file.setLength(FILE_SIZE);
+        }
+        FileStorageService storage = mock(FileStorageService.class);
+        when(storage.find(anyString(), anyString())).thenReturn(Optional.of(video));
+        MediaController uncached = new MediaController(storage, new MediaCache(false, 1024, 0, 2));
+        MediaController cached = new MediaController(storage, new MediaCache(true, 64L * 1024 * 1024, HEAD_SIZE, 2));
+
+        try (Sink sink = new Sink()) {
+            // Random ranges across the file, so this measures the file path rather than the media cache
+            run("copy", uncached, video, sink, false, FILE_SIZE, RANGE_SIZE);
+            run("sendfile", uncached, video, sink, true, FILE_SIZE, RANGE_SIZE);
+            // Where playback starts: the head is hot
+            run("head copy", uncached, video, sink, false, HEAD_SIZE, HEAD_RANGE_SIZE);
+            run("head cache", cached, video, sink, false, HEAD_SIZE, HEAD_RANGE_SIZE);
+            run("head sendfile", cached, video, sink, true, HEAD_SIZE, HEAD_RANGE_SIZE);
+        }
+    }
+
+    /**
+     * @param extent Ranges start anywhere in the first extent bytes that leaves room for them
+     * @param rangeSize The length of every range
+     */
+    private void run(String mode, MediaController controller, Path video, Sink sink, boolean sendfile,
+                     long extent, long rangeSize) throws Exception {
+        String name = video.getFileName().toString();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicLong heapBytes = new AtomicLong();
+        long started = System.nanoTime();
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                long[] latencies = new long[REQUESTS_PER_THREAD];
+                try (SocketChannel socket = sink.connect()) {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        long start = ThreadLocalRandom.current().nextLong(extent - rangeSize + 1);
+                        long requestStarted = System.nanoTime();
+                        serve(controller, name, start, rangeSize, socket, sendfile, heapBytes);
+                        latencies[i] = System.nanoTime() - requestStarted;
+                    }
+                }
+                return latencies;
+            }));
+        }
+        long[] latencies = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] more = worker.get();
+            int from = latencies.length;
+            latencies = Arrays.copyOf(latencies, from + more.length);
+            System.arraycopy(more, 0, latencies, from, more.length);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int requests = THREADS * REQUESTS_PER_THREAD;
+        long bytes = sink.awaitBytes(requests * rangeSize);
+        Arrays.sort(latencies);
+        System.out.printf("%-13s %d requests in %.2fs, %.0f req/s, %.1f MB/s, %.1f MB copied through the heap, "
+                        + "p50=%.2fms p99=%.2fms%n",
+                mode, requests, seconds, requests / seconds, bytes / seconds / (1024 * 1024),
+                heapBytes.get() / (1024.0 * 1024), latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+        assertEquals(requests * rangeSize, bytes);
+    }
+
+    private static void serve(MediaController controller, String name, long start, long rangeSize,
+                              SocketChannel socket, boolean sendfile, AtomicLong heapBytes) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/videos/" + name);
+        request.addHeader("Range", "bytes=" + start + "-" + (start + rangeSize - 1));
+        if (sendfile) {
+            request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        }
+        SocketResponse response = new SocketResponse(socket, heapBytes);
+        controller.getVideo(name, request, response);
+        assertEquals(206, response.getStatus());
+
+        String file = (String) request.getAttribute("org.apache.tomcat.sendfile.filename");
+        if (file != null) {
+            long position = (Long) request.getAttribute("org.apache.tomcat.sendfile.start");
+            long end = (Long) request.getAttribute("org.apache.tomcat.sendfile.end");
+            try (FileChannel source = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+                while (position < end) {
+                    position += source.transferTo(position, end - position, socket);
+                }
+            }
+        }
+    }
+
+    /**
+     * A response whose body goes to a socket instead of a heap buffer,
+     * counting the bytes written through the servlet output stream
+     */
+    private static final class SocketResponse extends HttpServletResponseWrapper {
+        private final ServletOutputStream out;
+
+        SocketResponse(SocketChannel socket, AtomicLong heapBytes) {
+            super(new MockHttpServletResponse());
+            OutputStream stream = Channels.newOutputStream(socket);
+            this.out = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    stream.write(b);
+                    heapBytes.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    stream.write(b, off, len);
+                    heapBytes.addAndGet(len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    /**
+     * The other end of the connections: reads and discards everything on its own threads
+     */
+    private static final class Sink implements AutoCloseable {
+        private final ServerSocketChannel server;
+        private final ExecutorService readers = Executors.newCachedThreadPool();
+        private final AtomicLong received = new AtomicLong();
+
+        Sink() throws IOException {
+            server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        }
+
+        SocketChannel connect() throws IOException {
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel accepted = server.accept();
+            readers.submit(() -> {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+                try (SocketChannel channel = accepted) {
+                    int read;
+                    while ((read = channel.read(buffer)) >= 0) {
+                        received.addAndGet(read);
+                        buffer.clear();
+                    }
+                }
+                return null;
+            });
+            return client;
+        }
+
+        /**
+         * @return The bytes received since the last call, once they reach the expected count or a few seconds pass
+         */
+        long awaitBytes(long expected) throws InterruptedException {
+            long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.get() < expected && System.nanoTime() < until) {
+                Thread.sleep(10);
+            }
+            return received.getAndSet(0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            readers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.dto.CacheStatsDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import com.saurabhh.tiktokreels.service.AIService;
+import com.saurabhh.tiktokreels.service.CounterAggregator;
+import com.saurabhh.tiktokreels.service.FileStorageService;
+import com.saurabhh.tiktokreels.service.LikeService;
+import com.saurabhh.tiktokreels.service.MediaObjectService;
+import com.saurabhh.tiktokreels.service.PrefetchService;
+import com.saurabhh.tiktokreels.service.ReelCache;
+import com.saurabhh.tiktokreels.service.ReelEnricher;
+import com.saurabhh.tiktokreels.service.ReelSearchService;
+import com.saurabhh.tiktokreels.service.ReelService;
+import com.saurabhh.tiktokreels.service.TagService;
+import com.saurabhh.tiktokreels.service.TimelineService;
+import com.saurabhh.tiktokreels.service.TranscodeService;
+import com.saurabhh.tiktokreels.service.TrendingService;
+import com.saurabhh.tiktokreels.service.WatchStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Database queries issued by {@code getReel} under a skewed read load, with
+ * and without the reel cache. Each simulated query costs 0.2 ms. Prints one
+ * line per window of reads so the query rate can be seen falling as the hit
+ * ratio climbs.
+ * Run with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ReelCacheBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int REELS = 100_000;
+    // 90% of reads go to the hottest 1% of reels
+    private static final int HOT_REELS = REELS / 100;
+    private static final double HOT_SHARE = 0.9;
+    private static final int READS_PER_WINDOW = 20_000;
+    private static final int WINDOWS = 8;
+
+    @Test
+    void queryRateWithAndWithoutCache() throws Exception {
+        long uncached = run("disabled", new ReelCache(false, 10_000, 30_000));
+        long cached = run("enabled", new ReelCache(true, 10_000, 30_000));
+        assertTrue(cached < uncached, "cache should reduce database queries");
+    }
+
+    private static long run(String mode, ReelCache reelCache) throws Exception {
+        LongAdder queries = new LongAdder();
+        ReelRepository reelRepository = mock(ReelRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(reelRepository.findById(anyLong())).thenAnswer(invocation -> {
+            queries.increment();
+            simulateQuery();
+            Long id = invocation.getArgument(0);
+            return Optional.of(Reel.builder().id(id).userId(id % 1000).title("Reel " + id)
+                    .likesCount(0).viewsCount(0).createdAt(Instant.now()).build());
+        });
+        when(userRepository.findById(any())).thenAnswer(invocation -> {
+            queries.increment();
+            simulateQuery();
+            Long id = invocation.getArgument(0);
+            return Optional.of(User.builder().id(id).username("user" + id).build());
+        });
+        ReelService reelService = new ReelService(reelRepository, userRepository,
+                mock(FileStorageService.class), mock(AIService.class), mock(CounterAggregator.class),
+                mock(ReelEnricher.class), mock(MediaObjectService.class), reelCache,
+                mock(TrendingService.class), mock(LikeService.class),
+                mock(WatchStatsService.class), mock(ReelSearchService.class), mock(TagService.class),
+                mock(TimelineService.class), mock(TranscodeService.class),
+                mock(PrefetchService.class), mock(TransactionTemplate.class));
+
+        // Fixed offered load: every window issues the same number of reads
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long totalQueries = 0;
+        for (int window = 1; window <= WINDOWS; window++) {
+            long started = System.nanoTime();
+            CountDownLatch done = new CountDownLatch(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < READS_PER_WINDOW / THREADS; i++) {
+                        long id = random.nextDouble() < HOT_SHARE
+                                ? 1 + random.nextInt(HOT_REELS)
+                                : 1 + random.nextInt(REELS);
+                        reelService.getReel(id, null);
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            long queryCount = queries.sumThenReset();
+            totalQueries += queryCount;
+            CacheStatsDTO stats = reelCache.getStats();
+            System.out.printf("cache %-8s window=%d reads=%d queries=%d queries/s=%d hitRatio=%.3f size=%d%n",
+                    mode, window, READS_PER_WINDOW, queryCount, queryCount * 1000 / elapsedMs,
+                    stats.getHitRatio(), stats.getSize());
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return totalQueries;
+    }
+
+    private static void simulateQuery() {
+        long until = System.nanoTime() + 200_000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.search.InvertedIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query latency of the search index at a million reels with a skewed
+ * vocabulary, so the common words have postings lists in the hundreds of
+ * thousands. Every fourth query also requires a hashtag.
+ * Run with {@code -Dbenchmarks=true} and a heap of at least 2 GB.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SearchIndexBenchmark {
+
+    private static final int REELS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int TERMS_PER_REEL = 12;
+    private static final int TAGS = 1_000;
+    private static final int QUERIES = 5_000;
+
+    @Test
+    void queryLatencyAtOneMillionReels() {
+        Random random = new Random(42);
+        InvertedIndex index = new InvertedIndex();
+        long started = System.nanoTime();
+        for (long id = 1; id <= REELS; id++) {
+            Map<String, Integer> terms = new HashMap<>();
+            for (int i = 0; i < TERMS_PER_REEL; i++) {
+                terms.merge(word(random), 1, Integer::sum);
+            }
+            index.put(id, id, terms, Set.of("tag" + random.nextInt(TAGS)));
+        }
+        System.out.printf("indexed %,d reels in %,d ms%n", REELS, (System.nanoTime() - started) / 1_000_000);
+
+        long[] latencies = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            List<String> words = List.of(word(random), word(random));
+            List<String> tags = q % 4 == 0 ? List.of("tag" + random.nextInt(TAGS)) : List.of();
+            long start = System.nanoTime();
+            index.search(words, tags, 0, 20);
+            latencies[q] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        long p50 = latencies[QUERIES / 2] / 1_000;
+        long p99 = latencies[(int) (QUERIES * 0.99)] / 1_000;
+        System.out.printf("search p50=%,d us p99=%,d us%n", p50, p99);
+        assertTrue(p99 < 10_000, "p99 should stay under 10 ms");
+    }
+
+    // Word frequencies fall off like a half-normal distribution, so a few words are very common
+    private static String word(Random random) {
+        return "w" + (int) Math.min(VOCABULARY - 1, Math.abs(random.nextGaussian()) * 2_000);
+    }
+}
@@ -0,0 +1,151 @@
+package com.saurabhh.tiktokreels.benchmark;
+
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.FollowRepository;
+import com.saurabhh.tiktokreels.repository.ReelKey;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import com.saurabhh.tiktokreels.service.TimelineService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Home timeline read latency with 100k users. Each user follows 20 others;
+ * a tenth of all follows go to 100 popular accounts, which end up above the
+ * celebrity threshold and are merged in on read. One in every hundred
+ * operations publishes a new reel, fanned out to the author's followers.
+ * The repositories answer from in-memory arrays, so the numbers are the
+ * service itself once timelines are warm.
+ * Run with {@code -Dbenchmarks=true} and a heap of at least 2 GB.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TimelineReadBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int FOLLOWS_PER_USER = 20;
+    private static final int POPULAR = 100;
+    private static final int REELS_PER_USER = 3;
+    private static final int CELEBRITY_FOLLOWERS = 1_000;
+    private static final int OPERATIONS = 200_000;
+    private static final int PAGE_SIZE = 20;
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void homePageLatencyWithOneHundredThousandUsers() {
+        Random random = new Random(42);
+        long[][] followees = new long[USERS + 1][];
+        List<List<Long>> followers = new ArrayList<>(USERS + 1);
+        for (int user = 0; user <= USERS; user++) {
+            followers.add(new ArrayList<>());
+        }
+        for (int user = 1; user <= USERS; user++) {
+            followees[user] = new long[FOLLOWS_PER_USER];
+            for (int i = 0; i < FOLLOWS_PER_USER; i++) {
+                int followee = random.nextInt(10) == 0 ? 1 + random.nextInt(POPULAR) : 1 + random.nextInt(USERS);
+                followees[user][i] = followee;
+                followers.get(followee).add((long) user);
+            }
+        }
+        followers.forEach(list -> list.sort(null));
+
+        // Existing reels were posted over the month before the run
+        List<List<ReelKey>> reelsByAuthor = new ArrayList<>(USERS + 1);
+        long nextReelId = 1;
+        for (int user = 0; user <= USERS; user++) {
+            List<ReelKey> reels = new ArrayList<>(REELS_PER_USER);
+            for (int i = 0; i < REELS_PER_USER && user > 0; i++) {
+                reels.add(key(nextReelId++, EPOCH.minusSeconds(random.nextInt(30 * 86_400))));
+            }
+            reels.sort(Comparator.comparing(ReelKey::getCreatedAt).reversed());
+            reelsByAuthor.add(reels);
+        }
+
+        FollowRepository followRepository = mock(FollowRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        ReelRepository reelRepository = mock(ReelRepository.class);
+        when(followRepository.findFolloweeIds(anyLong())).thenAnswer(invocation -> {
+            long user = invocation.getArgument(0);
+            return Arrays.stream(followees[(int) user]).distinct().boxed().toList();
+        });
+        when(followRepository.findFollowerIdsAfter(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long author = invocation.getArgument(0);
+            long after = invocation.getArgument(1);
+            Pageable limit = invocation.getArgument(2);
+            return followers.get((int) author).stream().filter(id -> id > after).limit(limit.getPageSize()).toList();
+        });
+        when(userRepository.findIdsWithFollowersAtLeast(any(), anyInt())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            int threshold = invocation.getArgument(1);
+            return ids.stream().filter(id -> followers.get(id.intValue()).size() >= threshold).toList();
+        });
+        when(reelRepository.findNewestPublicKeys(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> authors = invocation.getArgument(0);
+            Pageable limit = invocation.getArgument(1);
+            return authors.stream()
+                    .flatMap(author -> reelsByAuthor.get(author.intValue()).stream())
+                    .sorted(Comparator.comparing(ReelKey::getCreatedAt).reversed())
+                    .limit(limit.getPageSize())
+                    .toList();
+        });
+
+        TimelineService timelineService = new TimelineService(followRepository, userRepository, reelRepository,
+                800, CELEBRITY_FOLLOWERS, (USERS + 1000) * 800, 1000, 3_600_000);
+        long started = System.nanoTime();
+        for (long user = 1; user <= USERS; user++) {
+            timelineService.getPage(user, null, null, PAGE_SIZE);
+        }
+        System.out.printf("built %,d timelines in %,d ms%n", USERS, (System.nanoTime() - started) / 1_000_000);
+
+        long[] latencies = new long[OPERATIONS];
+        int reads = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            long user = 1 + random.nextInt(USERS);
+            if (op % 100 == 0) {
+                Reel reel = Reel.builder().id(nextReelId++).userId(user).isPrivate(false)
+                        .createdAt(EPOCH.plusMillis(op)).build();
+                User author = User.builder().id(user).followersCount(followers.get((int) user).size()).build();
+                timelineService.publish(reel, author);
+                continue;
+            }
+            long start = System.nanoTime();
+            timelineService.getPage(user, null, null, PAGE_SIZE);
+            latencies[reads++] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies, 0, reads);
+        long p50 = latencies[reads / 2] / 1_000;
+        long p99 = latencies[(int) (reads * 0.99)] / 1_000;
+        System.out.printf("home page p50=%,d us p99=%,d us over %,d reads%n", p50, p99, reads);
+        assertTrue(p99 < 1_000, "p99 should stay under 1 ms");
+    }
+
+    private static ReelKey key(Long id, Instant createdAt) {
+        return new ReelKey() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.saurabhh.tiktokreels.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissInsertedPairs() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long user = 1; user <= 100; user++) {
+            for (long reel = 1; reel <= 100; reel++) {
+                filter.put(user, reel);
+            }
+        }
+
+        // Act & Assert
+        for (long user = 1; user <= 100; user++) {
+            for (long reel = 1; reel <= 100; reel++) {
+                assertTrue(filter.mightContain(user, reel));
+            }
+        }
+    }
+
+    @Test
+    void mightContain_shouldStayNearTargetFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long reel = 1; reel <= 10_000; reel++) {
+            filter.put(1L, reel);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (long reel = 1; reel <= 100_000; reel++) {
+            if (filter.mightContain(2L, reel)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_shouldNotConfuseSwappedIds() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100, 0.001);
+        filter.put(1L, 2L);
+
+        // Act & Assert
+        assertTrue(filter.mightContain(1L, 2L));
+        assertFalse(filter.mightContain(2L, 1L));
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
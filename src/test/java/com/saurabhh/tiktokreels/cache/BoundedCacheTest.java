@@ -0,0 +1,78 @@
+package com.saurabhh.tiktokreels.cache;
+
+import com.saurabhh.tiktokreels.dto.CacheStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void get_shouldLoadOnce_andServeLaterReadsFromCache() {
+        // Arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 1000, now::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            cache.get(1L, id -> "reel-" + id + "-" + loads.incrementAndGet());
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+        CacheStatsDTO stats = cache.stats();
+        assertEquals(9, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.9, stats.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    void get_shouldReload_afterTtlExpires() {
+        // Arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 1000, now::get);
+        cache.put(1L, "old");
+
+        // Act
+        now.addAndGet(1_000_000_000L);
+        String value = cache.get(1L, id -> "new");
+
+        // Assert
+        assertEquals("new", value);
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenFull() {
+        // Arrange: a size of 16 gives each segment room for one entry
+        BoundedCache<Long, String> cache = new BoundedCache<>(16, 1000, now::get);
+        for (long id = 0; id < 64; id++) {
+            cache.put(id, "reel-" + id);
+        }
+
+        // Assert
+        assertTrue(cache.size() <= 16);
+        assertEquals(64 - cache.size(), cache.stats().getEvictions());
+        assertEquals("reel-63", cache.getIfPresent(63L));
+    }
+
+    @Test
+    void get_shouldNotCacheValueLoadedWhileKeyWasInvalidated() {
+        // Arrange
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 1000, now::get);
+
+        // Act: an update invalidates the reel while a read is still loading the old row
+        String stale = cache.get(1L, id -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        // Assert
+        assertEquals("stale", stale);
+        assertNull(cache.getIfPresent(1L));
+    }
+}
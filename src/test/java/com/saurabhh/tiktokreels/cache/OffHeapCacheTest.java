@@ -0,0 +1,115 @@
+package com.saurabhh.tiktokreels.cache;
+
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCacheTest {
+
+    // 100 bytes of window and 9,900 of main area
+    private static final long MAX_BYTES = 10_000;
+
+    @Test
+    void get_shouldReturnReadOnlyView_ofCachedBuffer() {
+        // Arrange
+        OffHeapCache<String> cache = new OffHeapCache<>(MAX_BYTES, 100);
+        cache.put("a", bufferOf(10, (byte) 7));
+
+        // Act
+        ByteBuffer first = cache.get("a");
+        first.position(5);
+        ByteBuffer second = cache.get("a");
+
+        // Assert: callers do not share a position, and cannot write
+        assertTrue(first.isReadOnly());
+        assertEquals(0, second.position());
+        assertEquals(7, second.get(9));
+        assertNull(cache.get("b"));
+        MediaCacheStatsDTO stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(10, stats.getBytes());
+    }
+
+    @Test
+    void put_shouldRejectBuffersLargerThanWindow() {
+        // Arrange
+        OffHeapCache<String> cache = new OffHeapCache<>(MAX_BYTES, 100);
+
+        // Act
+        boolean added = cache.put("big", bufferOf(101, (byte) 0));
+
+        // Assert
+        assertFalse(added);
+        assertEquals(100, cache.getMaxEntryBytes());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldKeepHotEntries_throughScanOfOneOffReads() {
+        // Arrange: fill the main area with 99 entries that are read again and again
+        OffHeapCache<String> cache = new OffHeapCache<>(MAX_BYTES, 200);
+        for (int i = 0; i < 100; i++) {
+            cache.get("hot" + i);
+            cache.put("hot" + i, bufferOf(100, (byte) i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        // Act: a thousand objects that are read once each
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get("cold" + i) == null) {
+                cache.put("cold" + i, bufferOf(100, (byte) 0));
+            }
+        }
+
+        // Assert: the one-off reads lost admission instead of evicting hot entries
+        int hotHits = 0;
+        for (int i = 0; i < 99; i++) {
+            if (cache.get("hot" + i) != null) {
+                hotHits++;
+            }
+        }
+        assertEquals(99, hotHits);
+        MediaCacheStatsDTO stats = cache.stats();
+        assertTrue(stats.getRejections() >= 999);
+        assertTrue(stats.getBytes() <= MAX_BYTES);
+    }
+
+    @Test
+    void put_shouldAdmitNewEntry_onceItIsUsedMoreThanTheColdest() {
+        // Arrange: a full main area of entries read once
+        OffHeapCache<String> cache = new OffHeapCache<>(MAX_BYTES, 200);
+        for (int i = 0; i <= 100; i++) {
+            cache.get("old" + i);
+            cache.put("old" + i, bufferOf(100, (byte) 0));
+        }
+
+        // Act: a newcomer read several times before it leaves the window
+        for (int i = 0; i < 5; i++) {
+            cache.get("new");
+        }
+        cache.put("new", bufferOf(100, (byte) 1));
+        cache.get("other");
+        cache.put("other", bufferOf(100, (byte) 2));
+
+        // Assert
+        assertNotNull(cache.get("new"));
+        assertTrue(cache.stats().getEvictions() >= 1);
+        assertTrue(cache.stats().getBytes() <= MAX_BYTES);
+    }
+
+    private static ByteBuffer bufferOf(int size, byte value) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, value);
+        }
+        return buffer;
+    }
+}
@@ -13,8 +13,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -165,4 +167,45 @@ class AIControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("Failed to generate thumbnail: Service error"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateThumbnail_shouldUseRequestedWidth_whenSupported() throws Exception {
+        // Arrange
+        MockMultipartFile videoFile = new MockMultipartFile(
+                "video",
+                "test-video.mp4",
+                "video/mp4",
+                "test video content".getBytes()
+        );
+
+        byte[] thumbnailBytes = "small thumbnail".getBytes();
+        when(aiService.getThumbnailWidths()).thenReturn(Set.of(320, 640, 1280));
+        when(aiService.generateThumbnail(any(), eq(320))).thenReturn(thumbnailBytes);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/ai/generate-thumbnail")
+                .file(videoFile)
+                .param("width", "320"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(thumbnailBytes));
+    }
+
+    @Test
+    void generateThumbnail_shouldReturnBadRequest_whenWidthIsUnsupported() throws Exception {
+        // Arrange
+        MockMultipartFile videoFile = new MockMultipartFile(
+                "video",
+                "test-video.mp4",
+                "video/mp4",
+                "test video content".getBytes()
+        );
+
+        when(aiService.getThumbnailWidths()).thenReturn(Set.of(320, 640, 1280));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/ai/generate-thumbnail")
+                .file(videoFile)
+                .param("width", "999"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,192 @@
+package com.saurabhh.tiktokreels.controller;
+
+import com.saurabhh.tiktokreels.dto.MediaCacheStatsDTO;
+import com.saurabhh.tiktokreels.service.FileStorageService;
+import com.saurabhh.tiktokreels.service.MediaCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class MediaControllerTest {
+
+    private static final String NAME = "a".repeat(64) + ".mp4";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private MediaCache mediaCache;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        // Only the first 8 bytes of a file are kept in memory, once they were asked for twice
+        mediaCache = new MediaCache(true, 10_000, 8, 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(fileStorageService, mediaCache)).build();
+        Path video = tempDir.resolve(NAME);
+        Files.write(video, "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII));
+        when(fileStorageService.find(anyString(), anyString())).thenReturn(Optional.empty());
+        when(fileStorageService.find(eq(FileStorageService.VIDEOS), eq(NAME))).thenReturn(Optional.of(video));
+    }
+
+    @Test
+    void getVideo_shouldReturnWholeFile_withValidators() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("ETag", "\"" + "a".repeat(64) + "\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(content().string("0123456789abcdefghij"));
+    }
+
+    @Test
+    void getVideo_shouldReturnPartialContent_forSingleRange() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-9/20"))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    void getVideo_shouldReturnSuffixRange() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 17-19/20"))
+                .andExpect(content().string("hij"));
+    }
+
+    @Test
+    void getVideo_shouldReturnMultipartByteranges_forMultipleRanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=0-1,10-11"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        String contentType = result.getResponse().getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01"));
+        assertTrue(body.contains("Content-Range: bytes 10-11/20\r\n\r\nab"));
+        assertEquals(body.getBytes(StandardCharsets.US_ASCII).length, result.getResponse().getContentLengthLong());
+    }
+
+    @Test
+    void getVideo_shouldReturnRangeNotSatisfiable_whenRangeIsPastEnd() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */20"));
+    }
+
+    @Test
+    void getVideo_shouldReturnRangeNotSatisfiable_whenOpenRangeStartsAtEnd() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */20"));
+    }
+
+    @Test
+    void getVideo_shouldReturnNotModified_whenEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("If-None-Match", "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getVideo_shouldIgnoreRange_whenIfRangeDoesNotMatch() throws Exception {
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=0-1").header("If-Range", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789abcdefghij"));
+    }
+
+    @Test
+    void getVideo_shouldServeRepeatedHeadRanges_fromMediaCache() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("2345"));
+        long entriesAfterFirstRead = mediaCache.getStats().getEntries();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=2-5"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(content().string("2345"));
+        }
+
+        // Assert: a one-off read is served from the file, the second loads the head, the rest hit it
+        assertEquals(0, entriesAfterFirstRead);
+        MediaCacheStatsDTO stats = mediaCache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(8, stats.getBytesServed());
+    }
+
+    @Test
+    void getVideo_shouldPreferSendfile_overMediaCache() throws Exception {
+        // Arrange
+        String name = "d".repeat(64) + ".mp4";
+        Path video = Files.write(tempDir.resolve(name), new byte[100 * 1024]);
+        when(fileStorageService.find(FileStorageService.VIDEOS, name)).thenReturn(Optional.of(video));
+        mediaCache = new MediaCache(true, 10_000_000, 64 * 1024, 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(new MediaController(fileStorageService, mediaCache)).build();
+
+        // Act & Assert: the head is in range of the cache, but sendfile never copies through the heap
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/videos/" + name).header("Range", "bytes=0-49151")
+                            .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                    .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 49152L));
+        }
+        assertEquals(0, mediaCache.getStats().getMisses() + mediaCache.getStats().getHits());
+    }
+
+    @Test
+    void getVideo_shouldServeRangesPastHead_fromFile() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/videos/" + NAME).header("Range", "bytes=6-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("6789"));
+
+        // Assert
+        assertEquals(0, mediaCache.getStats().getEntries());
+    }
+
+    @Test
+    void getHlsFile_shouldReturnSegment_withTransportStreamType() throws Exception {
+        // Arrange
+        Path segment = Files.write(tempDir.resolve("seg_000.ts"), new byte[] {0x47, 0, 0, 0});
+        when(fileStorageService.findHls(anyString(), anyString())).thenReturn(Optional.empty());
+        when(fileStorageService.findHls("abc", "240p/seg_000.ts")).thenReturn(Optional.of(segment));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/hls/abc/240p/seg_000.ts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "video/mp2t"));
+        mockMvc.perform(get("/api/hls/abc/480p/seg_000.ts"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getVideo_shouldReturnNotFound_whenObjectIsUnknown() throws Exception {
+        mockMvc.perform(get("/api/videos/" + "b".repeat(64) + ".mp4"))
+                .andExpect(status().isNotFound());
+    }
+}
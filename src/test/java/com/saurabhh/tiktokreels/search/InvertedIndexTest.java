@@ -0,0 +1,154 @@
+package com.saurabhh.tiktokreels.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void search_shouldRankByBm25() {
+        // Arrange
+        index.put(1L, 1L, Map.of("cat", 1, "video", 1, "funny", 1, "clip", 1), Set.of());
+        index.put(2L, 2L, Map.of("cat", 3, "video", 1), Set.of());
+        index.put(3L, 3L, Map.of("dog", 1, "video", 1), Set.of());
+
+        // Act
+        List<Long> results = index.search(List.of("cat"), List.of(), 0, 10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), results);
+    }
+
+    @Test
+    void search_shouldPreferRareTerms() {
+        // Arrange
+        index.put(1L, 1L, Map.of("video", 1, "cat", 1), Set.of());
+        index.put(2L, 2L, Map.of("video", 1, "dog", 1), Set.of());
+        index.put(3L, 3L, Map.of("video", 1, "bird", 1), Set.of());
+
+        // Act
+        List<Long> results = index.search(List.of("video", "cat"), List.of(), 0, 10);
+
+        // Assert
+        assertEquals(1L, results.get(0));
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    void search_shouldRequireEveryTag() {
+        // Arrange
+        index.put(1L, 1L, Map.of("dance", 1), Set.of("viral"));
+        index.put(2L, 2L, Map.of("dance", 1), Set.of("viral", "summer"));
+        index.put(3L, 3L, Map.of("dance", 1), Set.of());
+
+        // Act & Assert
+        assertEquals(Set.of(1L, 2L), Set.copyOf(index.search(List.of("dance"), List.of("viral"), 0, 10)));
+        assertEquals(List.of(2L), index.search(List.of(), List.of("viral", "summer"), 0, 10));
+        assertEquals(List.of(), index.search(List.of("dance"), List.of("unknown"), 0, 10));
+    }
+
+    @Test
+    void search_shouldListTagMatchesNewestFirst_withoutWords() {
+        // Arrange
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, id, Map.of("clip", 1), Set.of("viral"));
+        }
+
+        // Act & Assert
+        assertEquals(List.of(5L, 4L), index.search(List.of(), List.of("viral"), 0, 2));
+        assertEquals(List.of(3L, 2L), index.search(List.of(), List.of("viral"), 2, 2));
+    }
+
+    @Test
+    void search_shouldOrderByTimestamp_notIndexingOrder() {
+        // Arrange: indexed newest first, as a rebuild from the feed would
+        for (long id = 5; id >= 1; id--) {
+            index.put(id, id * 1000, Map.of("clip", 1), Set.of("viral"));
+        }
+
+        // Act & Assert
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), index.search(List.of(), List.of("viral"), 0, 10));
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), index.search(List.of("clip"), List.of(), 0, 10));
+    }
+
+    @Test
+    void search_shouldPageThroughRankedResults() {
+        // Arrange
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, id, Map.of("cat", (int) id), Set.of());
+        }
+
+        // Act
+        List<Long> first = index.search(List.of("cat"), List.of(), 0, 2);
+        List<Long> second = index.search(List.of("cat"), List.of(), 2, 2);
+        List<Long> last = index.search(List.of("cat"), List.of(), 4, 2);
+
+        // Assert
+        assertEquals(List.of(5L, 4L), first);
+        assertEquals(List.of(3L, 2L), second);
+        assertEquals(List.of(1L), last);
+    }
+
+    @Test
+    void put_shouldReplacePreviousVersion() {
+        // Arrange
+        index.put(1L, 1L, Map.of("cat", 1), Set.of("pets"));
+
+        // Act
+        index.put(1L, 1L, Map.of("dog", 1), Set.of());
+
+        // Assert
+        assertEquals(List.of(), index.search(List.of("cat"), List.of(), 0, 10));
+        assertEquals(List.of(), index.search(List.of(), List.of("pets"), 0, 10));
+        assertEquals(List.of(1L), index.search(List.of("dog"), List.of(), 0, 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void remove_shouldKeepResultsCorrect_acrossCompaction() {
+        // Arrange
+        for (long id = 1; id <= 5000; id++) {
+            index.put(id, id, Map.of("clip", 1, "n" + (id % 10), 1), Set.of("all"));
+        }
+
+        // Act: removing most documents triggers compaction
+        for (long id = 1; id <= 4000; id++) {
+            index.remove(id);
+        }
+        index.put(42L, 42L, Map.of("n3", 5), Set.of());
+
+        // Assert
+        assertEquals(1001, index.size());
+        List<Long> results = index.search(List.of("n3"), List.of(), 0, 200);
+        assertEquals(101, results.size());
+        assertEquals(42L, results.get(0));
+        assertTrue(results.stream().allMatch(id -> id == 42L || (id > 4000 && id % 10 == 3)));
+        assertEquals(1000, index.search(List.of(), List.of("all"), 0, 2000).size());
+    }
+
+    @Test
+    void put_shouldKeepRankingAndCompact_whenOneKeyIsReindexedOften() {
+        // Arrange
+        index.put(2L, 2L, Map.of("dance", 3), Set.of());
+        index.put(1L, 1L, Map.of("dance", 1), Set.of());
+        assertEquals(List.of(2L, 1L), index.search(List.of("dance"), List.of(), 0, 10));
+
+        // Act: every edit replaces the document and leaves a dead version behind
+        for (int edit = 0; edit < 5000; edit++) {
+            index.put(3L, 3L, Map.of("dance", 1, "clip", 1), Set.of("viral"));
+        }
+
+        // Assert: dead versions neither count towards idf nor pile up
+        assertEquals(List.of(2L, 1L, 3L), index.search(List.of("dance"), List.of(), 0, 10));
+        assertEquals(List.of(3L), index.search(List.of(), List.of("viral"), 0, 10));
+        assertEquals(3, index.size());
+        assertTrue(index.storedDocuments() < 2000);
+    }
+}
@@ -0,0 +1,75 @@
+package com.saurabhh.tiktokreels.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_shouldRoundTrip() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(4, 2, 8);
+
+        // Act
+        String hash = encoder.encode("secret");
+
+        // Assert
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void matches_shouldRejectFast_whenPoolIsSaturated() throws Exception {
+        // Arrange: one thread busy and one queued request fill the pool
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.matches(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        encoder = new BoundedPasswordEncoder(slow, 10, 1, 1);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "h"));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "h"));
+        while (encoder.getStats().getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("c", "h"));
+        assertEquals(1, encoder.getStats().getRejected());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void upgradeEncoding_shouldFlagHashesWithDifferentCost() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(6, 1, 1);
+
+        // Act & Assert
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(8).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-bcrypt"));
+    }
+}
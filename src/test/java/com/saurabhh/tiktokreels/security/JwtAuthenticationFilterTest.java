@@ -0,0 +1,95 @@
+package com.saurabhh.tiktokreels.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenProvider = new JwtTokenProvider("testSecretKey12345678901234567890123456789012345678901234567890", 60000, 100);
+        filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_shouldAuthenticateFromTokenAlone() throws Exception {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(7L, "carol", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reels/1");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(7L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_shouldLeaveRequestUnauthenticated_forInvalidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reels/1");
+        request.addHeader("Authorization", "Bearer not.a.token");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_shouldLoadLegacyPrincipal_bySubjectOfVerifiedToken() throws Exception {
+        // Arrange: a token without the uid/roles claims
+        User legacy = new User("bob", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(legacy, null, legacy.getAuthorities()));
+        when(userDetailsService.loadUserByUsername("bob")).thenReturn(legacy);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reels/1");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("bob", ((User) authentication.getPrincipal()).getUsername());
+        verify(userDetailsService, times(1)).loadUserByUsername("bob");
+    }
+}
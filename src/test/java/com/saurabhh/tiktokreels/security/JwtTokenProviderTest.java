@@ -0,0 +1,67 @@
+package com.saurabhh.tiktokreels.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "testSecretKey12345678901234567890123456789012345678901234567890";
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60000, 100);
+
+    @Test
+    void verify_shouldRebuildPrincipalFromClaims() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(42L, "alice", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        // Act
+        Optional<JwtTokenProvider.VerifiedToken> first = tokenProvider.verify(token);
+        Optional<JwtTokenProvider.VerifiedToken> cached = tokenProvider.verify(token);
+
+        // Assert
+        assertTrue(first.isPresent());
+        AuthenticatedUser principal = first.get().getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertNull(principal.getPassword());
+        assertEquals("ROLE_USER", principal.getAuthorities().get(0).getAuthority());
+        assertSame(first.get(), cached.get());
+    }
+
+    @Test
+    void verify_shouldRejectTamperedToken() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(42L, "alice", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Act & Assert
+        assertTrue(tokenProvider.verify(tampered).isEmpty());
+        assertTrue(new JwtTokenProvider("another" + SECRET, 60000, 100).verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_shouldDeferToDatabase_forTokensWithoutUserId() {
+        // Arrange: a principal without an id, as issued before the uid claim existed
+        User legacy = new User("bob", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(legacy, null, legacy.getAuthorities()));
+
+        // Act & Assert
+        Optional<JwtTokenProvider.VerifiedToken> verified = tokenProvider.verify(token);
+        assertTrue(verified.isPresent());
+        assertNull(verified.get().getPrincipal());
+        assertEquals("bob", verified.get().getSubject());
+        assertEquals("bob", tokenProvider.getUsernameFromToken(token));
+        assertTrue(tokenProvider.validateToken(token, legacy));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +32,9 @@ class AIServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Spy
+    private ThumbnailEngine thumbnailEngine = new ThumbnailEngine("ffmpeg", List.of(320, 640, 1280), 1, 5000);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -191,4 +196,21 @@ class AIServiceTest {
         assertNotNull(thumbnail);
         assertTrue(thumbnail.length > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateThumbnails_shouldReturnEachRequestedWidth() {
+        // Act: not a decodable video, so the placeholder is scaled instead
+        Map<Integer, byte[]> thumbnails = aiService.generateThumbnails(null, "test-video.mp4", List.of(320, 640));
+
+        // Assert
+        assertEquals(2, thumbnails.size());
+        assertTrue(thumbnails.get(320).length > 0);
+        assertTrue(thumbnails.get(640).length > thumbnails.get(320).length);
+    }
+
+    @Test
+    void generateThumbnails_shouldRejectUnsupportedWidth() {
+        assertThrows(IllegalArgumentException.class,
+                () -> aiService.generateThumbnails(null, "test-video.mp4", List.of(123)));
+    }
+}
@@ -0,0 +1,168 @@
+package com.saurabhh.tiktokreels.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CounterAggregatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CounterAggregator counterAggregator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        counterAggregator = new CounterAggregator(jdbcTemplate, transactionTemplate, eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteOneBatchedDeltaPerReel() {
+        // Arrange
+        for (int i = 0; i < 500; i++) {
+            counterAggregator.incrementViews(1L);
+        }
+        counterAggregator.incrementViews(2L);
+
+        // Act
+        counterAggregator.flush();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE reels SET views_count = views_count + ? WHERE id = ?"), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        long total = batch.getValue().stream().mapToLong(args -> (Long) args[0]).sum();
+        assertEquals(501, total);
+        assertEquals(0, counterAggregator.getPendingViews(1L));
+    }
+
+    @Test
+    void flush_shouldKeepDeltas_whenBatchFails() {
+        // Arrange
+        counterAggregator.incrementLikes(3L);
+        counterAggregator.incrementLikes(3L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("DB down"));
+
+        // Act
+        counterAggregator.flush();
+
+        // Assert
+        assertEquals(2, counterAggregator.getPendingLikes(3L));
+    }
+
+    @Test
+    void incrementViews_shouldNotLoseUpdates_whileFlushing() throws InterruptedException {
+        // Arrange
+        long[] flushed = new long[1];
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            synchronized (flushed) {
+                batch.forEach(args -> flushed[0] += (Long) args[0]);
+            }
+            return new int[batch.size()];
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counterAggregator.incrementViews(1L);
+                    if (i % 1000 == 0) {
+                        counterAggregator.flush();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        counterAggregator.flush();
+
+        // Assert
+        assertEquals(80_000, flushed[0]);
+    }
+
+    @Test
+    void flush_shouldPublishCommittedDeltas() {
+        // Arrange
+        counterAggregator.incrementViews(1L);
+        counterAggregator.incrementViews(1L);
+        counterAggregator.incrementLikes(2L);
+        ArgumentCaptor<CountersFlushedEvent> event = ArgumentCaptor.forClass(CountersFlushedEvent.class);
+
+        // Act
+        counterAggregator.flush();
+        counterAggregator.flush();
+
+        // Assert: the second, empty flush publishes nothing
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(2L, event.getValue().getViewDeltas().get(1L));
+        assertEquals(1L, event.getValue().getLikeDeltas().get(2L));
+    }
+
+    @Test
+    void flush_shouldKeepDeltasPending_untilFlushedEventIsPublished() {
+        // Arrange
+        counterAggregator.incrementViews(1L);
+        counterAggregator.incrementLikes(1L);
+        long[] pendingAtPublish = new long[2];
+        doAnswer(invocation -> {
+            pendingAtPublish[0] = counterAggregator.getPendingViews(1L);
+            pendingAtPublish[1] = counterAggregator.getPendingLikes(1L);
+            return null;
+        }).when(eventPublisher).publishEvent(any(CountersFlushedEvent.class));
+
+        // Act
+        counterAggregator.flush();
+
+        // Assert: listeners drop cached counts before the deltas stop counting as pending
+        assertArrayEquals(new long[] {1, 1}, pendingAtPublish);
+        assertEquals(0, counterAggregator.getPendingViews(1L));
+        assertEquals(0, counterAggregator.getPendingLikes(1L));
+    }
+
+    @Test
+    void addViews_shouldFlushViewsAndWatchTimeAsOneBatchEach() {
+        // Arrange
+        counterAggregator.addViews(1L, 3, 4_500);
+        counterAggregator.addViews(2L, 1, 0);
+
+        // Act
+        counterAggregator.flush();
+
+        // Assert
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE reels SET views_count = views_count + ? WHERE id = ?"), anyList());
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE reels SET watch_time_ms = watch_time_ms + ? WHERE id = ?"),
+                argThat((List<Object[]> batch) -> batch.size() == 1 && (Long) batch.get(0)[0] == 4_500L && batch.get(0)[1].equals(1L)));
+    }
+}
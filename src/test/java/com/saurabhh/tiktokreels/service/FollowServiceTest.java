@@ -0,0 +1,96 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.FollowRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FollowServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @InjectMocks
+    private FollowService followService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void follow_shouldCountOnce_andRebuildTimeline() {
+        // Arrange
+        when(followRepository.insertIfAbsent(1L, 2L)).thenReturn(1, 0);
+
+        // Act
+        boolean first = followService.follow(1L, 2L);
+        boolean second = followService.follow(1L, 2L);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(userRepository, times(1)).adjustFollowersCount(2L, 1);
+        verify(userRepository, times(1)).adjustFollowingCount(1L, 1);
+        verify(timelineService, times(1)).invalidate(1L);
+    }
+
+    @Test
+    void followAndUnfollow_shouldReportFollowerCountChange() {
+        // Arrange
+        when(followRepository.insertIfAbsent(1L, 2L)).thenReturn(1);
+        when(followRepository.deleteFollow(1L, 2L)).thenReturn(1);
+        when(userRepository.findFollowersCount(2L)).thenReturn(Optional.of(5), Optional.of(4));
+
+        // Act
+        followService.follow(1L, 2L);
+        followService.unfollow(1L, 2L);
+
+        // Assert
+        verify(timelineService).followersChanged(2L, 4, 5);
+        verify(timelineService).followersChanged(2L, 5, 4);
+    }
+
+    @Test
+    void follow_shouldRejectSelfAndUnknownUsers() {
+        // Arrange
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> followService.follow(1L, 1L));
+        assertThrows(EntityNotFoundException.class, () -> followService.follow(1L, 99L));
+        verify(followRepository, never()).insertIfAbsent(anyLong(), anyLong());
+    }
+
+    @Test
+    void unfollow_shouldOnlyAdjustCounts_whenAFollowWasRemoved() {
+        // Arrange
+        when(followRepository.deleteFollow(1L, 2L)).thenReturn(0);
+
+        // Act
+        boolean removed = followService.unfollow(1L, 2L);
+
+        // Assert
+        assertFalse(removed);
+        verify(userRepository, never()).adjustFollowersCount(anyLong(), anyInt());
+        verify(timelineService, never()).invalidate(anyLong());
+    }
+}
@@ -0,0 +1,149 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.IngestionJobDTO;
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IngestionServiceTest {
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private MediaObjectService mediaObjectService;
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private ReelService reelService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TranscodeService transcodeService;
+
+    private IngestionService ingestionService;
+
+    private final MockMultipartFile videoFile = new MockMultipartFile(
+            "video", "test-video.mp4", "video/mp4", "test video content".getBytes());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReelEnricher reelEnricher = new ReelEnricher(aiService, fileStorageService, mediaObjectService, 5000, 5000, 2);
+        ingestionService = new IngestionService(fileStorageService, reelEnricher, reelService, userRepository, transcodeService,
+                mediaObjectService, 1, 1, 3, 1, 60000);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(fileStorageService.uploadVideo(any())).thenReturn("/api/videos/abc.mp4");
+        when(fileStorageService.findByUrl(anyString())).thenReturn(Optional.empty());
+        when(fileStorageService.uploadGeneratedThumbnail(any(), anyString())).thenReturn("/api/thumbnails/def.jpg");
+        when(aiService.generateThumbnail(any(), anyString())).thenReturn(new byte[] {1});
+        when(reelService.publishIngested(anyString(), any(ReelDTO.class))).thenReturn(ReelDTO.builder().id(42L).build());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestionService.shutdown();
+    }
+
+    @Test
+    void submit_shouldReturnQueuedJob_andPublishReelInBackground() throws Exception {
+        // Arrange
+        when(aiService.generateCaption(any(), anyString())).thenReturn("Test Video");
+
+        // Act
+        IngestionJobDTO queued = ingestionService.submit(1L, "Title", null, "public", videoFile, null);
+        IngestionJobDTO finished = awaitFinished(queued.getJobId());
+
+        // Assert
+        assertEquals("COMPLETED", finished.getStatus());
+        assertEquals(42L, finished.getReelId());
+        ArgumentCaptor<ReelDTO> reel = ArgumentCaptor.forClass(ReelDTO.class);
+        verify(reelService).publishIngested(eq(queued.getJobId()), reel.capture());
+        assertEquals("Test Video [AI Generated]", reel.getValue().getDescription());
+        assertEquals("/api/thumbnails/def.jpg", reel.getValue().getThumbnailUrl());
+    }
+
+    @Test
+    void submit_shouldRetryFailedStage() throws Exception {
+        // Arrange
+        when(aiService.generateCaption(any(), anyString()))
+                .thenThrow(new RuntimeException("flaky"))
+                .thenReturn("Second Try");
+
+        // Act
+        IngestionJobDTO finished = awaitFinished(
+                ingestionService.submit(1L, "Title", "", "public", videoFile, null).getJobId());
+
+        // Assert
+        assertEquals("COMPLETED", finished.getStatus());
+        verify(aiService, times(2)).generateCaption(any(), anyString());
+    }
+
+    @Test
+    void submit_shouldFailJob_whenPublishKeepsFailing() throws Exception {
+        // Arrange
+        when(reelService.publishIngested(anyString(), any(ReelDTO.class))).thenThrow(new RuntimeException("DB down"));
+
+        // Act
+        IngestionJobDTO finished = awaitFinished(
+                ingestionService.submit(1L, "Title", "desc", "public", videoFile, null).getJobId());
+
+        // Assert
+        assertEquals("FAILED", finished.getStatus());
+        assertEquals("PUBLISH", finished.getStage());
+        verify(reelService, times(3)).publishIngested(eq(finished.getJobId()), any(ReelDTO.class));
+        // Nothing will reference the upload, so the sweep may delete it
+        verify(mediaObjectService).discard("/api/videos/abc.mp4");
+    }
+
+    @Test
+    void submit_shouldRejectUpload_whenQueueIsFull() throws Exception {
+        // Arrange: block the single worker and fill the single queue slot
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.generateCaption(any(), anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return "caption";
+        });
+        ingestionService.submit(1L, "Running", null, "public", videoFile, null);
+        Thread.sleep(100);
+        ingestionService.submit(1L, "Queued", null, "public", videoFile, null);
+
+        // Act & Assert
+        assertThrows(IngestionBusyException.class,
+                () -> ingestionService.submit(1L, "Rejected", null, "public", videoFile, null));
+        verify(mediaObjectService).discard("/api/videos/abc.mp4");
+        release.countDown();
+    }
+
+    private IngestionJobDTO awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            IngestionJobDTO job = ingestionService.getJob(jobId).orElseThrow();
+            if (job.getStatus().equals("COMPLETED") || job.getStatus().equals("FAILED")) {
+                return job;
+            }
+            Thread.sleep(25);
+        }
+        fail("Job did not finish in time");
+        return null;
+    }
+}
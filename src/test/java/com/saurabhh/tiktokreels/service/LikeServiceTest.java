@@ -0,0 +1,124 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.ReelLikeId;
+import com.saurabhh.tiktokreels.repository.ReelLikeRepository;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LikeServiceTest {
+
+    @Mock
+    private ReelLikeRepository reelLikeRepository;
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    @Mock
+    private CounterAggregator counterAggregator;
+
+    private LikeService likeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        likeService = new LikeService(reelLikeRepository, reelRepository, counterAggregator, 1000, 0.01);
+        when(reelRepository.existsById(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void like_shouldCountOnce_whenRepeated() {
+        // Arrange
+        when(reelLikeRepository.insertIfAbsent(3L, 7L)).thenReturn(1, 0);
+
+        // Act
+        boolean first = likeService.like(3L, 7L);
+        boolean second = likeService.like(3L, 7L);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(counterAggregator, times(1)).incrementLikes(7L);
+    }
+
+    @Test
+    void like_shouldRejectUnknownReel() {
+        // Arrange
+        when(reelRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> likeService.like(3L, 99L));
+        verifyNoInteractions(reelLikeRepository, counterAggregator);
+    }
+
+    @Test
+    void unlike_shouldOnlyDecrement_whenLikeExisted() {
+        // Arrange
+        when(reelLikeRepository.deleteLike(3L, 7L)).thenReturn(1, 0);
+
+        // Act
+        likeService.unlike(3L, 7L);
+        likeService.unlike(3L, 7L);
+
+        // Assert
+        verify(counterAggregator, times(1)).decrementLikes(7L);
+    }
+
+    @Test
+    void likedAmong_shouldQueryEveryReel_untilWarmedUp() {
+        // Arrange
+        when(reelLikeRepository.findLikedReelIds(eq(3L), any())).thenReturn(List.of(2L));
+
+        // Act
+        Set<Long> liked = likeService.likedAmong(3L, List.of(1L, 2L));
+
+        // Assert
+        assertEquals(Set.of(2L), liked);
+        verify(reelLikeRepository).findLikedReelIds(3L, Set.of(1L, 2L));
+    }
+
+    @Test
+    void likedAmong_shouldSkipQuery_whenFilterRulesEveryReelOut() {
+        // Arrange
+        when(reelLikeRepository.findKeysAfter(eq(0L), eq(0L), any()))
+                .thenReturn(List.of(new ReelLikeId(3L, 1L)));
+        likeService.warmUp();
+
+        // Act
+        Set<Long> liked = likeService.likedAmong(4L, List.of(1L, 2L, 3L));
+
+        // Assert
+        assertTrue(liked.isEmpty());
+        verify(reelLikeRepository, never()).findLikedReelIds(anyLong(), any());
+    }
+
+    @Test
+    void likedAmong_shouldOnlyQueryCandidates_afterWarmUp() {
+        // Arrange
+        when(reelLikeRepository.findKeysAfter(eq(0L), eq(0L), any()))
+                .thenReturn(List.of(new ReelLikeId(3L, 1L)));
+        likeService.warmUp();
+        when(reelLikeRepository.insertIfAbsent(3L, 2L)).thenReturn(1);
+        likeService.like(3L, 2L);
+        when(reelLikeRepository.findLikedReelIds(eq(3L), any())).thenReturn(List.of(1L, 2L));
+
+        // Act
+        Set<Long> liked = likeService.likedAmong(3L, List.of(1L, 2L, 50L));
+
+        // Assert
+        assertEquals(Set.of(1L, 2L), liked);
+        verify(reelLikeRepository).findLikedReelIds(3L, Set.of(1L, 2L));
+    }
+}
@@ -0,0 +1,136 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.MediaObjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MediaObjectServiceTest {
+
+    private static final String VIDEO_URL = "/api/videos/v.mp4";
+    private static final String VIDEO_KEY = "videos/v.mp4";
+
+    @Mock
+    private MediaObjectRepository mediaObjectRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private MediaObjectService mediaObjectService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mediaObjectService = new MediaObjectService(mediaObjectRepository, fileStorageService, 60000);
+        when(fileStorageService.objectKeyOf(VIDEO_URL)).thenReturn(Optional.of(VIDEO_KEY));
+    }
+
+    @Test
+    void retain_shouldIgnoreUrlsThatAreNotStoredObjects() {
+        // Arrange
+        when(fileStorageService.objectKeyOf("https://example.com/video.mp4")).thenReturn(Optional.empty());
+
+        // Act
+        mediaObjectService.retain("https://example.com/video.mp4");
+        mediaObjectService.retain(VIDEO_URL);
+
+        // Assert
+        verify(mediaObjectRepository, times(1)).retain(VIDEO_KEY);
+    }
+
+    @Test
+    void release_shouldOnlyDecrement_whileOtherReelsReferenceIt() {
+        // Arrange: the count drops from 2 to 1
+        when(mediaObjectRepository.decrementRefCount(VIDEO_KEY)).thenReturn(1);
+        when(mediaObjectRepository.markReleased(eq(VIDEO_KEY), any())).thenReturn(0);
+
+        // Act
+        mediaObjectService.release(VIDEO_URL);
+
+        // Assert: files are only ever deleted by the sweep
+        verify(fileStorageService, never()).deleteIfIdle(anyString(), anyLong());
+    }
+
+    @Test
+    void release_shouldMarkObject_whenLastReferenceGoes() {
+        // Arrange
+        when(mediaObjectRepository.decrementRefCount(VIDEO_KEY)).thenReturn(1);
+
+        // Act
+        mediaObjectService.release(VIDEO_URL);
+
+        // Assert
+        verify(mediaObjectRepository).markReleased(eq(VIDEO_KEY), any(Instant.class));
+        verify(fileStorageService, never()).deleteIfIdle(anyString(), anyLong());
+    }
+
+    @Test
+    void release_shouldNotMarkAnything_whenObjectWasNotReferenced() {
+        // Arrange
+        when(mediaObjectRepository.decrementRefCount(VIDEO_KEY)).thenReturn(0);
+
+        // Act
+        mediaObjectService.release(VIDEO_URL);
+
+        // Assert
+        verify(mediaObjectRepository, never()).markReleased(anyString(), any());
+    }
+
+    @Test
+    void sweepUnreferenced_shouldDeleteRowFileAndHlsOutput() {
+        // Arrange
+        when(mediaObjectRepository.findReleasedBefore(any(), any())).thenReturn(List.of(VIDEO_KEY));
+        when(mediaObjectRepository.deleteIfReleasedBefore(eq(VIDEO_KEY), any())).thenReturn(1);
+        when(fileStorageService.urlOf(VIDEO_KEY)).thenReturn(Optional.of(VIDEO_URL));
+        when(fileStorageService.deleteIfIdle(VIDEO_URL, 60000)).thenReturn(true);
+
+        // Act
+        mediaObjectService.sweepUnreferenced();
+
+        // Assert
+        verify(fileStorageService).deleteIfIdle(VIDEO_URL, 60000);
+        verify(fileStorageService).deleteHls(VIDEO_URL);
+    }
+
+    @Test
+    void sweepUnreferenced_shouldKeepHlsOutput_whileSameContentIsStoredUnderAnotherExtension() {
+        // Arrange: v.mov has the same content hash, so its reels play the same HLS ladder
+        when(mediaObjectRepository.findReleasedBefore(any(), any())).thenReturn(List.of(VIDEO_KEY));
+        when(mediaObjectRepository.deleteIfReleasedBefore(eq(VIDEO_KEY), any())).thenReturn(1);
+        when(mediaObjectRepository.existsOtherWithPrefix("videos/v.", VIDEO_KEY)).thenReturn(true);
+        when(fileStorageService.urlOf(VIDEO_KEY)).thenReturn(Optional.of(VIDEO_URL));
+        when(fileStorageService.deleteIfIdle(VIDEO_URL, 60000)).thenReturn(true);
+
+        // Act
+        mediaObjectService.sweepUnreferenced();
+
+        // Assert
+        verify(fileStorageService).deleteIfIdle(VIDEO_URL, 60000);
+        verify(fileStorageService, never()).deleteHls(anyString());
+    }
+
+    @Test
+    void sweepUnreferenced_shouldKeepFile_whenRetainedAgainSinceFound() {
+        // Arrange: a new reel took a reference between the query and the delete
+        when(mediaObjectRepository.findReleasedBefore(any(), any())).thenReturn(List.of(VIDEO_KEY));
+        when(mediaObjectRepository.deleteIfReleasedBefore(eq(VIDEO_KEY), any())).thenReturn(0);
+
+        // Act
+        mediaObjectService.sweepUnreferenced();
+
+        // Assert
+        verify(fileStorageService, never()).deleteIfIdle(anyString(), anyLong());
+        verify(fileStorageService, never()).deleteHls(anyString());
+    }
+}
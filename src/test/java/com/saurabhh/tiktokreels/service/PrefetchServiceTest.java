@@ -0,0 +1,109 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.PrefetchDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class PrefetchServiceTest {
+
+    private static final String VIDEO_URL = "/api/videos/abc.mp4";
+    private static final String THUMBNAIL_URL = "/api/thumbnails/abc.jpg";
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @TempDir
+    Path tempDir;
+
+    private PrefetchService prefetchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        // Only the first kilobyte of an untranscoded video is hinted
+        prefetchService = new PrefetchService(fileStorageService, 3, 1024, 1, 16, 100, 60000);
+        when(fileStorageService.findByUrl(any())).thenReturn(Optional.empty());
+        when(fileStorageService.findByUrl(VIDEO_URL))
+                .thenReturn(Optional.of(Files.write(tempDir.resolve("abc.mp4"), new byte[4096])));
+        when(fileStorageService.findByUrl(THUMBNAIL_URL))
+                .thenReturn(Optional.of(Files.write(tempDir.resolve("abc.jpg"), new byte[100])));
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetchService.shutdown();
+    }
+
+    @Test
+    void manifest_shouldHintFirstSegment_whenTranscoded() throws Exception {
+        // Arrange
+        Path segment = Files.write(tempDir.resolve("seg_000.ts"), new byte[2500]);
+        when(fileStorageService.findByUrl("/api/hls/abc/240p/seg_000.ts")).thenReturn(Optional.of(segment));
+        Reel reel = Reel.builder().id(1L).videoUrl(VIDEO_URL).thumbnailUrl(THUMBNAIL_URL)
+                .hlsUrl("/api/hls/abc/master.m3u8").build();
+
+        // Act
+        List<PrefetchDTO> hints = prefetchService.manifest(List.of(reel));
+
+        // Assert: the whole segment, which is larger than the video prefix
+        assertEquals(1, hints.size());
+        assertEquals(1L, hints.get(0).getReelId());
+        assertEquals("/api/hls/abc/240p/seg_000.ts", hints.get(0).getUrl());
+        assertEquals(2500, hints.get(0).getBytes());
+        assertEquals(THUMBNAIL_URL, hints.get(0).getThumbnailUrl());
+    }
+
+    @Test
+    void manifest_shouldHintStartOfVideo_untilTranscoded() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).videoUrl(VIDEO_URL).thumbnailUrl(THUMBNAIL_URL).build();
+
+        // Act
+        List<PrefetchDTO> hints = prefetchService.manifest(List.of(reel));
+
+        // Assert
+        assertEquals(VIDEO_URL, hints.get(0).getUrl());
+        assertEquals(1024, hints.get(0).getBytes());
+    }
+
+    @Test
+    void manifest_shouldFallBackToVideo_whenHlsOutputIsGone() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).videoUrl(VIDEO_URL).hlsUrl("/api/hls/abc/master.m3u8").build();
+
+        // Act
+        List<PrefetchDTO> hints = prefetchService.manifest(List.of(reel));
+
+        // Assert
+        assertEquals(VIDEO_URL, hints.get(0).getUrl());
+        assertEquals(1024, hints.get(0).getBytes());
+    }
+
+    @Test
+    void manifest_shouldSkipExternalVideos() {
+        // Arrange
+        Reel external = Reel.builder().id(1L).videoUrl("https://example.com/video.mp4").build();
+        Reel stored = Reel.builder().id(2L).videoUrl(VIDEO_URL).build();
+
+        // Act
+        List<PrefetchDTO> hints = prefetchService.manifest(List.of(external, stored));
+
+        // Assert
+        assertEquals(1, hints.size());
+        assertEquals(2L, hints.get(0).getReelId());
+    }
+}
@@ -0,0 +1,144 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.MediaObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReelEnricherTest {
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private MediaObjectService mediaObjectService;
+
+    private ReelEnricher reelEnricher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reelEnricher = new ReelEnricher(aiService, fileStorageService, mediaObjectService, 1000, 100, 2);
+        when(aiService.generateThumbnail(any(), anyString())).thenReturn(new byte[] {1});
+        when(fileStorageService.uploadGeneratedThumbnail(any(), anyString())).thenReturn("/api/thumbnails/t.jpg");
+    }
+
+    @AfterEach
+    void tearDown() {
+        reelEnricher.shutdown();
+    }
+
+    @Test
+    void start_shouldRunThumbnailAndCaptionConcurrently() {
+        // Arrange: each step blocks until the other one has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(aiService.generateThumbnail(any(), anyString())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return new byte[] {1};
+        });
+        when(aiService.generateCaption(any(), anyString())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return "Caption";
+        });
+        reelEnricher = new ReelEnricher(aiService, fileStorageService, mediaObjectService, 5000, 5000, 1);
+
+        // Act
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, null, "clip.mp4", true, true);
+
+        // Assert
+        assertEquals("/api/thumbnails/t.jpg", enrichment.awaitThumbnail());
+        assertEquals("Caption [AI Generated]", enrichment.awaitCaption());
+        assertEquals(0, bothStarted.getCount());
+    }
+
+    @Test
+    void whenLate_shouldDeliverStepThatMissedItsTimeout() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.generateCaption(any(), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "Slow Caption";
+        });
+        CompletableFuture<String> lateCaption = new CompletableFuture<>();
+
+        // Act
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, null, "clip.mp4", true, true);
+        String thumbnailUrl = enrichment.awaitThumbnail();
+        String caption = enrichment.awaitCaption();
+        enrichment.whenLate(url -> fail("Thumbnail was not late"), lateCaption::complete);
+        release.countDown();
+
+        // Assert
+        assertEquals("/api/thumbnails/t.jpg", thumbnailUrl);
+        assertNull(caption);
+        assertEquals("Slow Caption [AI Generated]", lateCaption.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void start_shouldRetryFailedStep_andGiveUpWithNull() {
+        // Arrange
+        when(aiService.generateCaption(any(), anyString())).thenThrow(new RuntimeException("AI down"));
+
+        // Act
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, null, "clip.mp4", false, true);
+
+        // Assert
+        assertNull(enrichment.awaitCaption());
+        verify(aiService, times(2)).generateCaption(any(), anyString());
+        verify(aiService, never()).generateThumbnail(any(), anyString());
+    }
+
+    @Test
+    void start_shouldReuseCachedResults_forSameVideoContent() {
+        // Arrange: the same clip was enriched before
+        Path videoPath = Path.of("storage", "videos", "ab", "cd", "abcd.mp4");
+        when(mediaObjectService.findVideo("abcd.mp4")).thenReturn(Optional.of(MediaObject.builder()
+                .objectKey("videos/abcd.mp4")
+                .thumbnailUrl("/api/thumbnails/cached.jpg")
+                .caption("Cached [AI Generated]")
+                .build()));
+        when(fileStorageService.findByUrl("/api/thumbnails/cached.jpg")).thenReturn(Optional.of(videoPath));
+
+        // Act
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, videoPath, "repost.mp4", true, true);
+
+        // Assert
+        assertEquals("/api/thumbnails/cached.jpg", enrichment.awaitThumbnail());
+        assertEquals("Cached [AI Generated]", enrichment.awaitCaption());
+        verifyNoInteractions(aiService);
+    }
+
+    @Test
+    void start_shouldCacheGeneratedResults_byVideoContent() {
+        // Arrange
+        Path videoPath = Path.of("storage", "videos", "ab", "cd", "abcd.mp4");
+        when(aiService.generateCaption(any(), anyString())).thenReturn("Caption");
+
+        // Act
+        ReelEnricher.Enrichment enrichment = reelEnricher.start(1L, videoPath, "clip.mp4", true, true);
+        enrichment.awaitThumbnail();
+        enrichment.awaitCaption();
+
+        // Assert
+        verify(mediaObjectService).cacheThumbnail("abcd.mp4", "/api/thumbnails/t.jpg");
+        verify(mediaObjectService).cacheCaption("abcd.mp4", "Caption [AI Generated]");
+    }
+}
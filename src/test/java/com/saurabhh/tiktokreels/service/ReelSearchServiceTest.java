@@ -0,0 +1,135 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ReelSearchServiceTest {
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    private ReelSearchService reelSearchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reelSearchService = new ReelSearchService(reelRepository);
+    }
+
+    @Test
+    void search_shouldMatchTitleAndDescription_caseInsensitively() {
+        // Arrange
+        reelSearchService.index(reel(1L, "Sunset Timelapse", "Filmed at the beach", false));
+        reelSearchService.index(reel(2L, "Cooking pasta", "A quick beach picnic", false));
+
+        // Act & Assert
+        assertEquals(List.of(1L), reelSearchService.search("SUNSET", 0, 10));
+        assertEquals(2, reelSearchService.search("beach", 0, 10).size());
+    }
+
+    @Test
+    void search_shouldWeightTitleAboveDescription() {
+        // Arrange
+        reelSearchService.index(reel(1L, "Morning run", "with my dog", false));
+        reelSearchService.index(reel(2L, "My dog", "morning run", false));
+
+        // Act & Assert
+        assertEquals(List.of(2L, 1L), reelSearchService.search("dog", 0, 10));
+    }
+
+    @Test
+    void search_shouldUseHashtagField_forHashtagQueries() {
+        // Arrange
+        reelSearchService.index(reel(1L, "Dance", "new moves #viral", false));
+        reelSearchService.index(reel(2L, "Dance", "this is not viral yet", false));
+
+        // Act & Assert
+        assertEquals(List.of(1L), reelSearchService.search("#viral", 0, 10));
+        assertEquals(List.of(1L), reelSearchService.search("dance #VIRAL", 0, 10));
+    }
+
+    @Test
+    void index_shouldDropReel_whenItBecomesPrivate() {
+        // Arrange
+        reelSearchService.index(reel(1L, "Secret recipe", "", false));
+
+        // Act
+        reelSearchService.index(reel(1L, "Secret recipe", "", true));
+
+        // Assert
+        assertTrue(reelSearchService.search("recipe", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldIgnoreGeneratedCaptionMarker() {
+        // Arrange
+        reelSearchService.index(reel(1L, "Beach", "Waves at dusk [AI Generated]", false));
+
+        // Act & Assert
+        assertTrue(reelSearchService.search("generated", 0, 10).isEmpty());
+        assertEquals(List.of(1L), reelSearchService.search("waves", 0, 10));
+    }
+
+    @Test
+    void rebuild_shouldLoadAllPublicReels_inBatches() {
+        // Arrange
+        Reel first = reel(1L, "Cats", "", false);
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(List.of(first));
+        when(reelRepository.findPublicFeedPageAfter(eq(first.getCreatedAt()), eq(1L), any()))
+                .thenReturn(List.of(reel(2L, "More cats", "", false)));
+
+        // Act
+        reelSearchService.rebuild();
+
+        // Assert
+        assertEquals(2, reelSearchService.size());
+        assertEquals(2, reelSearchService.search("cats", 0, 10).size());
+    }
+
+    @Test
+    void rebuild_shouldListHashtagMatchesNewestFirst() {
+        // Arrange: the feed pages are newest first, and a lower id is newer here
+        Reel newest = reel(1L, "Cats", "#cats", false);
+        Reel older = reel(2L, "More cats", "#cats", false);
+        Reel oldest = reel(3L, "Old cats", "#cats", false);
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(List.of(newest, older));
+        when(reelRepository.findPublicFeedPageAfter(eq(older.getCreatedAt()), eq(2L), any()))
+                .thenReturn(List.of(oldest));
+
+        // Act
+        reelSearchService.rebuild();
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), reelSearchService.search("#cats", 0, 10));
+    }
+
+    @Test
+    void index_shouldKeepPosition_whenOldReelIsEdited() {
+        // Arrange
+        reelSearchService.index(reel(2L, "Dance", "#viral", false));
+        reelSearchService.index(reel(1L, "Dance", "#viral", false));
+
+        // Act: editing the older reel re-indexes it last
+        reelSearchService.index(reel(2L, "Dance again", "#viral", false));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), reelSearchService.search("#viral", 0, 10));
+    }
+
+    private static Reel reel(Long id, String title, String description, boolean isPrivate) {
+        return Reel.builder().id(id).title(title).description(description).isPrivate(isPrivate)
+                .createdAt(Instant.parse("2024-01-01T00:00:00Z").minusSeconds(id)).build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the SQL statements behind a feed page on the H2 database of the
+ * loadtest profile: one for the page and one for all of its authors, however
+ * many reels the page holds.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("loadtest")
+class ReelServiceQueryCountTest {
+
+    private static final int AUTHORS = 10;
+    private static final int REELS = 150;
+
+    @Autowired
+    private ReelRepository reelRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ReelService reelService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        reelService = new ReelService(reelRepository, userRepository,
+                mock(FileStorageService.class), mock(AIService.class), mock(CounterAggregator.class),
+                mock(ReelEnricher.class), mock(MediaObjectService.class), new ReelCache(false, 100, 60000),
+                mock(TrendingService.class), mock(LikeService.class), mock(WatchStatsService.class),
+                mock(ReelSearchService.class), mock(TagService.class), mock(TimelineService.class),
+                mock(TranscodeService.class), mock(PrefetchService.class), mock(TransactionTemplate.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<User> authors = new ArrayList<>();
+        for (int i = 1; i <= AUTHORS; i++) {
+            authors.add(userRepository.save(User.builder().username("user" + i).email("user" + i + "@example.com")
+                    .password("hash").followersCount(0).followingCount(0).createdAt(Instant.now()).build()));
+        }
+        Instant start = Instant.now().minusSeconds(REELS);
+        for (int i = 0; i < REELS; i++) {
+            reelRepository.save(Reel.builder().userId(authors.get(i % AUTHORS).getId()).title("Reel " + i)
+                    .likesCount(0).viewsCount(0).watchTimeMs(0L).isPrivate(false)
+                    .createdAt(start.plusSeconds(i)).updatedAt(start.plusSeconds(i)).build());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void getAllReels_shouldRunTwoStatements_regardlessOfPageSize() {
+        for (int pageSize : new int[] {1, 50, 100}) {
+            // Arrange: nothing cached in the persistence context, so every lazy load would be a statement
+            entityManager.clear();
+            statistics.clear();
+
+            // Act
+            List<ReelDTO> feed = reelService.getAllReels(null, pageSize, null).getReels();
+
+            // Assert
+            assertEquals(pageSize, feed.size());
+            assertEquals("user" + ((REELS - 1) % AUTHORS + 1), feed.get(0).getUsername());
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for a page of " + pageSize);
+        }
+    }
+}
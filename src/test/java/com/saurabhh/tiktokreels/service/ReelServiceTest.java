@@ -0,0 +1,517 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.TimelineBuffer;
+import com.saurabhh.tiktokreels.dto.ReelDTO;
+import com.saurabhh.tiktokreels.dto.ReelPageDTO;
+import com.saurabhh.tiktokreels.dto.TagPageDTO;
+import com.saurabhh.tiktokreels.dto.ViewEventDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.ReelSummary;
+import com.saurabhh.tiktokreels.repository.TaggedReel;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReelServiceTest {
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private CounterAggregator counterAggregator;
+
+    @Mock
+    private MediaObjectService mediaObjectService;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private LikeService likeService;
+
+    @Mock
+    private WatchStatsService watchStatsService;
+
+    @Mock
+    private ReelSearchService reelSearchService;
+
+    @Mock
+    private TagService tagService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private TranscodeService transcodeService;
+
+    @Mock
+    private PrefetchService prefetchService;
+
+    @Spy
+    private ReelCache reelCache = new ReelCache(true, 100, 60000);
+
+    @InjectMocks
+    private ReelService reelService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getAllReels_shouldResolveAuthorsInSingleQuery_regardlessOfPageSize() {
+        // Page sizes are clamped to 100, so that is the largest page there is
+        for (int feedSize : new int[] {1, 50, 100}) {
+            // Arrange
+            reset(reelRepository, userRepository);
+            List<Reel> reels = new ArrayList<>();
+            List<User> authors = new ArrayList<>();
+            for (long i = 1; i <= 10; i++) {
+                authors.add(User.builder().id(i).username("user" + i).build());
+            }
+            for (long i = 1; i <= feedSize; i++) {
+                reels.add(Reel.builder().id(i).userId((i % 10) + 1).title("Reel " + i)
+                        .likesCount(0).viewsCount(0).createdAt(Instant.now()).build());
+            }
+            when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(reels);
+            when(userRepository.findAllById(anyIterable())).thenReturn(authors);
+
+            // Act
+            List<ReelDTO> feed = reelService.getAllReels(null, feedSize, null).getReels();
+
+            // Assert
+            assertEquals(feedSize, feed.size());
+            assertEquals("user2", feed.get(0).getUsername());
+            verify(reelRepository, times(1)).findPublicFeedFirstPage(any());
+            verify(userRepository, times(1)).findAllById(anyIterable());
+            verify(userRepository, never()).findById(any());
+        }
+    }
+
+    @Test
+    void getAllReels_shouldFallBackToUnknown_whenAuthorIsMissing() {
+        // Arrange
+        Reel orphan = Reel.builder().id(1L).userId(99L).title("Orphan")
+                .likesCount(0).viewsCount(0).createdAt(Instant.now()).build();
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(List.of(orphan));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        // Act
+        List<ReelDTO> feed = reelService.getAllReels(null, 20, null).getReels();
+
+        // Assert
+        assertEquals("Unknown", feed.get(0).getUsername());
+    }
+
+    @Test
+    void getAllReels_shouldReturnCursorForNextPage_andSeekPastIt() {
+        // Arrange
+        Instant now = Instant.now();
+        List<Reel> firstPage = new ArrayList<>();
+        for (long i = 3; i >= 1; i--) {
+            firstPage.add(Reel.builder().id(i).userId(1L).likesCount(0).viewsCount(0)
+                    .createdAt(now.minusSeconds(3 - i)).build());
+        }
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(firstPage);
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        // Act
+        ReelPageDTO page = reelService.getAllReels(null, 2, null);
+        reelService.getAllReels(page.getNextCursor(), 2, null);
+
+        // Assert
+        assertEquals(2, page.getReels().size());
+        assertNotNull(page.getNextCursor());
+        verify(reelRepository).findPublicFeedPageAfter(eq(now.minusSeconds(1)), eq(2L), any());
+    }
+
+    @Test
+    void getAllReels_shouldHintReelsAfterPage_fromSameQuery() {
+        // Arrange: a page of 2 with 2 reels to prefetch needs 4 rows
+        Instant now = Instant.now();
+        List<Reel> rows = new ArrayList<>();
+        for (long i = 4; i >= 1; i--) {
+            rows.add(Reel.builder().id(i).userId(1L).likesCount(0).viewsCount(0)
+                    .createdAt(now.minusSeconds(4 - i)).build());
+        }
+        when(prefetchService.getCount()).thenReturn(2);
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(rows);
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        // Act
+        ReelPageDTO page = reelService.getAllReels(null, 2, null);
+
+        // Assert
+        assertEquals(List.of(4L, 3L), page.getReels().stream().map(ReelDTO::getId).toList());
+        assertNotNull(page.getNextCursor());
+        verify(reelRepository).findPublicFeedFirstPage(PageRequest.of(0, 4));
+        verify(prefetchService).manifest(rows.subList(2, 4));
+    }
+
+    @Test
+    void getAllReels_shouldOverlayPendingCounterDeltas() {
+        // Arrange
+        Reel reel = Reel.builder().id(7L).userId(1L).likesCount(10).viewsCount(100)
+                .createdAt(Instant.now()).build();
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(List.of(reel));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(counterAggregator.getPendingLikes(7L)).thenReturn(2L);
+        when(counterAggregator.getPendingViews(7L)).thenReturn(30L);
+
+        // Act
+        ReelDTO dto = reelService.getAllReels(null, 20, null).getReels().get(0);
+
+        // Assert
+        assertEquals(12, dto.getLikesCount());
+        assertEquals(130, dto.getViewsCount());
+    }
+
+    @Test
+    void getAllReels_shouldFlagViewerLikes_withOneLookupPerPage() {
+        // Arrange
+        Instant now = Instant.now();
+        List<Reel> reels = List.of(
+                Reel.builder().id(1L).userId(1L).likesCount(0).viewsCount(0).createdAt(now).build(),
+                Reel.builder().id(2L).userId(1L).likesCount(0).viewsCount(0).createdAt(now).build());
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(reels);
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(likeService.likedAmong(eq(9L), any())).thenReturn(Set.of(2L));
+
+        // Act
+        List<ReelDTO> feed = reelService.getAllReels(null, 20, 9L).getReels();
+
+        // Assert
+        assertFalse(feed.get(0).getLiked());
+        assertTrue(feed.get(1).getLiked());
+        verify(likeService, times(1)).likedAmong(eq(9L), eq(List.of(1L, 2L)));
+    }
+
+    @Test
+    void getAllReels_shouldLeaveLikedUnset_forAnonymousViewer() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).userId(1L).likesCount(0).viewsCount(0).createdAt(Instant.now()).build();
+        when(reelRepository.findPublicFeedFirstPage(any())).thenReturn(List.of(reel));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        // Act
+        ReelDTO dto = reelService.getAllReels(null, 20, null).getReels().get(0);
+
+        // Assert
+        assertNull(dto.getLiked());
+        verifyNoInteractions(likeService);
+    }
+
+    @Test
+    void getAllReels_shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> reelService.getAllReels("not-a-cursor", 20, null));
+    }
+
+    @Test
+    void searchReels_shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> reelService.searchReels("cats", "abc", 20, null));
+        assertThrows(InvalidCursorException.class, () -> reelService.searchReels("cats", "-20", 20, null));
+    }
+
+    @Test
+    void deleteReel_shouldReleaseItsVideoAndThumbnail() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).userId(1L)
+                .videoUrl("/api/videos/v.mp4").thumbnailUrl("/api/thumbnails/t.jpg").build();
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(reel));
+
+        // Act
+        reelService.deleteReel(1L);
+
+        // Assert
+        verify(reelRepository).deleteById(1L);
+        verify(mediaObjectService).release("/api/videos/v.mp4");
+        verify(mediaObjectService).release("/api/thumbnails/t.jpg");
+    }
+
+    @Test
+    void updateReel_shouldMoveReference_whenThumbnailChanges() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).userId(1L).likesCount(0).viewsCount(0)
+                .videoUrl("/api/videos/v.mp4").thumbnailUrl("/api/thumbnails/old.jpg").build();
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(reel));
+        when(reelRepository.save(any(Reel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ReelDTO update = ReelDTO.builder().title("Updated")
+                .videoUrl("/api/videos/v.mp4").thumbnailUrl("/api/thumbnails/new.jpg").build();
+
+        // Act
+        reelService.updateReel(1L, update);
+
+        // Assert
+        verify(mediaObjectService).retain("/api/thumbnails/new.jpg");
+        verify(mediaObjectService).release("/api/thumbnails/old.jpg");
+        verify(mediaObjectService, never()).release("/api/videos/v.mp4");
+    }
+
+    @Test
+    void publishIngested_shouldReturnExistingReel_whenJobWasAlreadyPublished() {
+        // Arrange: an earlier attempt committed the reel and then failed
+        Reel reel = Reel.builder().id(7L).userId(1L).title("Upload").likesCount(0).viewsCount(0)
+                .ingestJobId("job-1").build();
+        when(reelRepository.findByIngestJobId("job-1")).thenReturn(Optional.of(reel));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).username("alice").build()));
+
+        // Act
+        ReelDTO published = reelService.publishIngested("job-1", ReelDTO.builder().userId(1L).title("Upload").build());
+
+        // Assert
+        assertEquals(7L, published.getId());
+        verify(reelRepository, never()).save(any());
+        verify(mediaObjectService, never()).retain(any());
+        verify(timelineService, never()).publish(any(), any());
+    }
+
+    @Test
+    void getReel_shouldServeRepeatedReadsFromCache_withPendingCounts() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).userId(1L).title("Hot").likesCount(10).viewsCount(100).build();
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(reel));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).username("alice").build()));
+        when(counterAggregator.getPendingViews(1L)).thenReturn(0L, 5L);
+
+        // Act
+        ReelDTO first = reelService.getReel(1L, null);
+        ReelDTO second = reelService.getReel(1L, null);
+
+        // Assert
+        assertEquals(100, first.getViewsCount());
+        assertEquals(105, second.getViewsCount());
+        assertEquals("alice", second.getUsername());
+        verify(reelRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getReel_shouldReload_afterUpdate() {
+        // Arrange
+        Reel reel = Reel.builder().id(1L).userId(1L).title("Before").likesCount(0).viewsCount(0).build();
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(reel));
+        when(reelRepository.save(any(Reel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        reelService.getReel(1L, null);
+
+        // Act
+        reelService.updateReel(1L, ReelDTO.builder().title("After").build());
+        ReelDTO reloaded = reelService.getReel(1L, null);
+
+        // Assert
+        assertEquals("After", reloaded.getTitle());
+        verify(reelCache).invalidate(1L);
+    }
+
+    @Test
+    void getUserReels_shouldLookUpAuthorOnce_andPageByCursor() {
+        // Arrange
+        List<ReelSummary> rows = new ArrayList<>();
+        Instant now = Instant.now();
+        for (long i = 3; i >= 1; i--) {
+            ReelSummary row = mock(ReelSummary.class);
+            when(row.getId()).thenReturn(i);
+            when(row.getLikesCount()).thenReturn(0);
+            when(row.getViewsCount()).thenReturn(0);
+            when(row.getCreatedAt()).thenReturn(now.minusSeconds(i));
+            rows.add(row);
+        }
+        when(userRepository.findById(5L)).thenReturn(Optional.of(User.builder().id(5L).username("dave").build()));
+        when(reelRepository.findUserReelsFirstPage(eq(5L), eq(false), any())).thenReturn(rows);
+
+        // Act
+        ReelPageDTO page = reelService.getUserReels(5L, false, null, 2, null);
+
+        // Assert
+        assertEquals(2, page.getReels().size());
+        assertEquals("dave", page.getReels().get(1).getUsername());
+        assertEquals(5L, page.getReels().get(1).getUserId());
+        FeedCursor next = FeedCursor.decode(page.getNextCursor());
+        assertEquals(2L, next.getId());
+        verify(userRepository, times(1)).findById(5L);
+        verify(userRepository, never()).findAllById(anyIterable());
+        verify(reelRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserReels_shouldIncludePrivateReels_onlyWhenAsked() {
+        // Arrange
+        when(userRepository.findById(5L)).thenReturn(Optional.of(User.builder().id(5L).username("dave").build()));
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        String cursor = new FeedCursor(createdAt, 9L).encode();
+
+        // Act
+        reelService.getUserReels(5L, true, cursor, 20, null);
+
+        // Assert
+        verify(reelRepository).findUserReelsPageAfter(eq(5L), eq(true), eq(createdAt), eq(9L), any());
+    }
+
+    @Test
+    void getTrendingReels_shouldSkipAndForgetPrivateReels() {
+        // Arrange
+        when(trendingService.top(anyInt())).thenReturn(List.of(1L, 2L, 3L));
+        for (long id = 1; id <= 3; id++) {
+            when(reelRepository.findById(id)).thenReturn(Optional.of(Reel.builder().id(id).userId(1L)
+                    .likesCount(0).viewsCount(0).isPrivate(id == 2L).build()));
+        }
+
+        // Act
+        List<ReelDTO> trending = reelService.getTrendingReels(2, null);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), trending.stream().map(ReelDTO::getId).toList());
+        verify(trendingService).remove(2L);
+    }
+
+    @Test
+    void recordViews_shouldAggregatePerReel_beforeBuffering() {
+        // Arrange
+        List<ViewEventDTO> events = Arrays.asList(
+                new ViewEventDTO(1L, 3_000L),
+                new ViewEventDTO(2L, 500L),
+                new ViewEventDTO(1L, 1_000L),
+                new ViewEventDTO(1L, -20L),
+                new ViewEventDTO(null, 100L),
+                null);
+
+        // Act
+        int recorded = reelService.recordViews(events);
+
+        // Assert
+        assertEquals(4, recorded);
+        verify(counterAggregator).addViews(1L, 3, 4_000);
+        verify(counterAggregator).addViews(2L, 1, 500);
+        verifyNoMoreInteractions(counterAggregator);
+        verify(watchStatsService).record(argThat(logged -> logged.size() == 4));
+    }
+
+    @Test
+    void recordViews_shouldCountViews_withoutWatchEvents_whenTimeWatchedIsUnknown() {
+        // Act
+        int recorded = reelService.recordViews(List.of(new ViewEventDTO(1L, null)));
+        reelService.incrementViewsCount(2L);
+
+        // Assert: a zero-length watch event would lower the average watch time and completion rate
+        assertEquals(1, recorded);
+        verify(counterAggregator).addViews(1L, 1, 0);
+        verify(counterAggregator).incrementViews(2L);
+        verifyNoInteractions(watchStatsService);
+    }
+
+    @Test
+    void searchReels_shouldHydrateFromCache_andSkipStaleHits() {
+        // Arrange
+        when(reelSearchService.search("cats", 0, 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(Reel.builder().id(1L).userId(1L)
+                .likesCount(0).viewsCount(0).build()));
+        when(reelRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        ReelPageDTO page = reelService.searchReels("cats", null, 2, null);
+
+        // Assert
+        assertEquals(List.of(1L), page.getReels().stream().map(ReelDTO::getId).toList());
+        assertEquals("2", page.getNextCursor());
+        verify(reelSearchService).remove(2L);
+        verify(reelRepository, never()).findById(3L);
+    }
+
+    @Test
+    void getTagReels_shouldPageByCursor_andSkipPrivateReels() {
+        // Arrange
+        Instant now = Instant.now();
+        TaggedReel first = tagged(3L, now);
+        TaggedReel second = tagged(2L, now.minusSeconds(1));
+        TaggedReel third = tagged(1L, now.minusSeconds(2));
+        when(tagService.getReelCount("dance")).thenReturn(Optional.of(3L));
+        when(tagService.getPage("dance", null, null, 3)).thenReturn(List.of(first, second, third));
+        when(reelRepository.findById(3L)).thenReturn(Optional.of(Reel.builder().id(3L).userId(1L)
+                .likesCount(0).viewsCount(0).build()));
+        when(reelRepository.findById(2L)).thenReturn(Optional.of(Reel.builder().id(2L).userId(1L)
+                .likesCount(0).viewsCount(0).isPrivate(true).build()));
+
+        // Act
+        TagPageDTO page = reelService.getTagReels("#Dance", null, 2, null);
+
+        // Assert
+        assertEquals("dance", page.getTag());
+        assertEquals(3L, page.getReelCount());
+        assertEquals(List.of(3L), page.getReels().stream().map(ReelDTO::getId).toList());
+        assertEquals(new FeedCursor(second.getCreatedAt(), 2L).encode(), page.getNextCursor());
+        verify(reelRepository, never()).findById(1L);
+    }
+
+    @Test
+    void getTagReels_shouldThrow_forUnknownTag() {
+        // Arrange
+        when(tagService.getReelCount("nope")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> reelService.getTagReels("nope", null, 20, null));
+    }
+
+    @Test
+    void getHomeReels_shouldPageTheTimeline_andFlagLikes() {
+        // Arrange
+        Instant now = Instant.now();
+        when(timelineService.getPage(5L, null, null, 2)).thenReturn(List.of(
+                new TimelineBuffer.Entry(8L, now), new TimelineBuffer.Entry(7L, now.minusSeconds(1))));
+        when(reelRepository.findById(8L)).thenReturn(Optional.of(Reel.builder().id(8L).userId(1L)
+                .likesCount(0).viewsCount(0).build()));
+        when(likeService.likedAmong(eq(5L), any())).thenReturn(Set.of(8L));
+
+        // Act
+        ReelPageDTO page = reelService.getHomeReels(5L, null, 1);
+
+        // Assert
+        assertEquals(List.of(8L), page.getReels().stream().map(ReelDTO::getId).toList());
+        assertTrue(page.getReels().get(0).getLiked());
+        assertEquals(new FeedCursor(now, 8L).encode(), page.getNextCursor());
+        verify(reelRepository, never()).findById(7L);
+    }
+
+    private static TaggedReel tagged(Long reelId, Instant createdAt) {
+        return new TaggedReel() {
+            @Override
+            public Long getReelId() {
+                return reelId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
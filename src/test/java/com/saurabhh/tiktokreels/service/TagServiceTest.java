@@ -0,0 +1,188 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.Tag;
+import com.saurabhh.tiktokreels.repository.ReelTagRepository;
+import com.saurabhh.tiktokreels.repository.TagRepository;
+import com.saurabhh.tiktokreels.repository.TaggedReel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TagServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private ReelTagRepository reelTagRepository;
+
+    private TagService tagService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tagService = new TagService(tagRepository, reelTagRepository, 3, 100, 60000);
+    }
+
+    @Test
+    void normalize_shouldStripHashAndLowerCase() {
+        assertEquals("viral", TagService.normalize("#Viral"));
+        assertEquals("viral", TagService.normalize("VIRAL"));
+    }
+
+    @Test
+    void tagReel_shouldOnlyWriteChangedTags() {
+        // Arrange
+        Tag dance = new Tag(1L, "dance", 5);
+        Tag old = new Tag(2L, "old", 3);
+        when(tagRepository.findByReelId(10L)).thenReturn(List.of(dance, old));
+        when(tagRepository.findIdByNameForShare("summer")).thenReturn(Optional.of(3L));
+
+        // Act
+        tagService.tagReel(reel(10L, "Moves #Dance", "#summer vibes", false, Instant.now()));
+
+        // Assert
+        verify(reelTagRepository).deleteTag(2L, 10L);
+        verify(tagRepository).adjustReelCount(2L, -1);
+        verify(tagRepository).insertIfAbsent("summer");
+        verify(tagRepository, never()).findByName(any());
+        verify(reelTagRepository).save(argThat(row -> row.getTagId() == 3L && row.getReelId() == 10L));
+        verify(tagRepository).adjustReelCount(3L, 1);
+        verify(tagRepository, never()).adjustReelCount(eq(1L), anyInt());
+    }
+
+    @Test
+    void tagReel_shouldCapAllTags_notOnlyTheNewOnes() {
+        // Arrange: the reel already has the first 30 tags of its text
+        List<Tag> current = new ArrayList<>();
+        StringBuilder description = new StringBuilder();
+        for (long i = 1; i <= 40; i++) {
+            if (i <= 30) {
+                current.add(new Tag(i, "t" + i, 1));
+            }
+            description.append(" #t").append(i);
+        }
+        when(tagRepository.findByReelId(10L)).thenReturn(current);
+
+        // Act
+        tagService.tagReel(reel(10L, "Spam", description.toString(), false, Instant.now()));
+
+        // Assert
+        verify(tagRepository, never()).insertIfAbsent(any());
+        verify(reelTagRepository, never()).save(any());
+        verify(reelTagRepository, never()).deleteTag(anyLong(), anyLong());
+    }
+
+    @Test
+    void untagReel_shouldRemoveEveryTag() {
+        // Arrange
+        when(tagRepository.findByReelId(10L)).thenReturn(List.of(new Tag(1L, "dance", 5), new Tag(2L, "old", 3)));
+
+        // Act
+        tagService.untagReel(reel(10L, "Moves #dance", "#old", false, Instant.now()));
+
+        // Assert
+        verify(reelTagRepository).deleteTag(1L, 10L);
+        verify(reelTagRepository).deleteTag(2L, 10L);
+    }
+
+    @Test
+    void tagReel_shouldRemoveAllTags_whenReelIsPrivate() {
+        // Arrange
+        when(tagRepository.findByReelId(10L)).thenReturn(List.of(new Tag(1L, "dance", 5)));
+
+        // Act
+        tagService.tagReel(reel(10L, "Moves #dance", null, true, Instant.now()));
+
+        // Assert
+        verify(reelTagRepository).deleteTag(1L, 10L);
+        verify(tagRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    void getReelCount_shouldBeEmpty_forUnknownTag() {
+        // Arrange
+        when(tagRepository.findByName("nope")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(tagService.getReelCount("nope").isEmpty());
+        assertTrue(tagService.getPage("nope", null, null, 10).isEmpty());
+    }
+
+    @Test
+    void getPage_shouldServeFromMemory_andKeepItCurrent() {
+        // Arrange
+        Instant now = Instant.now();
+        when(tagRepository.findByName("dance")).thenReturn(Optional.of(new Tag(1L, "dance", 2)));
+        when(reelTagRepository.findTagFirstPage(eq(1L), any()))
+                .thenReturn(rows(now, 2L, 1L));
+        tagService.getPage("dance", null, null, 10);
+
+        // Act
+        when(tagRepository.findByReelId(3L)).thenReturn(List.of());
+        tagService.tagReel(reel(3L, "#dance", null, false, now.plusSeconds(3)));
+        List<TaggedReel> page = tagService.getPage("dance", null, null, 10);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 1L), page.stream().map(TaggedReel::getReelId).toList());
+        assertEquals(Optional.of(3L), tagService.getReelCount("dance"));
+        verify(reelTagRepository, times(1)).findTagFirstPage(eq(1L), any());
+        verify(reelTagRepository, never()).findTagPageAfter(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void getPage_shouldFallBackToDatabase_pastTheHead() {
+        // Arrange
+        Instant now = Instant.now();
+        when(tagRepository.findByName("dance")).thenReturn(Optional.of(new Tag(1L, "dance", 5)));
+        // A full head of three entries means there may be older ones
+        when(reelTagRepository.findTagFirstPage(eq(1L), any())).thenReturn(rows(now, 5L, 4L, 3L));
+        when(reelTagRepository.findTagPageAfter(eq(1L), any(), eq(4L), any())).thenReturn(rows(now, 3L, 2L));
+
+        // Act
+        List<TaggedReel> head = tagService.getPage("dance", null, null, 2);
+        List<TaggedReel> deeper = tagService.getPage("dance", head.get(1).getCreatedAt(), 4L, 2);
+
+        // Assert
+        assertEquals(List.of(5L, 4L), head.stream().map(TaggedReel::getReelId).toList());
+        assertEquals(List.of(3L, 2L), deeper.stream().map(TaggedReel::getReelId).toList());
+    }
+
+    private static List<TaggedReel> rows(Instant now, Long... reelIds) {
+        List<TaggedReel> rows = new ArrayList<>();
+        for (Long reelId : reelIds) {
+            Instant createdAt = now.plusSeconds(reelId);
+            rows.add(new TaggedReel() {
+                @Override
+                public Long getReelId() {
+                    return reelId;
+                }
+
+                @Override
+                public Instant getCreatedAt() {
+                    return createdAt;
+                }
+            });
+        }
+        return rows;
+    }
+
+    private static Reel reel(Long id, String title, String description, boolean isPrivate, Instant createdAt) {
+        return Reel.builder().id(id).userId(1L).title(title).description(description)
+                .isPrivate(isPrivate).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.cache.TimelineBuffer;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.User;
+import com.saurabhh.tiktokreels.repository.FollowRepository;
+import com.saurabhh.tiktokreels.repository.ReelKey;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TimelineServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Timelines of three entries; five followers make a celebrity
+        timelineService = new TimelineService(followRepository, userRepository, reelRepository, 3, 5, 300, 10, 60000);
+    }
+
+    @Test
+    void getPage_shouldBuildTimelineOnce_thenServeFromMemory() {
+        // Arrange
+        when(followRepository.findFolloweeIds(1L)).thenReturn(List.of(2L, 3L));
+        when(userRepository.findIdsWithFollowersAtLeast(List.of(2L, 3L), 5)).thenReturn(List.of());
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L, 2L, 3L)), any())).thenReturn(keys(20L, 10L));
+
+        // Act
+        List<TimelineBuffer.Entry> first = timelineService.getPage(1L, null, null, 10);
+        List<TimelineBuffer.Entry> again = timelineService.getPage(1L, null, null, 10);
+
+        // Assert
+        assertEquals(List.of(20L, 10L), ids(first));
+        assertEquals(List.of(20L, 10L), ids(again));
+        verify(reelRepository, times(1)).findNewestPublicKeys(any(), any());
+        verify(reelRepository, never()).findHomeFeedFirstPage(anyLong(), any());
+    }
+
+    @Test
+    void publish_shouldPushIntoFollowersTimelines() {
+        // Arrange
+        when(followRepository.findFolloweeIds(1L)).thenReturn(List.of(2L));
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L, 2L)), any())).thenReturn(keys(10L));
+        timelineService.getPage(1L, null, null, 10);
+        when(followRepository.findFollowerIdsAfter(eq(2L), eq(0L), any())).thenReturn(List.of(1L));
+        when(followRepository.findFollowerIdsAfter(eq(2L), eq(1L), any())).thenReturn(List.of());
+
+        // Act
+        timelineService.publish(reel(30L, 2L), author(2L, 1));
+        List<TimelineBuffer.Entry> page = timelineService.getPage(1L, null, null, 10);
+
+        // Assert
+        assertEquals(List.of(30L, 10L), ids(page));
+        verify(reelRepository, times(1)).findNewestPublicKeys(any(), any());
+    }
+
+    @Test
+    void publish_shouldNotFanOutCelebrities_butMergeTheirReelsOnRead() {
+        // Arrange
+        when(followRepository.findFolloweeIds(1L)).thenReturn(List.of(2L, 9L));
+        when(userRepository.findIdsWithFollowersAtLeast(List.of(2L, 9L), 5)).thenReturn(List.of(9L));
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L, 2L)), any())).thenReturn(keys(20L));
+        when(reelRepository.findNewestPublicKeys(eq(List.of(9L)), any())).thenReturn(keys(10L));
+        timelineService.getPage(1L, null, null, 10);
+
+        // Act
+        timelineService.publish(reel(30L, 9L), author(9L, 50));
+        List<TimelineBuffer.Entry> page = timelineService.getPage(1L, null, null, 10);
+
+        // Assert
+        assertEquals(List.of(30L, 20L, 10L), ids(page));
+        verify(followRepository, never()).findFollowerIdsAfter(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void followersChanged_shouldRebuildFollowersTimelines_whenAuthorBecomesCelebrity() {
+        // Arrange
+        when(followRepository.findFolloweeIds(1L)).thenReturn(List.of(2L));
+        when(userRepository.findIdsWithFollowersAtLeast(List.of(2L), 5)).thenReturn(List.of(), List.of(2L));
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L, 2L)), any())).thenReturn(keys(10L));
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L)), any())).thenReturn(keys());
+        when(reelRepository.findNewestPublicKeys(eq(List.of(2L)), any())).thenReturn(keys(30L, 10L));
+        when(followRepository.findFollowerIdsAfter(eq(2L), eq(0L), any())).thenReturn(List.of(1L));
+        when(followRepository.findFollowerIdsAfter(eq(2L), eq(1L), any())).thenReturn(List.of());
+        timelineService.getPage(1L, null, null, 10);
+
+        // Act: a follow below the threshold changes nothing, the one reaching it does
+        timelineService.followersChanged(2L, 3, 4);
+        timelineService.getPage(1L, null, null, 10);
+        timelineService.followersChanged(2L, 4, 5);
+        List<TimelineBuffer.Entry> page = timelineService.getPage(1L, null, null, 10);
+
+        // Assert: reel 30 was published as a celebrity reel, so it was never pushed
+        assertEquals(List.of(30L, 10L), ids(page));
+        verify(followRepository, times(2)).findFolloweeIds(1L);
+    }
+
+    @Test
+    void getPage_shouldFallBackToDatabase_pastTheBufferedHead() {
+        // Arrange
+        when(followRepository.findFolloweeIds(1L)).thenReturn(List.of());
+        // A full buffer of three means older reels may exist
+        when(reelRepository.findNewestPublicKeys(eq(List.of(1L)), any())).thenReturn(keys(40L, 30L, 20L));
+        when(reelRepository.findHomeFeedPageAfter(eq(1L), eq(NOW.plusSeconds(30)), eq(30L), any()))
+                .thenReturn(keys(20L, 10L));
+
+        // Act
+        List<TimelineBuffer.Entry> head = timelineService.getPage(1L, null, null, 2);
+        List<TimelineBuffer.Entry> deeper = timelineService.getPage(1L, NOW.plusSeconds(30), 30L, 2);
+
+        // Assert
+        assertEquals(List.of(40L, 30L), ids(head));
+        assertEquals(List.of(20L, 10L), ids(deeper));
+    }
+
+    private static List<ReelKey> keys(Long... reelIds) {
+        List<ReelKey> keys = new ArrayList<>();
+        for (Long reelId : reelIds) {
+            // Higher ids are newer
+            Instant createdAt = NOW.plusSeconds(reelId);
+            keys.add(new ReelKey() {
+                @Override
+                public Long getId() {
+                    return reelId;
+                }
+
+                @Override
+                public Instant getCreatedAt() {
+                    return createdAt;
+                }
+            });
+        }
+        return keys;
+    }
+
+    private static List<Long> ids(List<TimelineBuffer.Entry> entries) {
+        return entries.stream().map(TimelineBuffer.Entry::getReelId).toList();
+    }
+
+    private static Reel reel(Long id, Long userId) {
+        return Reel.builder().id(id).userId(userId).isPrivate(false).createdAt(NOW.plusSeconds(id)).build();
+    }
+
+    private static User author(Long id, int followers) {
+        return User.builder().id(id).username("user" + id).followersCount(followers).build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TranscodeServiceTest {
+
+    private static final String VIDEO_URL = "/api/videos/abc.mp4";
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    @Mock
+    private ReelCache reelCache;
+
+    @TempDir
+    Path tempDir;
+
+    private TranscodeService transcodeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transcodeService = new TranscodeService(fileStorageService, reelRepository, reelCache,
+                "ffmpeg", "ffprobe", 1, 4, 1000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transcodeService.shutdown();
+    }
+
+    @Test
+    void parseProbe_shouldReadDurationAndSize() {
+        // Act
+        TranscodeService.Probe probe = TranscodeService.parseProbe("width=1920\nheight=1080\nduration=12.345\n");
+
+        // Assert
+        assertEquals(12345, probe.getDurationMs());
+        assertEquals(1920, probe.getWidth());
+        assertEquals(1080, probe.getHeight());
+    }
+
+    @Test
+    void parseProbe_shouldSwapSizeOfRotatedVideo() {
+        // Act: a phone recording stored as landscape frames
+        TranscodeService.Probe probe = TranscodeService.parseProbe(
+                "width=1920\nheight=1080\nrotation=-90\nduration=3.000000\n");
+
+        // Assert
+        assertEquals(1080, probe.getWidth());
+        assertEquals(1920, probe.getHeight());
+    }
+
+    @Test
+    void parseProbe_shouldIgnoreUnavailableValues() {
+        // Act
+        TranscodeService.Probe probe = TranscodeService.parseProbe("width=640\nheight=360\nduration=N/A\n");
+
+        // Assert
+        assertEquals(0, probe.getDurationMs());
+        assertEquals(640, probe.getWidth());
+    }
+
+    @Test
+    void ladderFor_shouldNotUpscale() {
+        // Act
+        List<String> names = TranscodeService.ladderFor(854, 480).stream().map(r -> r.name).toList();
+
+        // Assert
+        assertEquals(List.of("240p", "480p"), names);
+    }
+
+    @Test
+    void ladderFor_shouldUseShortSideOfPortraitVideo() {
+        // Act
+        List<String> names = TranscodeService.ladderFor(1080, 1920).stream().map(r -> r.name).toList();
+
+        // Assert
+        assertEquals(List.of("240p", "480p", "720p"), names);
+    }
+
+    @Test
+    void ladderFor_shouldAlwaysKeepLowestRendition() {
+        // Act
+        List<TranscodeService.Rendition> ladder = TranscodeService.ladderFor(176, 144);
+
+        // Assert
+        assertEquals(1, ladder.size());
+        assertArrayEquals(new int[] {176, 144}, ladder.get(0).outputSize(176, 144));
+    }
+
+    @Test
+    void outputSize_shouldRoundOddShortSideDownToEven() {
+        // Act
+        TranscodeService.Rendition lowest = TranscodeService.ladderFor(193, 145).get(0);
+
+        // Assert: libx264 rejects a 145 pixel side
+        assertEquals(144, lowest.scaledShortSide(193, 145));
+        assertArrayEquals(new int[] {192, 144}, lowest.outputSize(193, 145));
+    }
+
+    @Test
+    void masterPlaylist_shouldListRenditionsLowestFirst() {
+        // Act
+        String playlist = TranscodeService.masterPlaylist(TranscodeService.ladderFor(720, 1280), 720, 1280);
+
+        // Assert
+        assertTrue(playlist.startsWith("#EXTM3U\n"));
+        assertTrue(playlist.contains("RESOLUTION=240x426"));
+        assertTrue(playlist.contains("RESOLUTION=480x854"));
+        assertTrue(playlist.contains("RESOLUTION=720x1280"));
+        assertTrue(playlist.indexOf("240p/index.m3u8") < playlist.indexOf("720p/index.m3u8"));
+    }
+
+    @Test
+    void submit_shouldFillHlsUrlRightAwayWhenAlreadyTranscoded() throws Exception {
+        // Arrange: an identical upload was transcoded before
+        Path hls = Files.createDirectories(tempDir.resolve("abc.hls"));
+        when(fileStorageService.hlsDirectoryOf(VIDEO_URL)).thenReturn(Optional.of(hls));
+        when(fileStorageService.findByUrl(VIDEO_URL)).thenReturn(Optional.of(tempDir.resolve("abc.mp4")));
+        when(fileStorageService.hlsUrlOf(VIDEO_URL)).thenReturn(Optional.of("/api/hls/abc/master.m3u8"));
+        when(reelRepository.findIdsWithoutHls(VIDEO_URL)).thenReturn(List.of(7L));
+
+        // Act
+        transcodeService.submit(VIDEO_URL);
+
+        // Assert
+        verify(reelRepository).fillHlsUrl(VIDEO_URL, "/api/hls/abc/master.m3u8");
+        verify(reelCache).invalidate(7L);
+    }
+
+    @Test
+    void submit_shouldIgnoreExternalVideos() {
+        // Arrange
+        when(fileStorageService.hlsDirectoryOf(anyString())).thenReturn(Optional.empty());
+        when(fileStorageService.findByUrl(anyString())).thenReturn(Optional.empty());
+
+        // Act
+        transcodeService.submit("https://example.com/video.mp4");
+
+        // Assert
+        verify(reelRepository, never()).fillHlsUrl(anyString(), anyString());
+        verify(reelCache, never()).invalidate(any());
+    }
+}
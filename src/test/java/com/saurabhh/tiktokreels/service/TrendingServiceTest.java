@@ -0,0 +1,111 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.TrendingSeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingServiceTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000_000L);
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Likes weigh 5 views, and activity halves in weight every hour
+        trendingService = new TrendingService(reelRepository, 1, 5, HOUR, 100, now::get);
+    }
+
+    @Test
+    void onCountersFlushed_shouldRankByWeightedEngagement() {
+        // Act
+        trendingService.onCountersFlushed(new CountersFlushedEvent(
+                Map.of(1L, 30L, 2L, 10L), Map.of(2L, 5L, 3L, 1L)));
+
+        // Assert: 2 = 10 + 5*5, 1 = 30, 3 = 5
+        assertEquals(List.of(2L, 1L, 3L), trendingService.top(10));
+        assertEquals(List.of(2L), trendingService.top(1));
+    }
+
+    @Test
+    void onCountersFlushed_shouldFavourRecentActivity() {
+        // Arrange: reel 1 was popular two hours ago
+        trendingService.onCountersFlushed(new CountersFlushedEvent(Map.of(1L, 100L), Map.of()));
+        now.addAndGet(2 * HOUR);
+
+        // Act: reel 2 gets a little more than a quarter of that now
+        trendingService.onCountersFlushed(new CountersFlushedEvent(Map.of(2L, 26L), Map.of()));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), trendingService.top(10));
+    }
+
+    @Test
+    void onCountersFlushed_shouldKeepRankingStable_acrossLandmarkMoves() {
+        // Arrange
+        trendingService.onCountersFlushed(new CountersFlushedEvent(Map.of(1L, 10L, 2L, 20L), Map.of()));
+
+        // Act: far enough ahead that the scores must be rescaled
+        now.addAndGet(200 * HOUR);
+        trendingService.onCountersFlushed(new CountersFlushedEvent(Map.of(3L, 1L), Map.of()));
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 1L), trendingService.top(10));
+    }
+
+    @Test
+    void onCountersFlushed_shouldTrackOnlyTheTopReels() {
+        // Arrange
+        trendingService = new TrendingService(reelRepository, 1, 5, HOUR, 2, now::get);
+
+        // Act
+        trendingService.onCountersFlushed(new CountersFlushedEvent(Map.of(1L, 1L, 2L, 2L, 3L, 3L), Map.of()));
+
+        // Assert
+        assertEquals(List.of(3L, 2L), trendingService.top(10));
+    }
+
+    @Test
+    void rebuild_shouldSeedFromStoredCounts_andRemoveShouldDropReel() {
+        // Arrange
+        TrendingSeed older = seed(1L, 0, 100, now.get() - 3 * HOUR);
+        TrendingSeed newer = seed(2L, 0, 20, now.get());
+        when(reelRepository.findTrendingSeeds(any(Instant.class), any())).thenReturn(List.of(newer, older));
+
+        // Act
+        trendingService.rebuild();
+        List<Long> seeded = trendingService.top(10);
+        trendingService.remove(2L);
+
+        // Assert: 100 views three hours ago is worth 12.5 now
+        assertEquals(List.of(2L, 1L), seeded);
+        assertEquals(List.of(1L), trendingService.top(10));
+    }
+
+    private static TrendingSeed seed(Long id, int likes, int views, long createdAt) {
+        TrendingSeed seed = mock(TrendingSeed.class);
+        when(seed.getId()).thenReturn(id);
+        when(seed.getLikesCount()).thenReturn(likes);
+        when(seed.getViewsCount()).thenReturn(views);
+        when(seed.getCreatedAt()).thenReturn(Instant.ofEpochMilli(createdAt));
+        return seed;
+    }
+}
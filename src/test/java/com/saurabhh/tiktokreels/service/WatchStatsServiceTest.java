@@ -0,0 +1,166 @@
+package com.saurabhh.tiktokreels.service;
+
+import com.saurabhh.tiktokreels.dto.WatchBucketDTO;
+import com.saurabhh.tiktokreels.model.Reel;
+import com.saurabhh.tiktokreels.model.WatchBucket;
+import com.saurabhh.tiktokreels.repository.ReelDuration;
+import com.saurabhh.tiktokreels.repository.ReelRepository;
+import com.saurabhh.tiktokreels.repository.WatchBucketRepository;
+import com.saurabhh.tiktokreels.storage.WatchEvent;
+import com.saurabhh.tiktokreels.storage.WatchEventLog;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WatchStatsServiceTest {
+
+    private static final long HOUR = 3_600_000;
+    private static final String UPSERT_PREFIX = "INSERT INTO reel_watch_buckets";
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private WatchBucketRepository watchBucketRepository;
+
+    @Mock
+    private ReelRepository reelRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WatchEventLog watchEventLog;
+    private WatchStatsService watchStatsService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        watchEventLog = new WatchEventLog(root.toString());
+        watchStatsService = new WatchStatsService(watchEventLog, watchBucketRepository, reelRepository,
+                jdbcTemplate, transactionTemplate, 7 * 24 * HOUR);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rollup_shouldFoldEventsIntoMinuteAndHourBuckets() throws Exception {
+        // Arrange: a 10s reel, watched fully once and skipped twice within one minute
+        long minute = 100 * HOUR + 60_000;
+        watchStatsService.record(List.of(
+                new WatchEvent(1L, minute + 1_000, 10_000),
+                new WatchEvent(1L, minute + 2_000, 1_000),
+                new WatchEvent(1L, minute + 59_000, 0)));
+        when(reelRepository.findDurations(anyList())).thenReturn(List.of(duration(1L, 10_000L)));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO watch_rollup_segments"), any(), any())).thenReturn(1);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        watchStatsService.rollup();
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(startsWith(UPSERT_PREFIX), rows.capture());
+        List<Object[]> written = rows.getValue();
+        written.sort(Comparator.comparingLong(row -> (Long) row[1]));
+        assertEquals(2, written.size());
+        assertArrayEquals(new Object[] {1L, 60_000L, minute, 3L, 11_000L, 1L}, written.get(0));
+        assertArrayEquals(new Object[] {1L, HOUR, 100 * HOUR, 3L, 11_000L, 1L}, written.get(1));
+        assertTrue(watchEventLog.sealedSegments().isEmpty());
+    }
+
+    @Test
+    void rollup_shouldNotCountSegmentTwice_whenAlreadyApplied() throws Exception {
+        // Arrange
+        watchStatsService.record(List.of(new WatchEvent(1L, HOUR, 500)));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO watch_rollup_segments"), any(), any())).thenReturn(0);
+
+        // Act
+        watchStatsService.rollup();
+
+        // Assert
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertTrue(watchEventLog.sealedSegments().isEmpty());
+    }
+
+    @Test
+    void rollup_shouldKeepSegment_whenWriteFails() throws Exception {
+        // Arrange
+        watchStatsService.record(List.of(new WatchEvent(1L, HOUR, 500)));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE INTO watch_rollup_segments"), any(), any()))
+                .thenThrow(new RuntimeException("DB down"));
+
+        // Act
+        watchStatsService.rollup();
+
+        // Assert
+        assertEquals(1, watchEventLog.sealedSegments().size());
+    }
+
+    @Test
+    void getSeries_shouldReadBuckets_andDeriveRates() {
+        // Arrange
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(Reel.builder().id(1L).userId(5L).build()));
+        when(watchBucketRepository.findSeries(eq(1L), eq(HOUR), anyLong(), anyLong())).thenReturn(List.of(
+                WatchBucket.builder().reelId(1L).bucketMs(HOUR).bucketStartMs(HOUR)
+                        .views(4L).watchTimeMs(20_000L).completions(1L).build()));
+
+        // Act
+        List<WatchBucketDTO> series = watchStatsService.getSeries(1L, null, WatchStatsService.Granularity.HOUR,
+                Instant.ofEpochMilli(0), Instant.ofEpochMilli(2 * HOUR));
+
+        // Assert
+        assertEquals(1, series.size());
+        assertEquals(5_000, series.get(0).getAverageWatchMs());
+        assertEquals(0.25, series.get(0).getCompletionRate());
+    }
+
+    @Test
+    void getSeries_shouldHidePrivateReels_fromOtherUsers() {
+        // Arrange
+        when(reelRepository.findById(1L)).thenReturn(Optional.of(Reel.builder().id(1L).userId(5L).isPrivate(true).build()));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> watchStatsService.getSeries(1L, 6L,
+                WatchStatsService.Granularity.HOUR, Instant.ofEpochMilli(0), Instant.ofEpochMilli(HOUR)));
+        verifyNoInteractions(watchBucketRepository);
+    }
+
+    private static ReelDuration duration(Long id, Long durationMs) {
+        return new ReelDuration() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getDurationMs() {
+                return durationMs;
+            }
+        };
+    }
+}
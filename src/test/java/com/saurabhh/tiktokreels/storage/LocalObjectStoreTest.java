@@ -0,0 +1,61 @@
+package com.saurabhh.tiktokreels.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalObjectStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalObjectStore objectStore;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = new LocalObjectStore(root.toString());
+    }
+
+    @Test
+    void store_shouldWriteContentAddressedShardedFile() throws Exception {
+        // Arrange
+        byte[] content = new byte[3 * 1024 * 1024];
+        new Random(42).nextBytes(content);
+
+        // Act
+        StoredObject object = objectStore.store("videos", new ByteArrayInputStream(content), "mp4");
+
+        // Assert
+        Path path = objectStore.resolve("videos", object.getName());
+        assertEquals(object.getSha256() + ".mp4", object.getName());
+        assertEquals(content.length, object.getSize());
+        assertEquals(root.resolve("videos").resolve(object.getName().substring(0, 2))
+                .resolve(object.getName().substring(2, 4)).resolve(object.getName()), path);
+        assertArrayEquals(content, Files.readAllBytes(path));
+    }
+
+    @Test
+    void store_shouldReuseObject_whenContentIsIdentical() throws Exception {
+        // Act
+        StoredObject first = objectStore.store("thumbnails", "same bytes".getBytes(), "jpg");
+        StoredObject second = objectStore.store("thumbnails", "same bytes".getBytes(), "jpg");
+
+        // Assert
+        assertEquals(first.getName(), second.getName());
+        try (var tmpFiles = Files.list(root.resolve("thumbnails").resolve(".tmp"))) {
+            assertEquals(0, tmpFiles.count());
+        }
+    }
+
+    @Test
+    void resolve_shouldRejectPathTraversal() {
+        assertThrows(IllegalArgumentException.class, () -> objectStore.resolve("videos", "../../etc/passwd"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.saurabhh.tiktokreels.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchEventLogTest {
+
+    @TempDir
+    Path root;
+
+    private WatchEventLog watchEventLog;
+
+    @BeforeEach
+    void setUp() {
+        watchEventLog = new WatchEventLog(root.toString());
+    }
+
+    @Test
+    void seal_shouldExposeAppendedEvents_inOrder() throws Exception {
+        // Arrange
+        watchEventLog.append(List.of(new WatchEvent(1L, 1000L, 500), new WatchEvent(2L, 1001L, 0)));
+        watchEventLog.append(List.of(new WatchEvent(1L, 1002L, 15_000)));
+
+        // Act
+        watchEventLog.seal();
+        List<Path> segments = watchEventLog.sealedSegments();
+
+        // Assert
+        assertEquals(1, segments.size());
+        List<WatchEvent> events = watchEventLog.read(segments.get(0));
+        assertEquals(3, events.size());
+        assertEquals(2L, events.get(1).getReelId());
+        assertEquals(1002L, events.get(2).getTimestampMs());
+        assertEquals(15_000, events.get(2).getWatchedMs());
+    }
+
+    @Test
+    void seal_shouldNotCreateEmptySegments() throws Exception {
+        // Act
+        watchEventLog.seal();
+        watchEventLog.seal();
+
+        // Assert
+        assertTrue(watchEventLog.sealedSegments().isEmpty());
+    }
+
+    @Test
+    void read_shouldIgnoreTornRecordAtEnd() throws Exception {
+        // Arrange
+        watchEventLog.append(List.of(new WatchEvent(1L, 1000L, 500)));
+        watchEventLog.seal();
+        Path segment = watchEventLog.sealedSegments().get(0);
+        Files.write(segment, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        List<WatchEvent> events = watchEventLog.read(segment);
+
+        // Assert
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void constructor_shouldTreatLeftoverSegmentsAsSealed() throws Exception {
+        // Arrange: a previous run wrote events but never sealed
+        watchEventLog.append(List.of(new WatchEvent(1L, 1000L, 500)));
+        watchEventLog.close();
+
+        // Act
+        WatchEventLog restarted = new WatchEventLog(root.toString());
+
+        // Assert
+        List<Path> segments = restarted.sealedSegments();
+        assertEquals(1, segments.size());
+        assertEquals(1, restarted.read(segments.get(0)).size());
+    }
+}